@@ -0,0 +1,117 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH result file against a baseline and fails when a benchmark has regressed.
+ *
+ * <p>Both files are JMH CSV results ({@code -rf csv}). A benchmark regresses when its score is worse than the
+ * baseline score by more than the tolerance, in the direction given by its mode: lower is better for
+ * average time, sample time, single shot time and the GC profiler's normalized allocation rate, higher is better
+ * for throughput. Benchmarks missing from either file are reported but do not fail the gate.</p>
+ *
+ * <p>Usage: {@code java -cp target/benchmarks.jar com.bunny.simulation.BenchmarkGate baseline.csv current.csv [tolerancePercent]}</p>
+ */
+public class BenchmarkGate {
+    private static final double DEFAULT_TOLERANCE_PERCENT = 10.0;
+    private static final String ALLOCATION_METRIC = ":gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkGate <baseline.csv> <current.csv> [tolerancePercent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT;
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Result> entry : baseline.entrySet()) {
+            Result before = entry.getValue();
+            Result after = current.get(entry.getKey());
+            if (after == null) {
+                System.out.println("MISSING  " + entry.getKey());
+                continue;
+            }
+            double change = before.score == 0 ? 0 : (after.score - before.score) / before.score * 100.0;
+            double regression = before.lowerIsBetter() ? change : -change;
+            String line = String.format("%-9s%s: %.3f -> %.3f %s (%+.1f%%)",
+                    regression > tolerance ? "REGRESSED" : "OK", entry.getKey(), before.score, after.score,
+                    after.unit, change);
+            System.out.println(line);
+            if (regression > tolerance) {
+                regressions.add(line);
+            }
+        }
+        for (String key : current.keySet()) {
+            if (!baseline.containsKey(key)) {
+                System.out.println("NEW      " + key);
+            }
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println(regressions.size() + " benchmark(s) regressed by more than " + tolerance + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return results;
+        }
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = split(line);
+            String name = fields.get(benchmark);
+            if (name.contains(":") && !name.endsWith(ALLOCATION_METRIC)) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(name);
+            for (int column = 0; column < header.size(); column++) {
+                if (header.get(column).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(column).substring(7)).append('=').append(fields.get(column));
+                }
+            }
+            results.put(key.toString(), new Result(fields.get(mode), Double.parseDouble(fields.get(score)),
+                    fields.get(unit), name.endsWith(ALLOCATION_METRIC)));
+        }
+        return results;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        for (String field : line.split(",", -1)) {
+            fields.add(field.replace("\"", "").trim());
+        }
+        return fields;
+    }
+
+    private static class Result {
+        private final String mode;
+        private final double score;
+        private final String unit;
+        private final boolean allocation;
+
+        Result(String mode, double score, String unit, boolean allocation) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+            this.allocation = allocation;
+        }
+
+        boolean lowerIsBetter() {
+            return allocation || !mode.equals("thrpt");
+        }
+    }
+}
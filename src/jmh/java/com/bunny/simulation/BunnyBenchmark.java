@@ -0,0 +1,49 @@
+package com.bunny.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a single reproduction in the column store, the work behind {@link Bunny#reproduce()}.
+ *
+ * <p>Each invocation removes the offspring again, so the population and its free list stay the same size and the
+ * measured cost is one birth plus one slot release.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BunnyBenchmark {
+
+    @State(Scope.Thread)
+    public static class ParentState {
+        SplittableRandom random;
+        int parent;
+
+        @Setup(Level.Iteration)
+        public void setUp(PopulationState population) {
+            random = new SplittableRandom(PopulationState.SEED);
+            parent = population.population.slotLimit() / 2;
+            population.population.setAge(parent, Bunny.REPRODUCTION_AGE);
+        }
+    }
+
+    @Benchmark
+    public int reproduce(PopulationState state, ParentState parent) {
+        int offspring = state.population.reproduce(parent.parent, parent.random);
+        state.population.remove(offspring);
+        return offspring;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bunny.simulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the {@link Environment} operations run once per simulated year.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EnvironmentBenchmark {
+
+    @Benchmark
+    public BunnyPopulation adjustHealth(PopulationState state) {
+        state.environment.adjustHealth(state.population);
+        return state.population;
+    }
+
+    @Benchmark
+    public double updateResources(PopulationState state) {
+        state.environment.updateResources(state.population.size());
+        return state.environment.getResourceAvailability();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bunny.simulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the batch kernels of {@link HealthKernels} against the per-object path through {@link Bunny} views.
+ *
+ * <p>The {@code Vector} benchmarks fork with the {@code jdk.incubator.vector} module and the {@code Scalar} ones
+ * without it, so the two kernel implementations are compared on the same columns. The Vector API implementation is
+ * only in the benchmark jar when it was built with the {@code vector} profile as well, otherwise the {@code Vector}
+ * benchmarks fail in their setup.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class HealthKernelsBenchmark {
+    private static final String VECTOR_MODULE = "--add-modules=jdk.incubator.vector";
+
+    @State(Scope.Benchmark)
+    public static class Columns {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        Environment environment;
+        Bunny[] bunnies;
+        double[] health;
+        boolean[] alive;
+        double[] reproductionRate;
+        double[] mutationRate;
+        double[] fitness;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Simulation simulation = new Simulation(size, size, PopulationState.SEED);
+            environment = simulation.getEnvironment();
+            BunnyPopulation population = simulation.getPopulation();
+            bunnies = population.views().toArray(new Bunny[0]);
+            health = new double[size];
+            alive = new boolean[size];
+            reproductionRate = new double[size];
+            mutationRate = new double[size];
+            fitness = new double[size];
+            for (int slot = 0; slot < size; slot++) {
+                health[slot] = population.getHealth(slot);
+                alive[slot] = population.isAlive(slot);
+                reproductionRate[slot] = population.getReproductionRate(slot);
+                mutationRate[slot] = population.getMutationRate(slot);
+            }
+        }
+    }
+
+    /**
+     * Guards the {@code Vector} benchmarks against measuring the scalar loops.
+     */
+    @State(Scope.Benchmark)
+    public static class VectorApi {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            if (!HealthKernels.isVectorized()) {
+                throw new IllegalStateException("The Vector API kernels are missing, build with -Pbenchmarks,vector");
+            }
+        }
+    }
+
+    @Benchmark
+    public Bunny[] adjustHealthPerBunny(Columns columns) {
+        columns.environment.adjustHealth(columns.bunnies);
+        return columns.bunnies;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", VECTOR_MODULE})
+    public long adjustHealthVector(Columns columns, VectorApi vectorApi) {
+        return HealthKernels.adjustHealth(columns.health, columns.alive, 0, columns.size,
+                -columns.environment.getHealthDecline());
+    }
+
+    @Benchmark
+    public long adjustHealthScalar(Columns columns) {
+        return HealthKernels.adjustHealth(columns.health, columns.alive, 0, columns.size,
+                -columns.environment.getHealthDecline());
+    }
+
+    @Benchmark
+    public double[] calculateFitnessPerBunny(Columns columns) {
+        for (int i = 0; i < columns.bunnies.length; i++) {
+            columns.fitness[i] = columns.bunnies[i].calculateFitness(columns.environment);
+        }
+        return columns.fitness;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", VECTOR_MODULE})
+    public double[] calculateFitnessVector(Columns columns, VectorApi vectorApi) {
+        return calculateFitness(columns);
+    }
+
+    @Benchmark
+    public double[] calculateFitnessScalar(Columns columns) {
+        return calculateFitness(columns);
+    }
+
+    private static double[] calculateFitness(Columns columns) {
+        Environment environment = columns.environment;
+        double resourceFitness = environment.getResourceAvailability() / environment.getCarryingCapacity();
+        HealthKernels.calculateFitness(resourceFitness, columns.health, columns.reproductionRate,
+                columns.mutationRate, 0, columns.size, columns.fitness);
+        return columns.fitness;
+    }
+}
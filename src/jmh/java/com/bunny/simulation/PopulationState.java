@@ -0,0 +1,38 @@
+package com.bunny.simulation;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state holding a seeded simulation whose population is spread over all ages, so that every phase of a
+ * year (ageing, reproduction, deaths) has work to do. Its carrying capacity equals the initial population.
+ *
+ * <p>The simulation is rebuilt before every measurement iteration, not before every invocation. Benchmarks that
+ * invoke it many times per iteration must leave the population size and ages as they found them, like a health
+ * adjustment or a birth followed by a removal. Benchmarks of a whole year or of natural selection change both, so
+ * they measure a single invocation per iteration.</p>
+ */
+@State(Scope.Benchmark)
+public class PopulationState {
+    static final long SEED = 42L;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    Simulation simulation;
+    BunnyPopulation population;
+    Environment environment;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        simulation = new Simulation(size, size, SEED);
+        population = simulation.getPopulation();
+        environment = simulation.getEnvironment();
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            population.setAge(slot, slot % Bunny.MAX_AGE);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bunny.simulation;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the yearly tick and of the population-wide operations of {@link Simulation}.
+ *
+ * <p>Each of these operations changes the population it runs on: a tick ages it and changes its size, natural
+ * selection adds offspring and the removal of dead bunnies leaves none to remove. Every iteration therefore measures
+ * a single invocation on a population rebuilt for it, so each measurement is one year of the same starting state.</p>
+ *
+ * <p>Run with the GC profiler ({@code -prof gc}) to see the allocation per tick next to the time.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SimulationBenchmark {
+
+    /**
+     * The population of {@link PopulationState} after every bunny aged by one year, so that the oldest age group
+     * has died and waits to be removed.
+     */
+    @State(Scope.Benchmark)
+    public static class AgedState {
+
+        @Setup(Level.Iteration)
+        public void setUp(PopulationState state) {
+            for (int slot = 0; slot < state.population.slotLimit(); slot++) {
+                state.population.ageOneYear(slot);
+            }
+        }
+    }
+
+    @Benchmark
+    public BunnyPopulation runSimulationOneYear(PopulationState state) {
+        state.simulation.runSimulation(1);
+        return state.population;
+    }
+
+    @Benchmark
+    public BunnyPopulation naturalSelection(PopulationState state) {
+        state.simulation.naturalSelection();
+        return state.population;
+    }
+
+    @Benchmark
+    public BunnyPopulation removeDeadBunnies(PopulationState state, AgedState aged) {
+        state.simulation.removeDeadBunnies();
+        return state.population;
+    }
+}
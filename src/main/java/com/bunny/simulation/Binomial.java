@@ -0,0 +1,60 @@
+package com.bunny.simulation;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws binomially distributed counts, used to move whole groups of bunnies at once.
+ */
+final class Binomial {
+    /**
+     * Above this expected number of successes the normal approximation is used instead of counting successes.
+     */
+    private static final double EXACT_LIMIT = 30.0;
+
+    private Binomial() {
+    }
+
+    /**
+     * Draws the number of successes in {@code trials} independent trials with success probability {@code p}.
+     *
+     * <p>Small expected counts are sampled exactly by skipping over failures with geometric waiting times, so the
+     * cost is proportional to the number of successes. Larger expected counts use the normal approximation with a
+     * continuity correction, whose error is negligible at that size.</p>
+     *
+     * @param random the random generator to draw from
+     * @param trials the number of trials
+     * @param p the success probability of a single trial
+     * @return the number of successes, between 0 and {@code trials}
+     */
+    static long sample(RandomGenerator random, long trials, double p) {
+        if (trials <= 0 || p <= 0) {
+            return 0;
+        }
+        if (p >= 1) {
+            return trials;
+        }
+        if (p > 0.5) {
+            return trials - sample(random, trials, 1 - p);
+        }
+        double mean = trials * p;
+        if (mean < EXACT_LIMIT) {
+            return sampleByWaitingTimes(random, trials, p);
+        }
+        double deviation = Math.sqrt(mean * (1 - p));
+        long successes = Math.round(mean + deviation * random.nextGaussian());
+        return Math.max(0, Math.min(successes, trials));
+    }
+
+    private static long sampleByWaitingTimes(RandomGenerator random, long trials, double p) {
+        double logFailure = Math.log1p(-p);
+        long successes = 0;
+        long position = 0;
+        while (true) {
+            position += (long) Math.floor(Math.log(1.0 - random.nextDouble()) / logFailure) + 1;
+            if (position > trials) {
+                return successes;
+            }
+            successes++;
+        }
+    }
+}
@@ -1,4 +1,5 @@
-import java.util.Random;
+package com.bunny.simulation;
+
 /**
  * Single Responsibility Principle (SRP): Each class has a specific responsibility:
  * Bunny handles bunny attributes and behaviors.
@@ -6,52 +7,56 @@ import java.util.Random;
  * ensuring that the system remains consistent.
  * Interface Segregation Principle (ISP): The classes are designed with specific behaviors in mind,
  * avoiding the need for unnecessary interfaces.
-
+ *
+ * <p>A Bunny is a view of one slot of a {@link BunnyPopulation}, which holds the actual attribute values.
+ * A bunny created through the public constructor gets a population of its own.</p>
  */
 public class Bunny {
-    private int age;
-    private int generation;
-    private double reproductionRate;
-    private double mutationRate;
-    private boolean alive;
-    private double health;
+    private final BunnyPopulation population;
+    private final int slot;
 
-    private static final int REPRODUCTION_AGE = 2;
-    private static final int MAX_AGE = 7;
-    private static final double HEALTH_THRESHOLD = 20.0;
+    static final int REPRODUCTION_AGE = 2;
+    static final int MAX_AGE = 7;
+    static final double HEALTH_THRESHOLD = 20.0;
 
     public Bunny(int generation) {
-        this.age = 0;
-        this.generation = generation;
-        this.reproductionRate = 0.5 + new Random().nextDouble() * 0.5; // between 0.5 and 1.0
-        this.mutationRate = 0.05;
-        this.alive = true;
-        this.health = 100.0;
+        this(generation, new RandomSource());
+    }
+
+    /**
+     * Creates a bunny in a population of its own whose random draws come from the given source.
+     *
+     * @param generation the generation of the bunny
+     * @param random the random source for the bunny's traits and offspring
+     */
+    public Bunny(int generation, RandomSource random) {
+        this.population = new BunnyPopulation(1, random);
+        this.slot = population.add(generation, random.nextStream());
+    }
+
+    Bunny(BunnyPopulation population, int slot) {
+        this.population = population;
+        this.slot = slot;
     }
 
     public int getAge() {
-        return age;
+        return population.getAge(slot);
     }
 
     public void setAge(int age) {
-        this.age = age;
+        population.setAge(slot, age);
     }
 
     public double getMutationRate() {
-        return mutationRate;
+        return population.getMutationRate(slot);
     }
 
     public void ageOneYear() {
-        if (alive) {
-            age++;
-            if (age >= MAX_AGE || health < HEALTH_THRESHOLD) {
-                alive = false;
-            }
-        }
+        population.ageOneYear(slot);
     }
 
     public boolean canReproduce() {
-        return alive && age >= REPRODUCTION_AGE;
+        return population.canReproduce(slot);
     }
 
     /**
@@ -60,7 +65,7 @@ public class Bunny {
      * <p>This method checks if the bunny is able to reproduce by invoking the {@code canReproduce()} method.
      * If eligible, it creates a new Bunny instance representing the offspring.
      * The offspring inherits certain characteristics from the parent, including the generation number, which is
-     * incremented by 1.</p>
+     * incremented by 1. The offspring is added to the same population as its parent.</p>
      *
      * <p>The method also introduces random genetic mutations. If a randomly generated value is less than the parent's
      * mutation rate, the offspring's mutation rate is adjusted by a small random value between -0.1 and +0.1.
@@ -69,15 +74,8 @@ public class Bunny {
      * @return the new Bunny offspring if reproduction occurs, or {@code null} if the bunny cannot reproduce
      */
     public Bunny reproduce() {
-        if (canReproduce()) {
-            Bunny offspring = new Bunny(generation + 1);
-            if (new Random().nextDouble() < mutationRate) {
-                offspring.mutationRate += (new Random().nextDouble() * 0.2) - 0.1; // mutate between -0.1 and +0.1
-                offspring.mutationRate = Math.max(0, Math.min(offspring.mutationRate, 1.0)); // keep mutation rate in range
-            }
-            return offspring;
-        }
-        return null;
+        int offspring = population.reproduce(slot, population.getRandomSource().nextStream());
+        return offspring < 0 ? null : population.view(offspring);
     }
 
     /**
@@ -101,27 +99,26 @@ public class Bunny {
      */
     public double calculateFitness(Environment env) {
         double resourceFitness = (double)env.getResourceAvailability() / env.getCarryingCapacity();
-        double traitFitness = (1.0 / Math.abs(reproductionRate - mutationRate)); // Favor balanced traits
-        return health * resourceFitness * traitFitness;
+        return population.calculateFitness(slot, resourceFitness);
     }
 
     public void setHealth(double health) {
-        this.health = health;
+        population.setHealth(slot, health);
     }
 
     public boolean isAlive() {
-        return alive;
+        return population.isAlive(slot);
     }
 
     public int getGeneration() {
-        return generation;
+        return population.getGeneration(slot);
     }
 
     public double getHealth() {
-        return health;
+        return population.getHealth(slot);
     }
 
     public double getReproductionRate() {
-        return reproductionRate;
+        return population.getReproductionRate(slot);
     }
 }
@@ -0,0 +1,478 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Single Responsibility Principle (SRP): BunnyPopulation stores the state of every bunny in the simulation.
+ *
+ * <p>Instead of one object per bunny, each attribute is kept in its own column and a bunny is identified by its
+ * slot index in those columns. Walking the population is then a linear scan over a few columns rather than chasing
+ * one pointer per bunny. The columns live in a {@link PopulationStorage}: primitive arrays by default, or memory
+ * outside the Java heap for populations that do not fit in it.</p>
+ *
+ * <p>Removed bunnies hand their slot back to a free list, and later births reuse those slots before the columns
+ * are grown. Once the population has reached its working size, a simulated year therefore allocates nothing.</p>
+ *
+ * <p>Aggregates over the living bunnies are kept up to date in {@link #getStatistics()} as bunnies change.</p>
+ *
+ * <p>Every bunny also gets an id when its slot is reserved, counting up from 0 in order of birth. Unlike a slot, an
+ * id is never reused, so it identifies a bunny in a {@link LineageLog}.</p>
+ */
+public class BunnyPopulation {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final PopulationStorage storage;
+    private int freeCount;
+    private long nextId;
+    private int slotLimit;
+    private int size;
+    private final RandomSource random;
+    private final PopulationStatistics statistics = new PopulationStatistics();
+    private FitnessIndex fitnessIndex;
+
+    public BunnyPopulation() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BunnyPopulation(int initialCapacity) {
+        this(initialCapacity, new RandomSource());
+    }
+
+    /**
+     * Creates an empty population.
+     *
+     * @param initialCapacity the number of slots to allocate up front
+     * @param random the random source of the simulation, used by operations that are not given a stream explicitly
+     */
+    public BunnyPopulation(int initialCapacity, RandomSource random) {
+        this(initialCapacity, random, PopulationStorage.onHeap());
+    }
+
+    /**
+     * Creates an empty population whose columns are kept in the given storage.
+     *
+     * @param initialCapacity the number of slots to allocate up front
+     * @param random the random source of the simulation, used by operations that are not given a stream explicitly
+     * @param storage an empty storage, closed by the caller once the population is no longer used
+     */
+    public BunnyPopulation(int initialCapacity, RandomSource random, PopulationStorage storage) {
+        this.random = random;
+        this.storage = storage;
+        storage.grow(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Adds a newborn bunny of the given generation to the population.
+     *
+     * <p>The bunny starts at age 0 with full health, a mutation rate of 0.05 and a reproduction rate drawn
+     * uniformly between 0.5 and 1.0.</p>
+     *
+     * @param generation the generation of the new bunny
+     * @param random the random generator used to draw the reproduction rate
+     * @return the slot of the new bunny
+     */
+    public int add(int generation, RandomGenerator random) {
+        int slot = reserveSlot();
+        initialize(slot, generation, random);
+        record(slot, statistics);
+        indexChanged(slot);
+        return slot;
+    }
+
+    /**
+     * Lets the bunny in the given slot reproduce.
+     *
+     * <p>The offspring is added to this population with the parent's generation incremented by 1. With a
+     * probability equal to the parent's mutation rate, the offspring's mutation rate is shifted by a random value
+     * between -0.1 and +0.1 and kept within 0.0 and 1.0.</p>
+     *
+     * @param parent the slot of the parent bunny
+     * @param random the random generator used for the offspring's traits
+     * @return the slot of the offspring, or -1 if the parent cannot reproduce
+     */
+    public int reproduce(int parent, RandomGenerator random) {
+        if (!canReproduce(parent)) {
+            return -1;
+        }
+        int offspring = reserveSlot();
+        bear(parent, offspring, random, statistics);
+        indexChanged(offspring);
+        return offspring;
+    }
+
+    /**
+     * Reserves a slot for a bunny that is initialized later through {@link #bear(int, int, RandomGenerator)}.
+     *
+     * <p>Reserving may grow the columns and must not run concurrently with any other access. Initializing
+     * reserved slots only touches those slots, so distinct slots can be initialized from different threads.</p>
+     *
+     * <p>The slot is given the next id, so ids follow the order in which slots are reserved.</p>
+     *
+     * @return the reserved slot
+     */
+    int reserveSlot() {
+        int slot = allocateSlot();
+        storage.setId(slot, nextId++);
+        storage.setOccupied(slot, true);
+        storage.setAlive(slot, false);
+        size++;
+        return slot;
+    }
+
+    /**
+     * Adds a living bunny with the given traits, for example one that migrated from another population.
+     *
+     * @return the slot of the bunny
+     */
+    int insert(int age, int generation, double health, double reproductionRate, double mutationRate) {
+        int slot = reserveSlot();
+        storage.setAge(slot, age);
+        storage.setGeneration(slot, generation);
+        storage.setHealth(slot, health);
+        storage.setReproductionRate(slot, reproductionRate);
+        storage.setMutationRate(slot, mutationRate);
+        storage.setAlive(slot, true);
+        record(slot, statistics);
+        indexChanged(slot);
+        return slot;
+    }
+
+    /**
+     * Initializes a reserved slot as the offspring of the given parent, see {@link #reproduce(int, RandomGenerator)}.
+     *
+     * @param parent the slot of the parent bunny
+     * @param offspring a slot obtained from {@link #reserveSlot()}
+     * @param random the random generator used for the offspring's traits
+     * @return whether the offspring's mutation rate mutated
+     */
+    boolean bear(int parent, int offspring, RandomGenerator random) {
+        return bear(parent, offspring, random, statistics);
+    }
+
+    /**
+     * Initializes a reserved slot as the offspring of the given parent and records the birth in the given
+     * statistics, so that slots can be initialized concurrently, each thread recording into statistics of its own.
+     */
+    boolean bear(int parent, int offspring, RandomGenerator random, PopulationStatistics changes) {
+        initialize(offspring, storage.getGeneration(parent) + 1, random);
+        boolean mutates = random.nextDouble() < storage.getMutationRate(parent);
+        if (mutates) {
+            double mutated = storage.getMutationRate(offspring) + (random.nextDouble() * 0.2) - 0.1; // mutate between -0.1 and +0.1
+            storage.setMutationRate(offspring, Math.max(0, Math.min(mutated, 1.0))); // keep mutation rate in range
+        }
+        record(offspring, changes);
+        return mutates;
+    }
+
+    private void record(int slot, PopulationStatistics changes) {
+        changes.add(storage.getAge(slot), storage.getGeneration(slot), storage.getHealth(slot),
+                storage.getReproductionRate(slot), storage.getMutationRate(slot));
+    }
+
+    /**
+     * Removes the bunny in the given slot and makes the slot available for later births.
+     *
+     * @param slot the slot to free
+     */
+    public void remove(int slot) {
+        if (!storage.isOccupied(slot)) {
+            return;
+        }
+        if (storage.isAlive(slot)) {
+            statistics.remove(storage.getAge(slot), storage.getGeneration(slot), storage.getHealth(slot),
+                    storage.getReproductionRate(slot), storage.getMutationRate(slot));
+        }
+        storage.setOccupied(slot, false);
+        storage.setAlive(slot, false);
+        storage.setFreeSlot(freeCount++, slot);
+        size--;
+        indexChanged(slot);
+    }
+
+    /**
+     * Ages the bunny in the given slot by one year. A living bunny dies once it reaches the maximum age or
+     * when its health has dropped below the health threshold.
+     *
+     * @param slot the slot of the bunny
+     */
+    public void ageOneYear(int slot) {
+        ageOneYear(slot, statistics);
+        indexChanged(slot);
+    }
+
+    /**
+     * Ages the bunny in the given slot by one year and records the change in the given statistics, so that
+     * distinct slots can be aged concurrently, each thread recording into statistics of its own.
+     */
+    void ageOneYear(int slot, PopulationStatistics changes) {
+        if (storage.isAlive(slot)) {
+            int previousAge = storage.getAge(slot);
+            int age = previousAge + 1;
+            double health = storage.getHealth(slot);
+            storage.setAge(slot, age);
+            if (age >= Bunny.MAX_AGE || health < Bunny.HEALTH_THRESHOLD) {
+                storage.setAlive(slot, false);
+                changes.remove(previousAge, storage.getGeneration(slot), health, storage.getReproductionRate(slot),
+                        storage.getMutationRate(slot));
+            } else {
+                changes.changeAge(previousAge, age);
+            }
+        }
+    }
+
+    /**
+     * Changes the health of every living bunny in the slot range {@code [fromSlot, toSlot)} by the same amount.
+     *
+     * @param fromSlot the first slot to adjust, inclusive
+     * @param toSlot the last slot to adjust, exclusive
+     * @param delta the change of health, negative for a decline
+     */
+    public void adjustHealth(int fromSlot, int toSlot, double delta) {
+        adjustHealth(fromSlot, toSlot, delta, statistics);
+        invalidateIndex();
+    }
+
+    /**
+     * Changes the health of the living bunnies in a slot range and records the change in the given statistics, so
+     * that ranges that do not overlap can be adjusted concurrently.
+     */
+    void adjustHealth(int fromSlot, int toSlot, double delta, PopulationStatistics changes) {
+        storage.adjustHealth(fromSlot, toSlot, delta, changes);
+    }
+
+    public boolean canReproduce(int slot) {
+        return storage.isAlive(slot) && storage.getAge(slot) >= Bunny.REPRODUCTION_AGE;
+    }
+
+    /**
+     * Calculates the fitness of the bunny in the given slot.
+     *
+     * @param slot the slot of the bunny
+     * @param resourceFitness the ratio of resource availability to carrying capacity of the environment
+     * @return the fitness of the bunny, see {@link Bunny#calculateFitness(Environment)}
+     */
+    public double calculateFitness(int slot, double resourceFitness) {
+        // Favor balanced traits
+        double traitFitness = 1.0 / Math.abs(storage.getReproductionRate(slot) - storage.getMutationRate(slot));
+        return storage.getHealth(slot) * resourceFitness * traitFitness;
+    }
+
+    /**
+     * Calculates the fitness of every slot in the range {@code [fromSlot, toSlot)} at once, with the batch kernels
+     * of {@link HealthKernels} for populations on the heap. The values of empty slots are meaningless.
+     *
+     * @param fromSlot the first slot to evaluate, inclusive
+     * @param toSlot the last slot to evaluate, exclusive
+     * @param resourceFitness the ratio of resource availability to carrying capacity of the environment
+     * @param fitness the array receiving the fitness of each slot at the slot's index
+     */
+    public void calculateFitness(int fromSlot, int toSlot, double resourceFitness, double[] fitness) {
+        storage.calculateFitness(fromSlot, toSlot, resourceFitness, fitness);
+    }
+
+    /**
+     * Returns a {@link Bunny} view of the given slot. The view reads and writes this population directly and is
+     * only meaningful until the bunny is removed, after which its slot may be reused by another bunny.
+     *
+     * @param slot an occupied slot
+     * @return a view of the bunny in the slot
+     */
+    public Bunny view(int slot) {
+        return new Bunny(this, slot);
+    }
+
+    /**
+     * Creates views of all bunnies currently in the population, in slot order.
+     *
+     * @return a new list of views
+     */
+    public List<Bunny> views() {
+        List<Bunny> views = new ArrayList<>(size);
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (storage.isOccupied(slot)) {
+                views.add(new Bunny(this, slot));
+            }
+        }
+        return views;
+    }
+
+    /**
+     * @return the number of bunnies in the population, including dead bunnies that have not been removed yet
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the exclusive upper bound of slots that may be occupied; iterate {@code [0, slotLimit())} and
+     * check {@link #isOccupied(int)} to visit every bunny
+     */
+    public int slotLimit() {
+        return slotLimit;
+    }
+
+    public boolean isOccupied(int slot) {
+        return storage.isOccupied(slot);
+    }
+
+    public boolean isAlive(int slot) {
+        return storage.isAlive(slot);
+    }
+
+    public int getAge(int slot) {
+        return storage.getAge(slot);
+    }
+
+    public void setAge(int slot, int age) {
+        if (storage.isOccupied(slot) && storage.isAlive(slot)) {
+            statistics.changeAge(storage.getAge(slot), age);
+        }
+        storage.setAge(slot, age);
+        indexChanged(slot);
+    }
+
+    /**
+     * @return the id of the bunny in the given slot, unique among all bunnies ever born into this population
+     */
+    public long getId(int slot) {
+        return storage.getId(slot);
+    }
+
+    public int getGeneration(int slot) {
+        return storage.getGeneration(slot);
+    }
+
+    public double getHealth(int slot) {
+        return storage.getHealth(slot);
+    }
+
+    public void setHealth(int slot, double health) {
+        if (storage.isOccupied(slot) && storage.isAlive(slot)) {
+            statistics.changeHealth(storage.getHealth(slot), health);
+        }
+        storage.setHealth(slot, health);
+        indexChanged(slot);
+    }
+
+    public double getReproductionRate(int slot) {
+        return storage.getReproductionRate(slot);
+    }
+
+    public double getMutationRate(int slot) {
+        return storage.getMutationRate(slot);
+    }
+
+    /**
+     * @return the storage that holds the columns of this population
+     */
+    public PopulationStorage getStorage() {
+        return storage;
+    }
+
+    public RandomSource getRandomSource() {
+        return random;
+    }
+
+    /**
+     * Attaches the fitness index that this population keeps up to date, see {@link FitnessIndex}.
+     */
+    void attach(FitnessIndex index) {
+        this.fitnessIndex = index;
+    }
+
+    /**
+     * Invalidates the attached fitness index after a change to many bunnies, such as a parallel pass of the yearly
+     * tick.
+     */
+    void invalidateIndex() {
+        if (fitnessIndex != null) {
+            fitnessIndex.invalidate();
+        }
+    }
+
+    private void indexChanged(int slot) {
+        if (fitnessIndex != null) {
+            fitnessIndex.update(slot);
+        }
+    }
+
+    /**
+     * @return the aggregates over the living bunnies, kept up to date as the population changes
+     */
+    public PopulationStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Writes the slot layout and all columns, so that {@link #read(MappedInput, RandomSource)} restores a population
+     * whose slots and free list are identical to this one.
+     */
+    void write(MappedOutput out) throws IOException {
+        out.putInt(slotLimit);
+        out.putInt(size);
+        out.putInt(freeCount);
+        out.putLong(nextId);
+        storage.write(out, slotLimit, freeCount);
+    }
+
+    static BunnyPopulation read(MappedInput in, RandomSource random) throws IOException {
+        return read(in, random, PopulationStorage.onHeap());
+    }
+
+    /**
+     * Reads a population written by {@link #write(MappedOutput)} into the given empty storage.
+     */
+    static BunnyPopulation read(MappedInput in, RandomSource random, PopulationStorage storage) throws IOException {
+        int slotLimit = in.getInt();
+        int size = in.getInt();
+        int freeCount = in.getInt();
+        long nextId = in.getLong();
+        BunnyPopulation population = new BunnyPopulation(slotLimit, random, storage);
+        population.slotLimit = slotLimit;
+        population.size = size;
+        population.freeCount = freeCount;
+        population.nextId = nextId;
+        storage.read(in, slotLimit, freeCount);
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (storage.isOccupied(slot) && storage.isAlive(slot)) {
+                population.record(slot, population.statistics);
+            }
+        }
+        return population;
+    }
+
+    private void initialize(int slot, int generation, RandomGenerator random) {
+        storage.setAge(slot, 0);
+        storage.setGeneration(slot, generation);
+        storage.setReproductionRate(slot, 0.5 + random.nextDouble() * 0.5); // between 0.5 and 1.0
+        storage.setMutationRate(slot, 0.05);
+        storage.setAlive(slot, true);
+        storage.setHealth(slot, 100.0);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return storage.getFreeSlot(--freeCount);
+        }
+        if (slotLimit == storage.capacity()) {
+            storage.grow(grownCapacity(slotLimit));
+        }
+        return slotLimit++;
+    }
+
+    /**
+     * Doubles a full capacity, up to {@link PopulationStorage#MAX_CAPACITY}.
+     *
+     * @throws IllegalStateException if the capacity is already at the limit
+     */
+    static int grownCapacity(int capacity) {
+        if (capacity >= PopulationStorage.MAX_CAPACITY) {
+            throw new IllegalStateException("A population cannot hold more than " + PopulationStorage.MAX_CAPACITY
+                    + " bunnies at once");
+        }
+        return (int) Math.min(2L * capacity, PopulationStorage.MAX_CAPACITY);
+    }
+}
@@ -0,0 +1,360 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Single Responsibility Principle (SRP): CalendarSimulation runs the bunny life cycle of {@link Simulation} on
+ * individual bunnies, but only touches a bunny in a year in which something happens to it.
+ *
+ * <p>{@link Simulation} visits every bunny three times a year: to age it, to subtract the year's health decline and
+ * to remove it once dead. All of that is the same for every bunny born in the same year: they start with full health,
+ * lose the same decline every year and reach each age together. This engine therefore keeps the bunnies in a queue
+ * ordered by birth, with one calendar entry per year of birth:</p>
+ * <ul>
+ * <li>Health is not stored. A global offset accumulates the decline of every year, and the health of a bunny is
+ * full health minus the decline accumulated since its birth, computed when it is read.</li>
+ * <li>Maturity is an event at {@link Bunny#REPRODUCTION_AGE} years after birth. The mature bunnies are a prefix of
+ * the queue that grows by one calendar entry a year.</li>
+ * <li>Death is an event at {@link Bunny#MAX_AGE} years after birth, or earlier once the offset has passed the
+ * entry's health threshold. Older entries were born at a lower offset, so both kinds of death leave from the front of
+ * the queue, a whole entry at a time.</li>
+ * </ul>
+ *
+ * <p>A year costs one step per calendar entry plus one per offspring: only the parents are visited, to pass on
+ * their generation and mutation rate.</p>
+ *
+ * <p><strong>Comparing with {@link Simulation}:</strong> both engines take their random numbers from a
+ * {@link RandomSource} in the same order, so for the same initial bunnies, carrying capacity and seed they see the
+ * same random events. Population size and resource level do not depend on traits, so {@link #getPopulationSize()}
+ * and the environment's resource level match {@link Simulation} year by year. Offspring traits are drawn in another
+ * order and agree in distribution only.</p>
+ */
+public class CalendarSimulation implements SimulationEngine {
+    private static final double FULL_HEALTH = 100.0;
+    private static final double BASE_MUTATION_RATE = 0.05;
+
+    private final Environment environment;
+    private final RandomSource random;
+    private final List<YearListener> yearListeners = new ArrayList<>();
+
+    // Bunnies in order of birth, in ring buffers addressed by position & mask. Positions only grow.
+    private int[] generation;
+    private double[] reproductionRate;
+    private double[] mutationRate;
+    private int mask;
+    private long head;
+    private long tail;
+
+    // Calendar entries in order of birth, one per year with births, from the front entry to the newest.
+    private final Entry[] entries = new Entry[Bunny.MAX_AGE + 1];
+    private int firstEntry;
+    private int entryCount;
+    private int matureEntries;
+
+    private double healthOffset;
+    private long aliveCount;
+    private long deadCount;
+    private long deathsThisYear;
+    private long generationSum;
+    private int year;
+
+    /**
+     * The bunnies born in one year: the queue positions {@code [start, start + count)}.
+     */
+    private static final class Entry {
+        private int birthYear;
+        private double birthOffset;
+        private long start;
+        private long count;
+        private long generationSum;
+        private double mutationRateSum;
+
+        double health(double healthOffset) {
+            return FULL_HEALTH - (healthOffset - birthOffset);
+        }
+    }
+
+    /**
+     * Initializes a calendar simulation with the same starting state as {@link Simulation#Simulation(int, int, long)}.
+     *
+     * @param initialBunnies the number of generation 0 bunnies to start with
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     * @param seed the seed of the simulation's random source
+     */
+    public CalendarSimulation(int initialBunnies, int carryingCapacity, long seed) {
+        this.random = new RandomSource(seed);
+        this.environment = new Environment(carryingCapacity, random);
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry();
+        }
+        int capacity = Integer.highestOneBit(Math.max(initialBunnies, 16) - 1) << 1;
+        generation = new int[capacity];
+        reproductionRate = new double[capacity];
+        mutationRate = new double[capacity];
+        mask = capacity - 1;
+
+        SplittableRandom stream = random.nextStream();
+        Entry entry = openEntry(-1);
+        for (int i = 0; i < initialBunnies; i++) {
+            append(entry, 0, 0.5 + stream.nextDouble() * 0.5, BASE_MUTATION_RATE);
+        }
+        environment.increasePopulation(initialBunnies);
+    }
+
+    /**
+     * Runs the simulation for a specified number of years. Each year follows the steps of
+     * {@link Simulation#runSimulation(int)}: a random event, ageing and reproduction, the resource update, the health
+     * decline and the removal of the bunnies that died, followed by the registered {@link YearListener}s.
+     *
+     * @param years the number of years to run the simulation
+     */
+    @Override
+    public void runSimulation(int years) {
+        for (int i = 0; i < years; i++) {
+            environment.introduceRandomEvent();
+            ageAndReproduce();
+            environment.updateResources(aliveCount + deathsThisYear);
+            healthOffset += environment.getHealthDecline();
+            deathsThisYear = 0;
+            int completed = year++;
+            for (int listener = 0; listener < yearListeners.size(); listener++) {
+                yearListeners.get(listener).yearCompleted(completed, this);
+            }
+        }
+    }
+
+    private void ageAndReproduce() {
+        boolean resourcesAvailable = environment.getResourceAvailability() > 10;
+        SplittableRandom stream = random.stream(random.nextEpoch(), 0);
+
+        // Death events: the front entries reach the maximum age or fall below the health threshold.
+        while (entryCount > 0) {
+            Entry front = entries[firstEntry];
+            if (year - front.birthYear < Bunny.MAX_AGE && front.health(healthOffset) >= Bunny.HEALTH_THRESHOLD) {
+                break;
+            }
+            closeFrontEntry();
+        }
+        // Maturity events: the next entries reach the reproduction age.
+        while (matureEntries < entryCount
+                && year - entry(matureEntries).birthYear >= Bunny.REPRODUCTION_AGE) {
+            matureEntries++;
+        }
+        if (!resourcesAvailable || matureEntries == 0) {
+            environment.setCurrentPopulation(aliveCount);
+            return;
+        }
+        Entry last = entry(matureEntries - 1);
+        long parentsEnd = last.start + last.count;
+        Entry offspring = openEntry(year);
+        for (long parent = head; parent < parentsEnd; parent++) {
+            int index = (int) parent & mask;
+            double rate = mutationRate[index];
+            double reproduction = 0.5 + stream.nextDouble() * 0.5; // between 0.5 and 1.0
+            double mutation = BASE_MUTATION_RATE;
+            if (stream.nextDouble() < rate) {
+                mutation = Math.max(0, Math.min(mutation + stream.nextDouble() * 0.2 - 0.1, 1.0));
+            }
+            append(offspring, generation[index] + 1, reproduction, mutation);
+        }
+        environment.setCurrentPopulation(aliveCount);
+    }
+
+    private Entry entry(int index) {
+        return entries[(firstEntry + index) % entries.length];
+    }
+
+    private Entry openEntry(int birthYear) {
+        Entry entry = entry(entryCount++);
+        entry.birthYear = birthYear;
+        entry.birthOffset = healthOffset;
+        entry.start = tail;
+        entry.count = 0;
+        entry.generationSum = 0;
+        entry.mutationRateSum = 0;
+        return entry;
+    }
+
+    private void closeFrontEntry() {
+        Entry front = entries[firstEntry];
+        head += front.count;
+        aliveCount -= front.count;
+        deadCount += front.count;
+        deathsThisYear += front.count;
+        generationSum -= front.generationSum;
+        firstEntry = (firstEntry + 1) % entries.length;
+        entryCount--;
+        if (matureEntries > 0) {
+            matureEntries--;
+        }
+    }
+
+    private void append(Entry entry, int generation, double reproductionRate, double mutationRate) {
+        if (tail - head > mask) {
+            grow();
+        }
+        int index = (int) tail & mask;
+        this.generation[index] = generation;
+        this.reproductionRate[index] = reproductionRate;
+        this.mutationRate[index] = mutationRate;
+        tail++;
+        entry.count++;
+        entry.generationSum += generation;
+        entry.mutationRateSum += mutationRate;
+        generationSum += generation;
+        aliveCount++;
+    }
+
+    private void grow() {
+        int capacity = (mask + 1) * 2;
+        int[] generation = new int[capacity];
+        double[] reproductionRate = new double[capacity];
+        double[] mutationRate = new double[capacity];
+        for (long position = head; position < tail; position++) {
+            int from = (int) position & mask;
+            int to = (int) position & (capacity - 1);
+            generation[to] = this.generation[from];
+            reproductionRate[to] = this.reproductionRate[from];
+            mutationRate[to] = this.mutationRate[from];
+        }
+        this.generation = generation;
+        this.reproductionRate = reproductionRate;
+        this.mutationRate = mutationRate;
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the number of living bunnies; dead bunnies are removed in the year they die, as in
+     * {@link Simulation#getPopulationSize()}
+     */
+    @Override
+    public long getPopulationSize() {
+        return aliveCount;
+    }
+
+    /**
+     * @return the number of bunnies that have died so far
+     */
+    public long getDeadCount() {
+        return deadCount;
+    }
+
+    /**
+     * @return the number of calendar entries, one per year of birth of the living bunnies
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return the health decline accumulated over all simulated years
+     */
+    public double getHealthOffset() {
+        return healthOffset;
+    }
+
+    /**
+     * Returns the health of a living bunny, computed from the decline accumulated since its birth.
+     *
+     * @param bunny the index of the bunny in order of birth, from 0 (the oldest) to {@code getPopulationSize() - 1}
+     * @return the health of the bunny
+     */
+    public double getHealth(long bunny) {
+        return entryOf(bunny).health(healthOffset);
+    }
+
+    /**
+     * @param bunny the index of the bunny in order of birth, see {@link #getHealth(long)}
+     * @return the age of the bunny
+     */
+    public int getAge(long bunny) {
+        return year - 1 - entryOf(bunny).birthYear;
+    }
+
+    /**
+     * @param bunny the index of the bunny in order of birth, see {@link #getHealth(long)}
+     * @return the generation of the bunny
+     */
+    public int getGeneration(long bunny) {
+        return generation[(int) checkBunny(bunny) & mask];
+    }
+
+    /**
+     * @param bunny the index of the bunny in order of birth, see {@link #getHealth(long)}
+     * @return the mutation rate of the bunny
+     */
+    public double getMutationRate(long bunny) {
+        return mutationRate[(int) checkBunny(bunny) & mask];
+    }
+
+    /**
+     * @param bunny the index of the bunny in order of birth, see {@link #getHealth(long)}
+     * @return the reproduction rate of the bunny
+     */
+    public double getReproductionRate(long bunny) {
+        return reproductionRate[(int) checkBunny(bunny) & mask];
+    }
+
+    private long checkBunny(long bunny) {
+        if (bunny < 0 || bunny >= aliveCount) {
+            throw new IndexOutOfBoundsException("Bunny " + bunny + " of " + aliveCount);
+        }
+        return head + bunny;
+    }
+
+    private Entry entryOf(long bunny) {
+        long position = checkBunny(bunny);
+        for (int i = entryCount - 1; i >= 0; i--) {
+            Entry entry = entry(i);
+            if (position >= entry.start) {
+                return entry;
+            }
+        }
+        throw new IllegalStateException("Bunny " + bunny + " has no calendar entry");
+    }
+
+    /**
+     * @return the mean health of the living bunnies, or 0 if there are none
+     */
+    public double getMeanHealth() {
+        double sum = 0;
+        for (int i = 0; i < entryCount; i++) {
+            Entry entry = entry(i);
+            sum += entry.health(healthOffset) * entry.count;
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    /**
+     * @return the mean mutation rate of the living bunnies, or 0 if there are none
+     */
+    public double getMeanMutationRate() {
+        double sum = 0;
+        for (int i = 0; i < entryCount; i++) {
+            sum += entry(i).mutationRateSum;
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    @Override
+    public double getMeanGeneration() {
+        return aliveCount == 0 ? 0 : (double) generationSum / aliveCount;
+    }
+
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    public void addYearListener(YearListener listener) {
+        yearListeners.add(listener);
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+}
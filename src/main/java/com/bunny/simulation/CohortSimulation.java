@@ -0,0 +1,281 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Single Responsibility Principle (SRP): CohortSimulation runs the bunny life cycle of {@link Simulation} on groups
+ * of identical bunnies instead of on individual bunnies.
+ *
+ * <p>Bunnies of the same age and generation that share a health bucket and a mutation rate bucket behave alike in
+ * ageing, reproduction and health adjustment, so they are kept as one cohort with a count. A year moves every cohort
+ * forward at once and draws the number of mutated offspring of a cohort from a binomial distribution. The cost of a
+ * year is proportional to the number of cohorts, not to the number of bunnies, which allows populations of billions.
+ * The reproduction rate is not tracked, as it does not influence the life cycle.</p>
+ *
+ * <p><strong>Comparing with {@link Simulation}:</strong> both engines take their random numbers from a
+ * {@link RandomSource} in the same order. For the same initial bunnies, carrying capacity and seed, they therefore
+ * see the same random events, and since population size, resource level and health do not depend on mutations,
+ * {@link #getPopulationSize()} and the environment's resource level match {@link Simulation} exactly, year by year.
+ * Mutation rates agree in distribution only: compare the share of mutated bunnies over several seeds, see
+ * {@link #getMeanMutationRate()}.</p>
+ */
+public class CohortSimulation implements SimulationEngine {
+    private static final double BASE_MUTATION_RATE = 0.05;
+    private static final double MUTATION_STEP = 0.1;
+    private static final double TRAIT_BUCKET_WIDTH = 0.01;
+    private static final double HEALTH_BUCKET_WIDTH = 1.0;
+    private static final int HEALTH_BUCKET_OFFSET = 1 << 15;
+
+    /**
+     * Probability and mean mutation rate of each trait bucket for an offspring whose mutation rate mutated.
+     */
+    private static final double[] MUTATED_BUCKET_PROBABILITY;
+    private static final double[] MUTATED_BUCKET_MEAN;
+
+    static {
+        // A mutated rate is uniform on [BASE - STEP, BASE + STEP], clamped to [0, 1].
+        double low = BASE_MUTATION_RATE - MUTATION_STEP;
+        double high = BASE_MUTATION_RATE + MUTATION_STEP;
+        int buckets = traitBucket(Math.min(high, 1.0)) + 1;
+        MUTATED_BUCKET_PROBABILITY = new double[buckets];
+        MUTATED_BUCKET_MEAN = new double[buckets];
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            double from = Math.max(bucket * TRAIT_BUCKET_WIDTH, Math.max(low, 0));
+            double to = Math.min((bucket + 1) * TRAIT_BUCKET_WIDTH, Math.min(high, 1.0));
+            double probability = Math.max(to - from, 0) / (high - low);
+            double weightedRate = probability * (from + to) / 2;
+            if (bucket == 0 && low < 0) {
+                probability += -low / (high - low); // clamped to 0
+            }
+            if (bucket == buckets - 1 && high > 1.0) {
+                probability += (high - 1.0) / (high - low); // clamped to 1
+                weightedRate += (high - 1.0) / (high - low);
+            }
+            MUTATED_BUCKET_PROBABILITY[bucket] = probability;
+            MUTATED_BUCKET_MEAN[bucket] = probability > 0 ? weightedRate / probability : bucket * TRAIT_BUCKET_WIDTH;
+        }
+    }
+
+    private final Environment environment;
+    private final RandomSource random;
+    private List<Cohort> cohorts = new ArrayList<>();
+    private long aliveCount;
+    private long deadCount;
+    private int year;
+    private final List<YearListener> yearListeners = new ArrayList<>();
+
+    /**
+     * A group of bunnies with the same age, generation, health and mutation rate bucket.
+     */
+    private static final class Cohort {
+        private int age;
+        private final int generation;
+        private double health;
+        private double mutationRate;
+        private long count;
+
+        Cohort(int age, int generation, double health, double mutationRate, long count) {
+            this.age = age;
+            this.generation = generation;
+            this.health = health;
+            this.mutationRate = mutationRate;
+            this.count = count;
+        }
+
+        long key() {
+            long healthBucket = Math.max(0, Math.min((long) Math.floor(health / HEALTH_BUCKET_WIDTH)
+                    + HEALTH_BUCKET_OFFSET, 0xFFFF));
+            return ((long) generation << 32) | ((long) age << 24) | ((long) traitBucket(mutationRate) << 16)
+                    | healthBucket;
+        }
+
+        void merge(Cohort other) {
+            long total = count + other.count;
+            // Cohorts of the same age usually share their health exactly; keep it exact in that case.
+            if (health != other.health) {
+                health = (health * count + other.health * other.count) / total;
+            }
+            if (mutationRate != other.mutationRate) {
+                mutationRate = (mutationRate * count + other.mutationRate * other.count) / total;
+            }
+            count = total;
+        }
+    }
+
+    /**
+     * Initializes a cohort simulation with the same starting state as {@link Simulation#Simulation(int, int, long)}.
+     *
+     * @param initialBunnies the number of generation 0 bunnies to start with
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     * @param seed the seed of the simulation's random source
+     */
+    public CohortSimulation(long initialBunnies, int carryingCapacity, long seed) {
+        this.random = new RandomSource(seed);
+        this.environment = new Environment(carryingCapacity, random);
+        random.nextStream(); // Simulation draws the initial reproduction rates from this stream
+        if (initialBunnies > 0) {
+            cohorts.add(new Cohort(0, 0, 100.0, BASE_MUTATION_RATE, initialBunnies));
+        }
+        aliveCount = initialBunnies;
+        environment.increasePopulation(initialBunnies);
+    }
+
+    /**
+     * Runs the simulation for a specified number of years. Each year follows the steps of
+     * {@link Simulation#runSimulation(int)}: a random event, ageing and reproduction, the resource update and the
+     * health adjustment, followed by the registered {@link YearListener}s.
+     *
+     * <p>Dead bunnies are counted but no longer tracked by cohort. Like in {@link Simulation}, they are part of the
+     * population size that updates the resources of the year they die in, and are removed at the end of that
+     * year.</p>
+     *
+     * @param years the number of years to run the simulation
+     */
+    @Override
+    public void runSimulation(int years) {
+        for (int i = 0; i < years; i++) {
+            environment.introduceRandomEvent();
+            long deaths = ageAndReproduce();
+            environment.updateResources(aliveCount + deaths);
+            double decline = environment.getHealthDecline();
+            for (Cohort cohort : cohorts) {
+                cohort.health -= decline;
+            }
+            int completed = year++;
+            for (YearListener listener : yearListeners) {
+                listener.yearCompleted(completed, this);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bunnies that died
+     */
+    private long ageAndReproduce() {
+        boolean resourcesAvailable = environment.getResourceAvailability() > 10;
+        SplittableRandom stream = random.stream(random.nextEpoch(), 0);
+        Map<Long, Cohort> next = new LinkedHashMap<>();
+        List<Cohort> offspring = new ArrayList<>();
+        long alive = 0;
+        long deaths = 0;
+
+        for (Cohort cohort : cohorts) {
+            cohort.age++;
+            if (cohort.age >= Bunny.MAX_AGE || cohort.health < Bunny.HEALTH_THRESHOLD) {
+                deaths += cohort.count;
+                continue;
+            }
+            alive += cohort.count;
+            add(next, cohort);
+            if (resourcesAvailable && cohort.age >= Bunny.REPRODUCTION_AGE) {
+                reproduce(cohort, stream, offspring);
+            }
+        }
+        long births = 0;
+        for (Cohort child : offspring) {
+            births += child.count;
+            add(next, child);
+        }
+        cohorts = new ArrayList<>(next.values());
+        aliveCount = alive + births;
+        environment.setCurrentPopulation(aliveCount);
+        deadCount += deaths;
+        return deaths;
+    }
+
+    private void reproduce(Cohort parent, SplittableRandom stream, List<Cohort> offspring) {
+        long mutated = Binomial.sample(stream, parent.count, parent.mutationRate);
+        if (parent.count > mutated) {
+            offspring.add(new Cohort(0, parent.generation + 1, 100.0, BASE_MUTATION_RATE, parent.count - mutated));
+        }
+        // Spread the mutated offspring over the trait buckets, one conditional binomial draw per bucket.
+        double remainingProbability = 1.0;
+        for (int bucket = 0; bucket < MUTATED_BUCKET_PROBABILITY.length && mutated > 0; bucket++) {
+            double probability = MUTATED_BUCKET_PROBABILITY[bucket];
+            long count = bucket == MUTATED_BUCKET_PROBABILITY.length - 1
+                    ? mutated
+                    : Binomial.sample(stream, mutated, Math.min(probability / remainingProbability, 1.0));
+            remainingProbability -= probability;
+            if (count > 0) {
+                offspring.add(new Cohort(0, parent.generation + 1, 100.0, MUTATED_BUCKET_MEAN[bucket], count));
+                mutated -= count;
+            }
+        }
+    }
+
+    private static void add(Map<Long, Cohort> cohorts, Cohort cohort) {
+        Cohort existing = cohorts.putIfAbsent(cohort.key(), cohort);
+        if (existing != null) {
+            existing.merge(cohort);
+        }
+    }
+
+    private static int traitBucket(double mutationRate) {
+        return (int) Math.floor(mutationRate / TRAIT_BUCKET_WIDTH + 1e-9);
+    }
+
+    /**
+     * @return the number of living bunnies, as in {@link Simulation#getPopulationSize()}
+     */
+    @Override
+    public long getPopulationSize() {
+        return aliveCount;
+    }
+
+    public long getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * @return the number of bunnies that have died so far
+     */
+    public long getDeadCount() {
+        return deadCount;
+    }
+
+    /**
+     * @return the number of cohorts of living bunnies, which determines the cost of a year
+     */
+    public int getCohortCount() {
+        return cohorts.size();
+    }
+
+    /**
+     * @return the mean mutation rate of the living bunnies, or 0 if there are none
+     */
+    public double getMeanMutationRate() {
+        double sum = 0;
+        for (Cohort cohort : cohorts) {
+            sum += cohort.mutationRate * cohort.count;
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    @Override
+    public double getMeanGeneration() {
+        double sum = 0;
+        for (Cohort cohort : cohorts) {
+            sum += (double) cohort.generation * cohort.count;
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    public void addYearListener(YearListener listener) {
+        yearListeners.add(listener);
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+}
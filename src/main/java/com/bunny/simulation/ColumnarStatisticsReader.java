@@ -0,0 +1,130 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Single Responsibility Principle (SRP): ColumnarStatisticsReader loads a file written by
+ * {@link ColumnarStatisticsWriter} into memory, one array per column.
+ */
+public class ColumnarStatisticsReader {
+    private int[] years = new int[0];
+    private long[] populations = new long[0];
+    private double[] resourceLevels = new double[0];
+    private int[] carryingCapacities = new int[0];
+    private byte[] eventTypes = new byte[0];
+    private int size;
+
+    private ColumnarStatisticsReader() {
+    }
+
+    /**
+     * Reads all blocks of a statistics file.
+     *
+     * @param file the file written by {@link ColumnarStatisticsWriter}
+     * @return the statistics of the file
+     * @throws IOException if the file cannot be read or is not a statistics file
+     */
+    public static ColumnarStatisticsReader read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < 2 * Integer.BYTES || buffer.getInt() != ColumnarStatisticsWriter.MAGIC) {
+            throw new IOException("Not a statistics file: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != ColumnarStatisticsWriter.VERSION) {
+            throw new IOException("Unsupported statistics file version " + version + ": " + file);
+        }
+        ColumnarStatisticsReader reader = new ColumnarStatisticsReader();
+        while (buffer.hasRemaining()) {
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * ColumnarStatisticsWriter.RECORD_BYTES > buffer.remaining()) {
+                throw new IOException("Truncated statistics block in " + file);
+            }
+            reader.readBlock(buffer, count);
+        }
+        return reader;
+    }
+
+    private void readBlock(ByteBuffer buffer, int count) {
+        int from = size;
+        size += count;
+        years = Arrays.copyOf(years, size);
+        populations = Arrays.copyOf(populations, size);
+        resourceLevels = Arrays.copyOf(resourceLevels, size);
+        carryingCapacities = Arrays.copyOf(carryingCapacities, size);
+        eventTypes = Arrays.copyOf(eventTypes, size);
+
+        buffer.asIntBuffer().get(years, from, count);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        buffer.asLongBuffer().get(populations, from, count);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        buffer.asDoubleBuffer().get(resourceLevels, from, count);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        buffer.asIntBuffer().get(carryingCapacities, from, count);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        buffer.get(eventTypes, from, count);
+    }
+
+    /**
+     * @return the number of recorded years
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getYear(int index) {
+        return years[index];
+    }
+
+    public long getPopulation(int index) {
+        return populations[index];
+    }
+
+    public double getResourceLevel(int index) {
+        return resourceLevels[index];
+    }
+
+    public int getCarryingCapacity(int index) {
+        return carryingCapacities[index];
+    }
+
+    /**
+     * @return the ordinal of the {@link RandomEvent} of the record, or {@link StatisticsSink#NO_EVENT}
+     */
+    public int getEventType(int index) {
+        return eventTypes[index];
+    }
+
+    /**
+     * Writes all records as CSV in the format of {@link CsvStatisticsSink}.
+     *
+     * @param out the destination of the CSV lines
+     * @throws IOException if writing fails
+     */
+    public void exportCsv(Appendable out) throws IOException {
+        out.append(CsvStatisticsSink.HEADER).append(System.lineSeparator());
+        for (int i = 0; i < size; i++) {
+            CsvStatisticsSink.appendLine(out, years[i], populations[i], resourceLevels[i], carryingCapacities[i],
+                    eventTypes[i]);
+        }
+    }
+
+    /**
+     * Converts a statistics file to a CSV file.
+     *
+     * @param statisticsFile the file written by {@link ColumnarStatisticsWriter}
+     * @param csvFile the CSV file to write
+     * @throws IOException if reading or writing fails
+     */
+    public static void exportCsv(Path statisticsFile, Path csvFile) throws IOException {
+        ColumnarStatisticsReader reader = read(statisticsFile);
+        try (Writer out = Files.newBufferedWriter(csvFile)) {
+            reader.exportCsv(out);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single Responsibility Principle (SRP): ColumnarStatisticsWriter stores yearly statistics in a compact columnar
+ * file from a background thread.
+ *
+ * <p>{@link #record} only copies the primitive values into a bounded ring buffer, so the simulation thread never
+ * formats text or waits for the disk. A background thread moves records from the ring into blocks and writes each
+ * block as one column per field. A block is written when it is full, when records have waited longer than the flush
+ * interval, and when the writer is closed. The ring has a single producer and a single consumer and needs no locks.
+ * If the simulation outruns the disk until the ring is full, further records are dropped and counted in
+ * {@link #getDroppedRecords()} rather than stalling the simulation.</p>
+ *
+ * <p>File format, little-endian: a header of magic number and version, followed by blocks of a record count and
+ * the columns year ({@code int}), population ({@code long}), resource level ({@code double}), carrying capacity
+ * ({@code int}) and event type ({@code byte}). Read the file with {@link ColumnarStatisticsReader}.</p>
+ */
+public class ColumnarStatisticsWriter implements StatisticsSink {
+    private static final Logger log = LoggerFactory.getLogger(ColumnarStatisticsWriter.class);
+    static final int MAGIC = 0x424E5943; // "BNYC"
+    static final int VERSION = 1;
+    static final int RECORD_BYTES = Integer.BYTES + Long.BYTES + Double.BYTES + Integer.BYTES + Byte.BYTES;
+
+    public static final int DEFAULT_RING_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int mask;
+    private final int[] ringYear;
+    private final long[] ringPopulation;
+    private final double[] ringResourceLevel;
+    private final int[] ringCarryingCapacity;
+    private final byte[] ringEventType;
+    private volatile long head;
+    private volatile long tail;
+    private volatile long droppedRecords;
+    private volatile boolean closed;
+
+    private final int blockSize;
+    private final int[] blockYear;
+    private final long[] blockPopulation;
+    private final double[] blockResourceLevel;
+    private final int[] blockCarryingCapacity;
+    private final byte[] blockEventType;
+    private int blockCount;
+    private long blockStartedAt;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Thread writerThread;
+    private volatile IOException failure;
+
+    public ColumnarStatisticsWriter(Path file) throws IOException {
+        this(file, DEFAULT_RING_CAPACITY, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates the file and starts the background writer.
+     *
+     * @param file the file to write, replaced if it exists
+     * @param ringCapacity the number of records the ring buffer holds, rounded up to a power of two
+     * @param blockSize the number of records per block
+     * @throws IOException if the file cannot be created
+     */
+    public ColumnarStatisticsWriter(Path file, int ringCapacity, int blockSize) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(ringCapacity - 1, 1)) << 1;
+        this.mask = capacity - 1;
+        this.ringYear = new int[capacity];
+        this.ringPopulation = new long[capacity];
+        this.ringResourceLevel = new double[capacity];
+        this.ringCarryingCapacity = new int[capacity];
+        this.ringEventType = new byte[capacity];
+
+        this.blockSize = blockSize;
+        this.blockYear = new int[blockSize];
+        this.blockPopulation = new long[blockSize];
+        this.blockResourceLevel = new double[blockSize];
+        this.blockCarryingCapacity = new int[blockSize];
+        this.blockEventType = new byte[blockSize];
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(Integer.BYTES + blockSize * RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        this.writerThread = new Thread(this::drainLoop, "statistics-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void record(int year, long population, double resourceLevel, int carryingCapacity, int eventType) {
+        long position = tail;
+        if (position - head > mask) {
+            droppedRecords++;
+            return;
+        }
+        int index = (int) (position & mask);
+        ringYear[index] = year;
+        ringPopulation[index] = population;
+        ringResourceLevel[index] = resourceLevel;
+        ringCarryingCapacity[index] = carryingCapacity;
+        ringEventType[index] = (byte) eventType;
+        tail = position + 1;
+    }
+
+    /**
+     * @return the number of records dropped because the ring buffer was full
+     */
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    /**
+     * Writes all records recorded so far, stops the background writer and closes the file.
+     *
+     * @throws IOException if writing any block failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the statistics writer", e);
+        } finally {
+            channel.close();
+        }
+        if (droppedRecords > 0) {
+            log.warn("Dropped {} statistics records because the writer could not keep up", droppedRecords);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (true) {
+                long available = tail - head;
+                if (available > 0) {
+                    drain(available);
+                } else if (closed && tail == head) {
+                    break;
+                } else {
+                    if (blockCount > 0 && System.nanoTime() - blockStartedAt > FLUSH_INTERVAL_NANOS) {
+                        writeBlock();
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            if (blockCount > 0) {
+                writeBlock();
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    private void drain(long available) throws IOException {
+        long position = head;
+        for (long i = 0; i < available; i++) {
+            if (blockCount == 0) {
+                blockStartedAt = System.nanoTime();
+            }
+            int index = (int) ((position + i) & mask);
+            blockYear[blockCount] = ringYear[index];
+            blockPopulation[blockCount] = ringPopulation[index];
+            blockResourceLevel[blockCount] = ringResourceLevel[index];
+            blockCarryingCapacity[blockCount] = ringCarryingCapacity[index];
+            blockEventType[blockCount] = ringEventType[index];
+            blockCount++;
+            if (blockCount == blockSize) {
+                head = position + i + 1;
+                writeBlock();
+            }
+        }
+        head = position + available;
+    }
+
+    private void writeBlock() throws IOException {
+        buffer.clear();
+        buffer.putInt(blockCount);
+        buffer.asIntBuffer().put(blockYear, 0, blockCount);
+        buffer.position(buffer.position() + blockCount * Integer.BYTES);
+        buffer.asLongBuffer().put(blockPopulation, 0, blockCount);
+        buffer.position(buffer.position() + blockCount * Long.BYTES);
+        buffer.asDoubleBuffer().put(blockResourceLevel, 0, blockCount);
+        buffer.position(buffer.position() + blockCount * Double.BYTES);
+        buffer.asIntBuffer().put(blockCarryingCapacity, 0, blockCount);
+        buffer.position(buffer.position() + blockCount * Integer.BYTES);
+        buffer.put(blockEventType, 0, blockCount);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        blockCount = 0;
+    }
+}
@@ -0,0 +1,313 @@
+package com.bunny.simulation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single Responsibility Principle (SRP): ConvergenceMonitor runs a simulation until its yearly aggregates have
+ * settled into a regime, and projects the remaining years from that regime instead of simulating them.
+ *
+ * <p>After every year the monitor records the population size, the resource level, the carrying capacity and, for
+ * a {@link Simulation}, the share of each age in the population. It recognizes, in this order:</p>
+ * <ul>
+ * <li>{@link Regime#EXTINCTION}: no bunny is left, which no engine can recover from.</li>
+ * <li>{@link Regime#FIXED_POINT}: every aggregate stayed within the tolerance of its latest value for a whole
+ * window of years.</li>
+ * <li>{@link Regime#CYCLE}: for a whole window of years, every aggregate stayed within the tolerance of its value
+ * one period earlier, for the shortest period up to the maximum period.</li>
+ * <li>{@link Regime#STATIONARY}: the mean and the standard deviation of every aggregate agree within the tolerance
+ * between the last two windows of years.</li>
+ * </ul>
+ *
+ * <p>Values are compared relative to their magnitude, or absolutely for magnitudes below 1. Once a regime is
+ * recognized, the run stops. The {@link Result} reports the regime, the years skipped and the population size and
+ * resource level projected for the end of the horizon: zero bunnies after extinction, the latest values at a fixed
+ * point, the values of the matching year of the last period in a cycle, and the means of the last window when
+ * stationary. Random events can still shift a regime later, for example a drought lowering the carrying capacity, so
+ * a projection describes the detected regime rather than a simulated future.</p>
+ *
+ * <pre>{@code
+ * ConvergenceMonitor monitor = new ConvergenceMonitor(50, 0.01);
+ * ConvergenceMonitor.Result result = monitor.run(new Simulation(100, 1000, 42L), 10_000);
+ * log.info("{}", result);
+ * }</pre>
+ */
+public class ConvergenceMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ConvergenceMonitor.class);
+    public static final int DEFAULT_MAX_PERIOD = 20;
+    private static final int POPULATION = 0;
+    private static final int RESOURCES = 1;
+    private static final int CARRYING_CAPACITY = 2;
+    private static final int AGE_SHARES = 3;
+
+    private final int window;
+    private final double tolerance;
+    private int maxPeriod = DEFAULT_MAX_PERIOD;
+
+    /**
+     * The regime a run settled into.
+     */
+    public enum Regime {
+        /** The run reached its horizon without settling. */
+        NONE,
+        EXTINCTION,
+        FIXED_POINT,
+        CYCLE,
+        STATIONARY
+    }
+
+    /**
+     * The outcome of {@link #run(SimulationEngine, int)}.
+     */
+    public static final class Result {
+        private final Regime regime;
+        private final int period;
+        private final int yearsRun;
+        private final int yearsSkipped;
+        private final double projectedPopulation;
+        private final double projectedResourceLevel;
+
+        Result(Regime regime, int period, int yearsRun, int yearsSkipped, double projectedPopulation,
+               double projectedResourceLevel) {
+            this.regime = regime;
+            this.period = period;
+            this.yearsRun = yearsRun;
+            this.yearsSkipped = yearsSkipped;
+            this.projectedPopulation = projectedPopulation;
+            this.projectedResourceLevel = projectedResourceLevel;
+        }
+
+        public Regime getRegime() {
+            return regime;
+        }
+
+        /**
+         * @return the number of years per cycle, or 0 unless the regime is {@link Regime#CYCLE}
+         */
+        public int getPeriod() {
+            return period;
+        }
+
+        /**
+         * @return the number of years simulated before the regime was recognized
+         */
+        public int getYearsRun() {
+            return yearsRun;
+        }
+
+        /**
+         * @return the number of years of the horizon that were not simulated
+         */
+        public int getYearsSkipped() {
+            return yearsSkipped;
+        }
+
+        /**
+         * @return the population size projected for the end of the horizon
+         */
+        public double getProjectedPopulation() {
+            return projectedPopulation;
+        }
+
+        /**
+         * @return the resource level projected for the end of the horizon
+         */
+        public double getProjectedResourceLevel() {
+            return projectedResourceLevel;
+        }
+
+        @Override
+        public String toString() {
+            if (regime == Regime.NONE) {
+                return "No regime detected in " + yearsRun + " years";
+            }
+            return (regime == Regime.CYCLE ? "CYCLE of " + period + " years" : regime.name())
+                    + " after " + yearsRun + " years, skipped " + yearsSkipped + " years";
+        }
+    }
+
+    /**
+     * Creates a monitor.
+     *
+     * @param window the number of years a regime must hold before it is recognized, at least 2
+     * @param tolerance the relative difference up to which aggregates count as equal
+     */
+    public ConvergenceMonitor(int window, double tolerance) {
+        if (window < 2) {
+            throw new IllegalArgumentException("The window must be at least 2 years: " + window);
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("The tolerance must not be negative: " + tolerance);
+        }
+        this.window = window;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Sets the longest cycle that is recognized.
+     *
+     * @param maxPeriod the number of years, at least 2, or 0 to recognize no cycles
+     */
+    public void setMaxPeriod(int maxPeriod) {
+        if (maxPeriod < 0 || maxPeriod == 1) {
+            throw new IllegalArgumentException("The maximum period must be 0 or at least 2: " + maxPeriod);
+        }
+        this.maxPeriod = maxPeriod;
+    }
+
+    /**
+     * Runs a simulation for up to the given number of years, stopping as soon as it has settled into a regime.
+     *
+     * @param engine the simulation to run; it is left at the year the regime was recognized
+     * @param years the horizon, in years from the simulation's current year
+     * @return the regime, the years skipped and the projected end state
+     */
+    public Result run(SimulationEngine engine, int years) {
+        int history = Math.max(2 * window, window + maxPeriod);
+        double[][] aggregates = new double[history][];
+        for (int year = 1; year <= years; year++) {
+            engine.runSimulation(1);
+            double[] latest = aggregates(engine);
+            aggregates[(year - 1) % history] = latest;
+            int recorded = Math.min(year, history);
+            Result result = detect(aggregates, year, recorded, years);
+            if (result != null) {
+                log.info("Stopped early: {}", result);
+                return result;
+            }
+        }
+        double[] last = years == 0 ? aggregates(engine) : aggregates[(years - 1) % history];
+        return new Result(Regime.NONE, 0, years, 0, last[POPULATION], last[RESOURCES]);
+    }
+
+    private static double[] aggregates(SimulationEngine engine) {
+        int ages = engine instanceof Simulation ? Bunny.MAX_AGE : 0;
+        double[] values = new double[AGE_SHARES + ages];
+        long population = engine.getPopulationSize();
+        values[POPULATION] = population;
+        values[RESOURCES] = engine.getEnvironment().getResourceAvailability();
+        values[CARRYING_CAPACITY] = engine.getEnvironment().getCarryingCapacity();
+        if (ages > 0 && population > 0) {
+            PopulationStatistics statistics = ((Simulation) engine).getPopulation().getStatistics();
+            for (int age = 0; age < ages; age++) {
+                values[AGE_SHARES + age] = (double) statistics.getAgeCount(age) / population;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Looks for a regime in the recorded aggregates.
+     *
+     * @param aggregates the ring of recorded aggregates, the latest at index {@code (year - 1) % length}
+     * @param year the number of years run
+     * @param recorded the number of years in the ring
+     * @param years the horizon
+     * @return the result if a regime was recognized, otherwise {@code null}
+     */
+    private Result detect(double[][] aggregates, int year, int recorded, int years) {
+        double[] latest = at(aggregates, year, 0);
+        int skipped = years - year;
+        if (latest[POPULATION] == 0) {
+            return new Result(Regime.EXTINCTION, 0, year, skipped, 0, latest[RESOURCES]);
+        }
+        if (recorded < window) {
+            return null;
+        }
+        if (holds(aggregates, year, 0)) {
+            return new Result(Regime.FIXED_POINT, 0, year, skipped, latest[POPULATION], latest[RESOURCES]);
+        }
+        for (int period = 2; period <= maxPeriod && window + period <= recorded; period++) {
+            if (holds(aggregates, year, period)) {
+                // The final year of the horizon repeats the year a whole number of periods before it
+                double[] projected = at(aggregates, year, (period - skipped % period) % period);
+                return new Result(Regime.CYCLE, period, year, skipped, projected[POPULATION], projected[RESOURCES]);
+            }
+        }
+        if (recorded >= 2 * window && stationary(aggregates, year)) {
+            return new Result(Regime.STATIONARY, 0, year, skipped, mean(aggregates, year, 0, POPULATION),
+                    mean(aggregates, year, 0, RESOURCES));
+        }
+        return null;
+    }
+
+    /**
+     * @return the aggregates of the year {@code back} years before the latest
+     */
+    private static double[] at(double[][] aggregates, int year, int back) {
+        return aggregates[(year - 1 - back) % aggregates.length];
+    }
+
+    /**
+     * Checks that each of the last {@code window} years matches the year {@code period} years before it, or the
+     * latest year for a period of 0.
+     */
+    private boolean holds(double[][] aggregates, int year, int period) {
+        double[] latest = at(aggregates, year, 0);
+        for (int back = 0; back < window; back++) {
+            double[] values = at(aggregates, year, back);
+            double[] reference = period == 0 ? latest : at(aggregates, year, back + period);
+            if (!equal(values, reference)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean stationary(double[][] aggregates, int year) {
+        double[] latest = at(aggregates, year, 0);
+        for (int component = 0; component < latest.length; component++) {
+            double recentMean = mean(aggregates, year, 0, component);
+            double earlierMean = mean(aggregates, year, window, component);
+            double scale = Math.max(Math.abs(recentMean), Math.abs(earlierMean));
+            if (!close(recentMean, earlierMean, scale)) {
+                return false;
+            }
+            double recentDeviation = deviation(aggregates, year, 0, component, recentMean);
+            double earlierDeviation = deviation(aggregates, year, window, component, earlierMean);
+            if (!close(recentDeviation, earlierDeviation, scale)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double mean(double[][] aggregates, int year, int from, int component) {
+        double sum = 0;
+        for (int back = from; back < from + window; back++) {
+            sum += component(at(aggregates, year, back), component);
+        }
+        return sum / window;
+    }
+
+    private double deviation(double[][] aggregates, int year, int from, int component, double mean) {
+        double sum = 0;
+        for (int back = from; back < from + window; back++) {
+            double difference = component(at(aggregates, year, back), component) - mean;
+            sum += difference * difference;
+        }
+        return Math.sqrt(sum / window);
+    }
+
+    /**
+     * @return a component of the aggregates, 0 for age shares of a year in which the population was empty
+     */
+    private static double component(double[] values, int component) {
+        return component < values.length ? values[component] : 0;
+    }
+
+    private boolean equal(double[] values, double[] reference) {
+        for (int component = 0; component < Math.max(values.length, reference.length); component++) {
+            double a = component(values, component);
+            double b = component(reference, component);
+            if (!close(a, b, Math.max(Math.abs(a), Math.abs(b)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean close(double a, double b, double scale) {
+        return Math.abs(a - b) <= tolerance * Math.max(1.0, scale);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bunny.simulation;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the statistics of every year as CSV lines, one line per year.
+ *
+ * <p>Lines are formatted on the simulation thread, which is fine for short runs and for printing to the console.
+ * Long runs should record into a {@link ColumnarStatisticsWriter} and export to CSV afterwards with
+ * {@link ColumnarStatisticsReader#exportCsv(Appendable)}.</p>
+ */
+public class CsvStatisticsSink implements StatisticsSink {
+    static final String HEADER = "year,population,resourceLevel,carryingCapacity,event";
+
+    private final Appendable out;
+    private boolean headerWritten;
+
+    /**
+     * @param out the destination of the CSV lines
+     */
+    public CsvStatisticsSink(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void record(int year, long population, double resourceLevel, int carryingCapacity, int eventType) {
+        try {
+            if (!headerWritten) {
+                out.append(HEADER).append(System.lineSeparator());
+                headerWritten = true;
+            }
+            appendLine(out, year, population, resourceLevel, carryingCapacity, eventType);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void appendLine(Appendable out, int year, long population, double resourceLevel, int carryingCapacity,
+                           int eventType) throws IOException {
+        out.append(Integer.toString(year)).append(',')
+                .append(Long.toString(population)).append(',')
+                .append(Double.toString(resourceLevel)).append(',')
+                .append(Integer.toString(carryingCapacity)).append(',')
+                .append(eventType == NO_EVENT ? "" : RandomEvent.values()[eventType].name())
+                .append(System.lineSeparator());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out instanceof Flushable) {
+            ((Flushable) out).flush();
+        }
+    }
+}
@@ -1,7 +1,7 @@
+package com.bunny.simulation;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Random;
 /**
  * Single Responsibility Principle (SRP): Each class has a specific responsibility:
  * Environment manages environmental conditions and resources.
@@ -10,16 +10,37 @@ import java.util.Random;
 
 public class Environment {
     private int carryingCapacity;
-    private int currentPopulation;
+    private long currentPopulation;
     private double resourceAvailability;
-    private Random random;
+    private RandomSource random;
+    private RandomEvent lastEvent;
     private static final Logger log = LoggerFactory.getLogger(Environment.class);
 
     public Environment(int carryingCapacity) {
+        this(carryingCapacity, new RandomSource());
+    }
+
+    /**
+     * Creates an environment whose random events are drawn from the given source.
+     *
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     * @param random the random source of the simulation
+     */
+    public Environment(int carryingCapacity, RandomSource random) {
         this.carryingCapacity = carryingCapacity;
         this.currentPopulation = 0;
         this.resourceAvailability = 100.0;
-        this.random = new Random();
+        this.random = random;
+    }
+
+    /**
+     * Restores an environment from a checkpoint, see {@link SimulationCheckpoint}.
+     */
+    Environment(int carryingCapacity, long currentPopulation, double resourceAvailability, RandomSource random) {
+        this.carryingCapacity = carryingCapacity;
+        this.currentPopulation = currentPopulation;
+        this.resourceAvailability = resourceAvailability;
+        this.random = random;
     }
 
     /**
@@ -40,7 +61,7 @@ public class Environment {
      *
      * @param populationSize the current population size of the environment
      */
-    public void updateResources(int populationSize) {
+    public void updateResources(long populationSize) {
         if (populationSize > carryingCapacity) {
             resourceAvailability -= (populationSize - carryingCapacity) * 0.5; // Resources decrease
         } else {
@@ -66,14 +87,51 @@ public class Environment {
      * @param bunnies an array of {@code Bunny} objects representing the population of bunnies
      */
     public void adjustHealth(Bunny[] bunnies) {
-        double declineRate = Math.max((double) currentPopulation / carryingCapacity, 1.0);
+        double decline = getHealthDecline();
         for (Bunny bunny : bunnies) {
             if (bunny.isAlive()) {
-                bunny.setHealth(bunny.getHealth() - (declineRate * 5));
+                bunny.setHealth(bunny.getHealth() - decline);
             }
         }
     }
 
+    /**
+     * Adjusts the health of all living bunnies in a {@link BunnyPopulation} based on the current population density.
+     *
+     * <p>Applies the same decline as {@link #adjustHealth(Bunny[])} directly on the population's columns,
+     * without creating a view or array per bunny.</p>
+     *
+     * @param population the population of bunnies
+     */
+    public void adjustHealth(BunnyPopulation population) {
+        adjustHealth(population, 0, population.slotLimit());
+    }
+
+    /**
+     * Adjusts the health of the living bunnies in the slot range {@code [fromSlot, toSlot)} of a population.
+     *
+     * <p>The population's statistics are updated as well, so ranges must not be adjusted concurrently through this
+     * method; {@link Simulation} adjusts its chunks in parallel with statistics of their own.</p>
+     *
+     * @param population the population of bunnies
+     * @param fromSlot the first slot to adjust, inclusive
+     * @param toSlot the last slot to adjust, exclusive
+     */
+    public void adjustHealth(BunnyPopulation population, int fromSlot, int toSlot) {
+        population.adjustHealth(fromSlot, toSlot, -getHealthDecline());
+    }
+
+    /**
+     * Returns the amount of health every living bunny loses in {@code adjustHealth} at the current population
+     * density: 5 times the decline rate described in {@link #adjustHealth(Bunny[])}.
+     *
+     * @return the health decline for one year
+     */
+    public double getHealthDecline() {
+        double declineRate = Math.max((double) currentPopulation / carryingCapacity, 1.0);
+        return declineRate * 5;
+    }
+
     /**
      * Introduces a random environmental event that affects the carrying capacity,
      * resource availability, or the health of the bunnies in the simulation.
@@ -85,22 +143,33 @@ public class Environment {
      *     <li>If an event of type 15-24 occurs, a disease outbreak decreases the health of all bunnies by 20.</li>
      * </ul>
      *
+     * The event is logged at debug level and remains available through {@link #getLastEvent()}.
      */
     public void introduceRandomEvent() {
 
-        int eventType = random.nextInt(100);
+        int eventType = random.nextStream().nextInt(100);
         if (eventType < 5) {
-            log.info("A drought has occurred! Decreasing carrying capacity.");
+            lastEvent = RandomEvent.DROUGHT;
+            log.debug("A drought has occurred! Decreasing carrying capacity.");
             carryingCapacity = (int) (carryingCapacity * 0.8);
         } else if (eventType < 15) {
-            log.info("A year of abundance! Increasing resource availability.");
+            lastEvent = RandomEvent.ABUNDANCE;
+            log.debug("A year of abundance! Increasing resource availability.");
             resourceAvailability += 30;
         } else {
-            log.info("A disease outbreak has occurred! Decreasing health of all bunnies.");
+            lastEvent = RandomEvent.DISEASE;
+            log.debug("A disease outbreak has occurred! Decreasing health of all bunnies.");
 
         }
     }
 
+    /**
+     * @return the event of the last call to {@link #introduceRandomEvent()}, or {@code null} if there was none
+     */
+    public RandomEvent getLastEvent() {
+        return lastEvent;
+    }
+
     public int getCarryingCapacity() {
         return carryingCapacity;
     }
@@ -109,10 +178,32 @@ public class Environment {
         currentPopulation++;
     }
 
+    public void increasePopulation(long count) {
+        currentPopulation += count;
+    }
+
     public void decreasePopulation() {
         currentPopulation--;
     }
 
+    public void decreasePopulation(long count) {
+        currentPopulation -= count;
+    }
+
+    /**
+     * Sets the number of living bunnies the environment supports, which determines the density used by
+     * {@link #getHealthDecline()}.
+     *
+     * @param count the number of living bunnies
+     */
+    public void setCurrentPopulation(long count) {
+        currentPopulation = count;
+    }
+
+    public long getCurrentPopulation() {
+        return currentPopulation;
+    }
+
     public double getResourceAvailability() {
         return resourceAvailability;
     }
@@ -0,0 +1,170 @@
+package com.bunny.simulation;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Single Responsibility Principle (SRP): FitnessIndex draws parents from a {@link BunnyPopulation} with a
+ * probability proportional to their fitness.
+ *
+ * <p>The fitness of a bunny, see {@link BunnyPopulation#calculateFitness(int, double)}, is the product of its health,
+ * its trait fitness and the environment's resource fitness. The resource fitness is the same for every bunny, so it
+ * does not change which bunny is drawn; the index keeps only the per-bunny part, the weight, and applies the resource
+ * fitness as one shared multiplier in {@link #getFitness(int, double)}. Bunnies that cannot reproduce have a weight
+ * of 0.</p>
+ *
+ * <p>The weights are kept in a Fenwick tree over the population's slots. Building it takes one pass over the
+ * population, a change of one bunny's weight takes {@code O(log n)}, and so does drawing a parent, so drawing
+ * {@code k} parents takes {@code O(k log n)}. Once attached to a population, the index is updated by the
+ * population's single-bunny changes, such as {@link BunnyPopulation#setHealth(int, double)}. Changes to many bunnies
+ * at once, such as a year of the simulation, invalidate the index instead, and it is rebuilt on its next use.</p>
+ */
+public class FitnessIndex {
+    /**
+     * Caps the trait fitness {@code 1 / |reproductionRate - mutationRate|}, which is infinite for equal rates.
+     */
+    static final double MAX_TRAIT_FITNESS = 1e6;
+
+    private final BunnyPopulation population;
+    private double[] weights = new double[0];
+    private double[] tree = new double[1];
+    private int size;
+    private int highestBit;
+    private boolean valid;
+
+    /**
+     * Creates an index over the given population and attaches it, so that the population keeps it up to date.
+     *
+     * @param population the population to draw parents from
+     */
+    public FitnessIndex(BunnyPopulation population) {
+        this.population = population;
+        population.attach(this);
+    }
+
+    /**
+     * Recomputes every weight and rebuilds the tree in one pass over the population.
+     */
+    public void rebuild() {
+        size = population.slotLimit();
+        if (weights.length < size) {
+            int capacity = Math.max(size, weights.length * 2);
+            weights = new double[capacity];
+            tree = new double[capacity + 1];
+        }
+        Arrays.fill(tree, 0, size + 1, 0.0);
+        for (int slot = 0; slot < size; slot++) {
+            weights[slot] = weight(slot);
+            int node = slot + 1;
+            tree[node] += weights[slot];
+            int parent = node + (node & -node);
+            if (parent <= size) {
+                tree[parent] += tree[node];
+            }
+        }
+        highestBit = size == 0 ? 0 : Integer.highestOneBit(size);
+        valid = true;
+    }
+
+    /**
+     * Marks the index as out of date; it is rebuilt by the next {@link #ensureValid()}.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Rebuilds the index if it has been invalidated.
+     */
+    public void ensureValid() {
+        if (!valid) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Updates the weight of one bunny after it changed. Does nothing while the index is invalid.
+     *
+     * @param slot the slot of the bunny
+     */
+    void update(int slot) {
+        if (!valid) {
+            return;
+        }
+        double weight = slot < population.slotLimit() ? weight(slot) : 0;
+        if (slot >= size) {
+            if (weight != 0) {
+                valid = false; // the tree does not cover this slot yet
+            }
+            return;
+        }
+        double delta = weight - weights[slot];
+        if (delta == 0) {
+            return;
+        }
+        weights[slot] = weight;
+        for (int node = slot + 1; node <= size; node += node & -node) {
+            tree[node] += delta;
+        }
+    }
+
+    private double weight(int slot) {
+        if (!population.isOccupied(slot) || !population.canReproduce(slot)) {
+            return 0;
+        }
+        double traitFitness = 1.0 / Math.abs(population.getReproductionRate(slot) - population.getMutationRate(slot));
+        return Math.max(population.getHealth(slot), 0) * Math.min(traitFitness, MAX_TRAIT_FITNESS);
+    }
+
+    /**
+     * @return the sum of all weights, 0 if no bunny can reproduce
+     */
+    public double getTotalWeight() {
+        ensureValid();
+        double total = 0;
+        for (int node = size; node > 0; node -= node & -node) {
+            total += tree[node];
+        }
+        return total;
+    }
+
+    /**
+     * @return the fitness of a bunny that can reproduce, or 0 for any other bunny
+     */
+    public double getFitness(int slot, double resourceFitness) {
+        ensureValid();
+        return slot < size ? weights[slot] * resourceFitness : 0;
+    }
+
+    /**
+     * Draws one bunny with a probability proportional to its fitness.
+     *
+     * @param random the random generator of the draw
+     * @return the slot of the drawn bunny, or -1 if no bunny can reproduce
+     */
+    public int sample(RandomGenerator random) {
+        double total = getTotalWeight();
+        if (total <= 0) {
+            return -1;
+        }
+        double remaining = random.nextDouble() * total;
+        int position = 0;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= remaining) {
+                remaining -= tree[next];
+                position = next;
+            }
+        }
+        // position is the number of slots before the drawn one; rounding may land past the last positive weight
+        int slot = Math.min(position, size - 1);
+        while (slot > 0 && weights[slot] <= 0) {
+            slot--;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bunny.simulation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Single Responsibility Principle (SRP): FixedHistogram counts values in equally wide bins over a fixed range.
+ *
+ * <p>Values below the range are counted as underflow and values above it as overflow; the upper bound itself falls
+ * into the last bin. Histograms with the same range and number of bins can be merged by adding their counts, so
+ * histograms built per chunk of a population or per replica combine exactly.</p>
+ */
+public class FixedHistogram {
+    private final double lower;
+    private final double upper;
+    private final double width;
+    private final long[] counts;
+    private long underflow;
+    private long overflow;
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param lower the lower bound of the first bin
+     * @param upper the upper bound of the last bin
+     * @param bins the number of bins, at least 1
+     */
+    public FixedHistogram(double lower, double upper, int bins) {
+        if (bins < 1 || !(upper > lower)) {
+            throw new IllegalArgumentException("Need at least one bin over a non-empty range: " + bins + " bins over ["
+                    + lower + ", " + upper + "]");
+        }
+        this.lower = lower;
+        this.upper = upper;
+        this.width = (upper - lower) / bins;
+        this.counts = new long[bins];
+    }
+
+    public void add(double value) {
+        if (value < lower) {
+            underflow++;
+        } else if (value > upper) {
+            overflow++;
+        } else if (!Double.isNaN(value)) {
+            counts[Math.min((int) ((value - lower) / width), counts.length - 1)]++;
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram to this one.
+     *
+     * @param other a histogram with the same range and number of bins
+     */
+    public void merge(FixedHistogram other) {
+        if (other.lower != lower || other.upper != upper || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Cannot merge histograms with different bins");
+        }
+        for (int bin = 0; bin < counts.length; bin++) {
+            counts[bin] += other.counts[bin];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        underflow = 0;
+        overflow = 0;
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    /**
+     * @return the inclusive lower bound of the given bin
+     */
+    public double getLowerBound(int bin) {
+        return lower + bin * width;
+    }
+
+    public long getUnderflow() {
+        return underflow;
+    }
+
+    public long getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return the number of values added, including underflow and overflow
+     */
+    public long getTotal() {
+        long total = underflow + overflow;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    int serializedBytes() {
+        return 2 * Double.BYTES + Integer.BYTES + (counts.length + 2) * Long.BYTES;
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.putDouble(lower).putDouble(upper).putInt(counts.length);
+        for (long count : counts) {
+            buffer.putLong(count);
+        }
+        buffer.putLong(underflow).putLong(overflow);
+    }
+
+    static FixedHistogram read(ByteBuffer buffer) {
+        FixedHistogram histogram = new FixedHistogram(buffer.getDouble(), buffer.getDouble(), buffer.getInt());
+        for (int bin = 0; bin < histogram.counts.length; bin++) {
+            histogram.counts[bin] = buffer.getLong();
+        }
+        histogram.underflow = buffer.getLong();
+        histogram.overflow = buffer.getLong();
+        return histogram;
+    }
+}
@@ -0,0 +1,255 @@
+package com.bunny.simulation;
+
+/**
+ * Single Responsibility Principle (SRP): HealthKernels applies the yearly health decline and evaluates fitness for
+ * whole columns of bunnies at once.
+ *
+ * <p>The kernels work on the primitive columns of a population instead of one {@link Bunny} at a time. Builds with
+ * the {@code vector} profile add an implementation on the incubating Vector API, which processes a full vector
+ * register of bunnies per instruction when the JVM runs with {@code --add-modules jdk.incubator.vector}. Otherwise
+ * the kernels fall back to plain loops over the arrays. Both paths compute exactly the same health and fitness
+ * values, so a simulation gives the same results either way.</p>
+ *
+ * <p>The health adjustment also sums the previous health values for the health variance of
+ * {@link PopulationStatistics}. Floating-point sums depend on the order of their terms, so every path adds them in
+ * the same order: in {@value #SUM_LANES} interleaved partial sums, the bunny at {@code from + k} going to partial sum
+ * {@code k % }{@value #SUM_LANES}, which are combined pairwise as
+ * {@code ((s0 + s1) + (s2 + s3)) + ((s4 + s5) + (s6 + s7))}. The statistics are therefore bit-identical with and
+ * without the Vector API, whatever the vector width of the CPU.</p>
+ *
+ * <p>{@link BunnyPopulation} uses the kernels for populations kept on the heap, see
+ * {@link PopulationStorage#onHeap()}.</p>
+ */
+public final class HealthKernels {
+    /** The number of interleaved partial sums of the health values. */
+    static final int SUM_LANES = 8;
+    private static final String VECTOR_KERNELS = "com.bunny.simulation.VectorHealthKernels";
+    private static final Implementation VECTOR = loadVectorKernels();
+
+    /**
+     * A second implementation of the kernels, which must compute the same values as the scalar loops. The Vector
+     * API implementation is compiled from {@code src/vector/java} by the {@code vector} profile only, so the default
+     * build does not depend on an incubating module.
+     */
+    interface Implementation {
+        long adjustHealth(double[] health, boolean[] alive, int from, int to, double delta,
+                          PopulationStatistics changes);
+
+        void calculateFitness(double resourceFitness, double[] health, double[] reproductionRate,
+                              double[] mutationRate, int from, int to, double[] fitness);
+    }
+
+    private HealthKernels() {
+    }
+
+    private static Implementation loadVectorKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Implementation) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Built without the vector profile
+            return null;
+        }
+    }
+
+    /**
+     * @return whether the kernels use the Vector API, which requires a build with the {@code vector} profile and
+     * {@code --add-modules jdk.incubator.vector} at run time
+     */
+    public static boolean isVectorized() {
+        return VECTOR != null;
+    }
+
+    /**
+     * Changes the health of every living bunny in the range {@code [from, to)} of a health column by the same amount,
+     * like {@link Environment#adjustHealth(BunnyPopulation)}.
+     *
+     * @param health the health column
+     * @param alive the column telling which bunnies are alive
+     * @param from the first index to adjust, inclusive
+     * @param to the last index to adjust, exclusive
+     * @param delta the change of health, negative for a decline
+     * @return the number of bunnies adjusted
+     */
+    public static long adjustHealth(double[] health, boolean[] alive, int from, int to, double delta) {
+        return adjustHealth(health, alive, from, to, delta, null);
+    }
+
+    /**
+     * Changes the health of the living bunnies in a range and records the change in the given statistics, if any.
+     *
+     * @return the number of bunnies adjusted
+     */
+    static long adjustHealth(double[] health, boolean[] alive, int from, int to, double delta,
+                             PopulationStatistics changes) {
+        if (VECTOR != null) {
+            return VECTOR.adjustHealth(health, alive, from, to, delta, changes);
+        }
+        return scalarAdjustHealth(health, alive, from, to, delta, changes);
+    }
+
+    static long scalarAdjustHealth(double[] health, boolean[] alive, int from, int to, double delta,
+                                   PopulationStatistics changes) {
+        long count = 0;
+        double sum0 = 0;
+        double sum1 = 0;
+        double sum2 = 0;
+        double sum3 = 0;
+        double sum4 = 0;
+        double sum5 = 0;
+        double sum6 = 0;
+        double sum7 = 0;
+        int i = from;
+        for (int bound = to - SUM_LANES; i <= bound; i += SUM_LANES) {
+            if (alive[i]) {
+                count++;
+                sum0 += health[i];
+                health[i] += delta;
+            }
+            if (alive[i + 1]) {
+                count++;
+                sum1 += health[i + 1];
+                health[i + 1] += delta;
+            }
+            if (alive[i + 2]) {
+                count++;
+                sum2 += health[i + 2];
+                health[i + 2] += delta;
+            }
+            if (alive[i + 3]) {
+                count++;
+                sum3 += health[i + 3];
+                health[i + 3] += delta;
+            }
+            if (alive[i + 4]) {
+                count++;
+                sum4 += health[i + 4];
+                health[i + 4] += delta;
+            }
+            if (alive[i + 5]) {
+                count++;
+                sum5 += health[i + 5];
+                health[i + 5] += delta;
+            }
+            if (alive[i + 6]) {
+                count++;
+                sum6 += health[i + 6];
+                health[i + 6] += delta;
+            }
+            if (alive[i + 7]) {
+                count++;
+                sum7 += health[i + 7];
+                health[i + 7] += delta;
+            }
+        }
+        return adjustRemainder(health, alive, i, to, delta, changes, count, sum0, sum1, sum2, sum3, sum4, sum5, sum6,
+                sum7);
+    }
+
+    /**
+     * Adjusts the fewer than {@value #SUM_LANES} bunnies left from {@code i} on, whose partial sums start at the
+     * first one again, and records the change of the whole range. The sums are passed one by one so that no kernel
+     * allocates.
+     */
+    static long adjustRemainder(double[] health, boolean[] alive, int i, int to, double delta,
+                                PopulationStatistics changes, long count, double sum0, double sum1, double sum2,
+                                double sum3, double sum4, double sum5, double sum6, double sum7) {
+        if (i < to && alive[i]) {
+            count++;
+            sum0 += health[i];
+            health[i] += delta;
+        }
+        if (i + 1 < to && alive[i + 1]) {
+            count++;
+            sum1 += health[i + 1];
+            health[i + 1] += delta;
+        }
+        if (i + 2 < to && alive[i + 2]) {
+            count++;
+            sum2 += health[i + 2];
+            health[i + 2] += delta;
+        }
+        if (i + 3 < to && alive[i + 3]) {
+            count++;
+            sum3 += health[i + 3];
+            health[i + 3] += delta;
+        }
+        if (i + 4 < to && alive[i + 4]) {
+            count++;
+            sum4 += health[i + 4];
+            health[i + 4] += delta;
+        }
+        if (i + 5 < to && alive[i + 5]) {
+            count++;
+            sum5 += health[i + 5];
+            health[i + 5] += delta;
+        }
+        if (i + 6 < to && alive[i + 6]) {
+            count++;
+            sum6 += health[i + 6];
+            health[i + 6] += delta;
+        }
+        if (changes != null) {
+            changes.shiftHealth(count, combine(sum0, sum1, sum2, sum3, sum4, sum5, sum6, sum7), delta);
+        }
+        return count;
+    }
+
+    /**
+     * Combines the partial sums of the health values in their fixed order.
+     */
+    static double combine(double sum0, double sum1, double sum2, double sum3, double sum4, double sum5, double sum6,
+                          double sum7) {
+        return ((sum0 + sum1) + (sum2 + sum3)) + ((sum4 + sum5) + (sum6 + sum7));
+    }
+
+    /**
+     * Calculates the fitness of every bunny of the given columns in an environment, see
+     * {@link Bunny#calculateFitness(Environment)}.
+     *
+     * @param environment the environment providing resource availability and carrying capacity
+     * @param health the health column
+     * @param reproductionRate the reproduction rate column
+     * @param mutationRate the mutation rate column
+     * @return a new array with the fitness of every bunny
+     */
+    public static double[] calculateFitness(Environment environment, double[] health, double[] reproductionRate,
+                                            double[] mutationRate) {
+        double resourceFitness = environment.getResourceAvailability() / environment.getCarryingCapacity();
+        double[] fitness = new double[health.length];
+        calculateFitness(resourceFitness, health, reproductionRate, mutationRate, 0, health.length, fitness);
+        return fitness;
+    }
+
+    /**
+     * Calculates the fitness of the bunnies in the range {@code [from, to)} of the given columns into an array, so
+     * that repeated evaluations need not allocate.
+     *
+     * @param resourceFitness the ratio of resource availability to carrying capacity of the environment
+     * @param health the health column
+     * @param reproductionRate the reproduction rate column
+     * @param mutationRate the mutation rate column
+     * @param from the first index to evaluate, inclusive
+     * @param to the last index to evaluate, exclusive
+     * @param fitness the array receiving the fitness of each bunny at the bunny's index
+     */
+    public static void calculateFitness(double resourceFitness, double[] health, double[] reproductionRate,
+                                        double[] mutationRate, int from, int to, double[] fitness) {
+        if (VECTOR != null) {
+            VECTOR.calculateFitness(resourceFitness, health, reproductionRate, mutationRate, from, to, fitness);
+        } else {
+            scalarCalculateFitness(resourceFitness, health, reproductionRate, mutationRate, from, to, fitness);
+        }
+    }
+
+    static void scalarCalculateFitness(double resourceFitness, double[] health, double[] reproductionRate,
+                                       double[] mutationRate, int from, int to, double[] fitness) {
+        for (int i = from; i < to; i++) {
+            // Favor balanced traits
+            double traitFitness = 1.0 / Math.abs(reproductionRate[i] - mutationRate[i]);
+            fitness[i] = health[i] * resourceFitness * traitFitness;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps the columns of a population in primitive arrays, see {@link PopulationStorage#onHeap()}.
+ */
+final class HeapStorage extends PopulationStorage {
+    private int[] age = new int[0];
+    private int[] generation = new int[0];
+    private double[] health = new double[0];
+    private double[] reproductionRate = new double[0];
+    private double[] mutationRate = new double[0];
+    private boolean[] alive = new boolean[0];
+    private boolean[] occupied = new boolean[0];
+    private long[] id = new long[0];
+    private int[] freeSlots = new int[0];
+
+    @Override
+    public int capacity() {
+        return occupied.length;
+    }
+
+    @Override
+    void grow(int capacity) {
+        if (capacity <= occupied.length) {
+            return;
+        }
+        age = Arrays.copyOf(age, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        health = Arrays.copyOf(health, capacity);
+        reproductionRate = Arrays.copyOf(reproductionRate, capacity);
+        mutationRate = Arrays.copyOf(mutationRate, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        occupied = Arrays.copyOf(occupied, capacity);
+        id = Arrays.copyOf(id, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    @Override
+    int getAge(int slot) {
+        return age[slot];
+    }
+
+    @Override
+    void setAge(int slot, int age) {
+        this.age[slot] = age;
+    }
+
+    @Override
+    int getGeneration(int slot) {
+        return generation[slot];
+    }
+
+    @Override
+    void setGeneration(int slot, int generation) {
+        this.generation[slot] = generation;
+    }
+
+    @Override
+    double getHealth(int slot) {
+        return health[slot];
+    }
+
+    @Override
+    void setHealth(int slot, double health) {
+        this.health[slot] = health;
+    }
+
+    @Override
+    double getReproductionRate(int slot) {
+        return reproductionRate[slot];
+    }
+
+    @Override
+    void setReproductionRate(int slot, double reproductionRate) {
+        this.reproductionRate[slot] = reproductionRate;
+    }
+
+    @Override
+    double getMutationRate(int slot) {
+        return mutationRate[slot];
+    }
+
+    @Override
+    void setMutationRate(int slot, double mutationRate) {
+        this.mutationRate[slot] = mutationRate;
+    }
+
+    @Override
+    boolean isAlive(int slot) {
+        return alive[slot];
+    }
+
+    @Override
+    void setAlive(int slot, boolean alive) {
+        this.alive[slot] = alive;
+    }
+
+    @Override
+    boolean isOccupied(int slot) {
+        return occupied[slot];
+    }
+
+    @Override
+    void setOccupied(int slot, boolean occupied) {
+        this.occupied[slot] = occupied;
+    }
+
+    @Override
+    long getId(int slot) {
+        return id[slot];
+    }
+
+    @Override
+    void setId(int slot, long id) {
+        this.id[slot] = id;
+    }
+
+    @Override
+    int getFreeSlot(int index) {
+        return freeSlots[index];
+    }
+
+    @Override
+    void setFreeSlot(int index, int slot) {
+        freeSlots[index] = slot;
+    }
+
+    @Override
+    void adjustHealth(int fromSlot, int toSlot, double delta, PopulationStatistics changes) {
+        HealthKernels.adjustHealth(health, alive, fromSlot, toSlot, delta, changes);
+    }
+
+    @Override
+    void calculateFitness(int fromSlot, int toSlot, double resourceFitness, double[] fitness) {
+        HealthKernels.calculateFitness(resourceFitness, health, reproductionRate, mutationRate, fromSlot, toSlot,
+                fitness);
+    }
+
+    @Override
+    void write(MappedOutput out, int slotLimit, int freeCount) throws IOException {
+        out.putInts(age, slotLimit);
+        out.putInts(generation, slotLimit);
+        out.putDoubles(health, slotLimit);
+        out.putDoubles(reproductionRate, slotLimit);
+        out.putDoubles(mutationRate, slotLimit);
+        out.putBooleans(alive, slotLimit);
+        out.putBooleans(occupied, slotLimit);
+        out.putLongs(id, slotLimit);
+        out.putInts(freeSlots, freeCount);
+    }
+
+    @Override
+    void read(MappedInput in, int slotLimit, int freeCount) throws IOException {
+        in.getInts(age, slotLimit);
+        in.getInts(generation, slotLimit);
+        in.getDoubles(health, slotLimit);
+        in.getDoubles(reproductionRate, slotLimit);
+        in.getDoubles(mutationRate, slotLimit);
+        in.getBooleans(alive, slotLimit);
+        in.getBooleans(occupied, slotLimit);
+        in.getLongs(id, slotLimit);
+        in.getInts(freeSlots, freeCount);
+    }
+}
@@ -0,0 +1,376 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.LongConsumer;
+
+/**
+ * Single Responsibility Principle (SRP): LineageLog records who descends from whom, and answers questions about
+ * ancestry without keeping the ancestors themselves alive.
+ *
+ * <p>Every birth is appended as a record of the offspring's id (see {@link BunnyPopulation#getId(int)}), the
+ * parent's id, the birth year and the offspring's mutation rate. Founders have the parent id {@link #NO_PARENT}.
+ * Records are kept in columns of primitive arrays, in chunks of {@link #CHUNK_RECORDS} records. With a spill
+ * directory, full chunks beyond a number kept in memory are written to a file and read back through memory-mapped
+ * buffers when queried, so the heap holds a bounded number of chunks however many records there are.</p>
+ *
+ * <p>Ids are appended in increasing order and a parent is always older than its offspring, so a record is found by
+ * binary search, ancestors by following parents towards smaller ids, and descendants by one forward scan.</p>
+ */
+public class LineageLog implements Closeable {
+    /** The parent id of a founder. */
+    public static final long NO_PARENT = -1;
+    static final int CHUNK_RECORDS = 1 << 16;
+    private static final int RECORD_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + Double.BYTES;
+
+    private final Path spillDirectory;
+    private Path spillFile;
+    private final int chunksInMemory;
+    private FileChannel spill;
+    private ByteBuffer spillBuffer;
+
+    private Chunk[] chunks = new Chunk[0];
+    private ByteBuffer[] spilled = new ByteBuffer[0];
+    private long[] firstIds = new long[0];
+    private int chunkCount;
+    private int firstChunkInMemory;
+    private long size;
+
+    /**
+     * The columns of one chunk held on the heap.
+     */
+    private static final class Chunk {
+        private final long[] id = new long[CHUNK_RECORDS];
+        private final long[] parentId = new long[CHUNK_RECORDS];
+        private final int[] birthYear = new int[CHUNK_RECORDS];
+        private final double[] mutationRate = new double[CHUNK_RECORDS];
+        private int count;
+    }
+
+    /**
+     * Creates a log that keeps every record on the heap.
+     */
+    public LineageLog() {
+        this.spillDirectory = null;
+        this.chunksInMemory = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Creates a log that spills full chunks to a file in the given directory.
+     *
+     * <p>The spill file gets a unique name when the first chunk is spilled, so several logs can share a directory
+     * with each other and with other files.</p>
+     *
+     * @param directory an existing directory; the spill file is deleted when the log is closed
+     * @param chunksInMemory the number of full chunks kept on the heap, at least 1
+     */
+    public LineageLog(Path directory, int chunksInMemory) {
+        if (chunksInMemory < 1) {
+            throw new IllegalArgumentException("At least one chunk must be kept in memory: " + chunksInMemory);
+        }
+        this.spillDirectory = directory;
+        this.chunksInMemory = chunksInMemory;
+    }
+
+    /**
+     * Appends a birth. Ids must be appended in increasing order.
+     *
+     * @param id the id of the offspring
+     * @param parentId the id of the parent, or {@link #NO_PARENT} for a founder
+     * @param birthYear the year of birth
+     * @param mutationRate the mutation rate the offspring was born with
+     */
+    public void append(long id, long parentId, int birthYear, double mutationRate) {
+        if (size > 0 && id <= lastId()) {
+            throw new IllegalArgumentException("Id " + id + " does not follow id " + lastId());
+        }
+        Chunk chunk = chunkCount == 0 ? null : chunks[chunkCount - 1];
+        if (chunk == null || chunk.count == CHUNK_RECORDS) {
+            chunk = openChunk(id);
+        }
+        int index = chunk.count++;
+        chunk.id[index] = id;
+        chunk.parentId[index] = parentId;
+        chunk.birthYear[index] = birthYear;
+        chunk.mutationRate[index] = mutationRate;
+        size++;
+    }
+
+    private Chunk openChunk(long firstId) {
+        Chunk recycled = null;
+        if (chunkCount - firstChunkInMemory >= chunksInMemory) {
+            recycled = spillOldest();
+        }
+        if (chunkCount == chunks.length) {
+            int capacity = Math.max(chunks.length * 2, 16);
+            chunks = Arrays.copyOf(chunks, capacity);
+            spilled = Arrays.copyOf(spilled, capacity);
+            firstIds = Arrays.copyOf(firstIds, capacity);
+        }
+        Chunk chunk = recycled == null ? new Chunk() : recycled;
+        chunk.count = 0;
+        chunks[chunkCount] = chunk;
+        firstIds[chunkCount] = firstId;
+        chunkCount++;
+        return chunk;
+    }
+
+    /**
+     * Writes the oldest chunk on the heap to the spill file and maps it back read-only.
+     *
+     * @return the chunk, free for reuse
+     */
+    private Chunk spillOldest() {
+        Chunk chunk = chunks[firstChunkInMemory];
+        long offset = (long) firstChunkInMemory * CHUNK_RECORDS * RECORD_BYTES;
+        try {
+            if (spill == null) {
+                spillFile = Files.createTempFile(spillDirectory, "lineage", ".log");
+                spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                spillBuffer = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            spillBuffer.clear();
+            spillBuffer.asLongBuffer().put(chunk.id);
+            spillBuffer.position(CHUNK_RECORDS * Long.BYTES);
+            spillBuffer.asLongBuffer().put(chunk.parentId);
+            spillBuffer.position(2 * CHUNK_RECORDS * Long.BYTES);
+            spillBuffer.asIntBuffer().put(chunk.birthYear);
+            spillBuffer.position(CHUNK_RECORDS * (2 * Long.BYTES + Integer.BYTES));
+            spillBuffer.asDoubleBuffer().put(chunk.mutationRate);
+            spillBuffer.clear();
+            while (spillBuffer.hasRemaining()) {
+                spill.write(spillBuffer, offset + spillBuffer.position());
+            }
+            spilled[firstChunkInMemory] = spill.map(FileChannel.MapMode.READ_ONLY, offset,
+                    (long) CHUNK_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot spill lineage records to " + spillDirectory, e);
+        }
+        chunks[firstChunkInMemory] = null;
+        firstChunkInMemory++;
+        return chunk;
+    }
+
+    /**
+     * @return the number of records
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of records written to the spill file
+     */
+    public long spilledRecords() {
+        return (long) firstChunkInMemory * CHUNK_RECORDS;
+    }
+
+    public boolean contains(long id) {
+        return locate(id) >= 0;
+    }
+
+    /**
+     * @return the parent id of the given bunny, {@link #NO_PARENT} for a founder
+     * @throws IllegalArgumentException if the id was not recorded
+     */
+    public long getParent(long id) {
+        long record = require(id);
+        int chunk = (int) (record / CHUNK_RECORDS);
+        int index = (int) (record % CHUNK_RECORDS);
+        Chunk heap = chunks[chunk];
+        return heap != null ? heap.parentId[index] : spilled[chunk].getLong((CHUNK_RECORDS + index) * Long.BYTES);
+    }
+
+    public int getBirthYear(long id) {
+        long record = require(id);
+        int chunk = (int) (record / CHUNK_RECORDS);
+        int index = (int) (record % CHUNK_RECORDS);
+        Chunk heap = chunks[chunk];
+        return heap != null ? heap.birthYear[index]
+                : spilled[chunk].getInt(2 * CHUNK_RECORDS * Long.BYTES + index * Integer.BYTES);
+    }
+
+    public double getMutationRate(long id) {
+        long record = require(id);
+        int chunk = (int) (record / CHUNK_RECORDS);
+        int index = (int) (record % CHUNK_RECORDS);
+        Chunk heap = chunks[chunk];
+        return heap != null ? heap.mutationRate[index]
+                : spilled[chunk].getDouble(CHUNK_RECORDS * (2 * Long.BYTES + Integer.BYTES) + index * Double.BYTES);
+    }
+
+    /**
+     * Lists the ancestors of a bunny, from its parent up to its founder.
+     *
+     * @return the ids of the recorded ancestors, nearest first
+     */
+    public long[] ancestors(long id) {
+        long[] ancestors = new long[16];
+        int count = 0;
+        for (long parent = getParent(id); parent != NO_PARENT && contains(parent); parent = getParent(parent)) {
+            if (count == ancestors.length) {
+                ancestors = Arrays.copyOf(ancestors, count * 2);
+            }
+            ancestors[count++] = parent;
+        }
+        return Arrays.copyOf(ancestors, count);
+    }
+
+    /**
+     * Finds the most recent common ancestor of two bunnies. A bunny counts as its own ancestor, so the result is one
+     * of the two when it descends from the other.
+     *
+     * @return the id of the most recent common ancestor, or {@link #NO_PARENT} if the two descend from different
+     * founders
+     */
+    public long mostRecentCommonAncestor(long first, long second) {
+        require(first);
+        require(second);
+        // A parent is always older than its offspring, so stepping up from the younger of the two meets the ancestor.
+        while (first != second) {
+            if (first > second) {
+                first = getParent(first);
+            } else {
+                second = getParent(second);
+            }
+            if (first == NO_PARENT || second == NO_PARENT || !contains(first) || !contains(second)) {
+                return NO_PARENT;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Visits every recorded descendant of a bunny, in order of birth, with one scan over the records born after it.
+     *
+     * @param id the id of the ancestor
+     * @param visitor receives the id of every descendant
+     * @return the number of descendants
+     */
+    public long forEachDescendant(long id, LongConsumer visitor) {
+        long start = require(id);
+        BitSet lineage = new BitSet();
+        lineage.set(0);
+        long descendants = 0;
+        for (long record = start + 1; record < size; record++) {
+            int chunk = (int) (record / CHUNK_RECORDS);
+            int index = (int) (record % CHUNK_RECORDS);
+            Chunk heap = chunks[chunk];
+            long parent = heap != null ? heap.parentId[index]
+                    : spilled[chunk].getLong((CHUNK_RECORDS + index) * Long.BYTES);
+            if (parent >= id && lineage.get(offset(parent - id))) {
+                long child = heap != null ? heap.id[index] : spilled[chunk].getLong(index * Long.BYTES);
+                lineage.set(offset(child - id));
+                visitor.accept(child);
+                descendants++;
+            }
+        }
+        return descendants;
+    }
+
+    /**
+     * Decides whether the lineage of a bunny has died out: neither the bunny nor any of its recorded descendants is
+     * still alive in the population.
+     *
+     * @param id the id of the ancestor
+     * @param population the population whose living bunnies are checked
+     * @return whether no living bunny descends from the given one
+     */
+    public boolean isExtinct(long id, BunnyPopulation population) {
+        BitSet lineage = new BitSet();
+        lineage.set(0);
+        forEachDescendant(id, descendant -> lineage.set(offset(descendant - id)));
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (population.isOccupied(slot) && population.isAlive(slot)) {
+                long living = population.getId(slot);
+                if (living >= id && living - id <= Integer.MAX_VALUE && lineage.get(offset(living - id))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int offset(long distance) {
+        if (distance > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Lineage spans more than " + Integer.MAX_VALUE + " ids");
+        }
+        return (int) distance;
+    }
+
+    private long lastId() {
+        Chunk last = chunks[chunkCount - 1];
+        return last.id[last.count - 1];
+    }
+
+    private long require(long id) {
+        long record = locate(id);
+        if (record < 0) {
+            throw new IllegalArgumentException("No lineage record for id " + id);
+        }
+        return record;
+    }
+
+    /**
+     * @return the index of the record with the given id, or -1 if it was not recorded
+     */
+    private long locate(long id) {
+        if (size == 0 || id < firstIds[0]) {
+            return -1;
+        }
+        int chunk = Arrays.binarySearch(firstIds, 0, chunkCount, id);
+        if (chunk < 0) {
+            chunk = -chunk - 2;
+        }
+        int index;
+        Chunk heap = chunks[chunk];
+        if (heap != null) {
+            index = Arrays.binarySearch(heap.id, 0, heap.count, id);
+        } else {
+            ByteBuffer buffer = spilled[chunk];
+            int low = 0;
+            int high = CHUNK_RECORDS - 1;
+            index = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long value = buffer.getLong(middle * Long.BYTES);
+                if (value < id) {
+                    low = middle + 1;
+                } else if (value > id) {
+                    high = middle - 1;
+                } else {
+                    index = middle;
+                    break;
+                }
+            }
+        }
+        return index < 0 ? -1 : (long) chunk * CHUNK_RECORDS + index;
+    }
+
+    /**
+     * Releases the mapped chunks and deletes the spill file.
+     */
+    @Override
+    public void close() throws IOException {
+        chunks = new Chunk[0];
+        spilled = new ByteBuffer[0];
+        firstIds = new long[0];
+        chunkCount = 0;
+        firstChunkInMemory = 0;
+        size = 0;
+        if (spill != null) {
+            spill.close();
+            spill = null;
+            Files.deleteIfExists(spillFile);
+            spillFile = null;
+        }
+    }
+}
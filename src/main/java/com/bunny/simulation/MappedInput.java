@@ -0,0 +1,135 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads primitive values and arrays written by {@link MappedOutput} through memory-mapped windows, or directly from
+ * the bytes of a memory output.
+ */
+final class MappedInput implements Closeable {
+    private static final int WINDOW_SIZE = 1 << 28;
+    private static final int BOOLEAN_BATCH = 1 << 16;
+
+    private final FileChannel channel;
+    private final long size;
+    private ByteBuffer window;
+    private long windowStart;
+    private byte[] booleanBatch;
+
+    MappedInput(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    /**
+     * Reads the bytes of a {@link MappedOutput#toByteArray() memory output}.
+     */
+    MappedInput(byte[] bytes) {
+        this.channel = null;
+        this.size = bytes.length;
+        this.window = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    int getInt() throws IOException {
+        return ensure(Integer.BYTES).getInt();
+    }
+
+    long getLong() throws IOException {
+        return ensure(Long.BYTES).getLong();
+    }
+
+    double getDouble() throws IOException {
+        return ensure(Double.BYTES).getDouble();
+    }
+
+    void getInts(int[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(Integer.BYTES);
+            int count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    void getLongs(long[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(Long.BYTES);
+            int count = Math.min(length - offset, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+        }
+    }
+
+    void getDoubles(double[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(Double.BYTES);
+            int count = Math.min(length - offset, buffer.remaining() / Double.BYTES);
+            buffer.asDoubleBuffer().get(values, offset, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            offset += count;
+        }
+    }
+
+    /**
+     * Reads {@code length} bytes into the start of a buffer, independent of its position and byte order.
+     */
+    void getBytes(ByteBuffer target, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(1);
+            int count = Math.min(length - offset, buffer.remaining());
+            target.put(offset, buffer, buffer.position(), count);
+            buffer.position(buffer.position() + count);
+            offset += count;
+        }
+    }
+
+    void getBooleans(boolean[] values, int length) throws IOException {
+        if (booleanBatch == null) {
+            booleanBatch = new byte[BOOLEAN_BATCH];
+        }
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(1);
+            int count = Math.min(Math.min(length - offset, buffer.remaining()), BOOLEAN_BATCH);
+            buffer.get(booleanBatch, 0, count);
+            for (int i = 0; i < count; i++) {
+                values[offset + i] = booleanBatch[i] != 0;
+            }
+            offset += count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private ByteBuffer ensure(int bytes) throws IOException {
+        if (window == null || window.remaining() < bytes) {
+            long position = window == null ? 0 : windowStart + window.position();
+            if (position + bytes > size || channel == null) {
+                throw new EOFException("Checkpoint ends at byte " + size + ", expected " + bytes + " more at " + position);
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = position;
+        }
+        return window;
+    }
+}
@@ -0,0 +1,165 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes primitive values and arrays to a file through memory-mapped windows.
+ *
+ * <p>Each window is mapped at the current position, so values never straddle two windows and files larger than
+ * a single mapping can be written. Arrays are copied into the mapping in bulk. Values are little-endian.</p>
+ *
+ * <p>Without a file, values are written to a growing heap buffer instead, see {@link #toByteArray()}.</p>
+ */
+final class MappedOutput implements Closeable {
+    private static final int WINDOW_SIZE = 1 << 28;
+    private static final int BOOLEAN_BATCH = 1 << 16;
+
+    private final FileChannel channel;
+    private ByteBuffer window;
+    private long windowStart;
+    private byte[] booleanBatch;
+
+    MappedOutput(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes to memory, in the same format as to a file.
+     */
+    MappedOutput() {
+        this.channel = null;
+        this.window = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void putInt(int value) throws IOException {
+        ensure(Integer.BYTES).putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+        ensure(Long.BYTES).putLong(value);
+    }
+
+    void putDouble(double value) throws IOException {
+        ensure(Double.BYTES).putDouble(value);
+    }
+
+    void putInts(int[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(Integer.BYTES);
+            int count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    void putLongs(long[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(Long.BYTES);
+            int count = Math.min(length - offset, buffer.remaining() / Long.BYTES);
+            buffer.asLongBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            offset += count;
+        }
+    }
+
+    void putDoubles(double[] values, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(Double.BYTES);
+            int count = Math.min(length - offset, buffer.remaining() / Double.BYTES);
+            buffer.asDoubleBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            offset += count;
+        }
+    }
+
+    void putBooleans(boolean[] values, int length) throws IOException {
+        if (booleanBatch == null) {
+            booleanBatch = new byte[BOOLEAN_BATCH];
+        }
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(1);
+            int count = Math.min(Math.min(length - offset, buffer.remaining()), BOOLEAN_BATCH);
+            for (int i = 0; i < count; i++) {
+                booleanBatch[i] = values[offset + i] ? (byte) 1 : (byte) 0;
+            }
+            buffer.put(booleanBatch, 0, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * Copies the first {@code length} bytes of a buffer, independent of its position and byte order.
+     */
+    void putBytes(ByteBuffer source, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            ByteBuffer buffer = ensure(1);
+            int count = Math.min(length - offset, buffer.remaining());
+            buffer.put(buffer.position(), source, offset, count);
+            buffer.position(buffer.position() + count);
+            offset += count;
+        }
+    }
+
+    /**
+     * @return the number of bytes written so far
+     */
+    long position() {
+        return window == null ? 0 : windowStart + window.position();
+    }
+
+    /**
+     * @return a copy of the bytes written to memory
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(window.array(), window.position());
+    }
+
+    /**
+     * Flushes the mapped pages, cuts the file to the bytes written and closes it. Closing a memory output does
+     * nothing.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        long size = position();
+        if (window != null) {
+            ((MappedByteBuffer) window).force();
+            window = null;
+        }
+        channel.truncate(size);
+        channel.close();
+    }
+
+    private ByteBuffer ensure(int bytes) throws IOException {
+        if (channel == null && window.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(window.capacity() * 2, window.position() + bytes));
+            window = grown.order(ByteOrder.LITTLE_ENDIAN).put(window.flip());
+        } else if (window == null || window.remaining() < bytes) {
+            long position = position();
+            if (window != null) {
+                ((MappedByteBuffer) window).force();
+            }
+            window = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(WINDOW_SIZE, bytes));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            windowStart = position;
+        }
+        return window;
+    }
+}
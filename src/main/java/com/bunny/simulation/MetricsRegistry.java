@@ -0,0 +1,75 @@
+package com.bunny.simulation;
+
+/**
+ * Dependency Inversion Principle (DIP): the simulation reports its timings, counters and gauges to this interface,
+ * so any metrics library can be plugged in with a small adapter.
+ *
+ * <p>A simulation without a registry (the default) skips all measuring, including the calls to
+ * {@link System#nanoTime()}. With a registry, every method is called on the thread that runs the simulation, once
+ * per phase, counter or gauge and year, never from inside the per-bunny loops.</p>
+ */
+public interface MetricsRegistry {
+
+    /**
+     * The phases of a simulated year, in the order they run.
+     */
+    enum Phase {
+        RANDOM_EVENT,
+        AGE_AND_REPRODUCE,
+        UPDATE_RESOURCES,
+        ADJUST_HEALTH,
+        REMOVE_DEAD,
+        LISTENERS
+    }
+
+    /**
+     * Events counted during a year.
+     */
+    enum Counter {
+        /** Offspring born in ageing and reproduction or in natural selection. */
+        BIRTHS,
+        /** Offspring whose mutation rate mutated. */
+        MUTATIONS,
+        /** Bunnies that died because they reached the maximum age. */
+        DEATHS_BY_AGE,
+        /** Bunnies that died because their health dropped below the threshold. */
+        DEATHS_BY_HEALTH,
+        /** Bunnies removed from the population. */
+        REMOVALS
+    }
+
+    /**
+     * Values sampled at the end of a year.
+     */
+    enum Gauge {
+        POPULATION,
+        RESOURCES,
+        CARRYING_CAPACITY,
+        /** Bytes allocated by the simulation thread during the year, or -1 if the JVM cannot measure it. */
+        ALLOCATED_BYTES
+    }
+
+    /**
+     * Records the duration of one phase of a year.
+     *
+     * @param phase the phase
+     * @param nanos the duration in nanoseconds
+     */
+    void recordPhase(Phase phase, long nanos);
+
+    /**
+     * Adds to a counter.
+     *
+     * @param counter the counter
+     * @param delta the number of events, not negative
+     */
+    void increment(Counter counter, long delta);
+
+    /**
+     * Sets a gauge to its value at the end of a year.
+     *
+     * @param gauge the gauge
+     * @param value the current value
+     */
+    void setGauge(Gauge gauge, double value);
+}
@@ -0,0 +1,111 @@
+package com.bunny.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A batch of bunnies leaving their population, kept as columns of their traits together with the index of the
+ * population they move to.
+ */
+final class Migrants {
+    private int[] destination = new int[16];
+    private int[] age = new int[16];
+    private int[] generation = new int[16];
+    private double[] health = new double[16];
+    private double[] reproductionRate = new double[16];
+    private double[] mutationRate = new double[16];
+    private int size;
+
+    /**
+     * Lets every living bunny of a population leave it with the given probability, for one of the destinations
+     * chosen at random. The batch is cleared first.
+     *
+     * @param population the population the bunnies leave
+     * @param random the random stream that decides who leaves and where to
+     * @param rate the probability that a living bunny leaves
+     * @param destinations the indices of the populations the bunnies may move to
+     */
+    void collect(BunnyPopulation population, SplittableRandom random, double rate, int[] destinations) {
+        clear();
+        if (destinations.length == 0 || rate <= 0) {
+            return;
+        }
+        int slotLimit = population.slotLimit();
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (population.isOccupied(slot) && population.isAlive(slot) && random.nextDouble() < rate) {
+                leave(population, slot, destinations[random.nextInt(destinations.length)]);
+            }
+        }
+    }
+
+    /**
+     * Copies the traits of a bunny into this batch and removes it from its population.
+     */
+    void leave(BunnyPopulation population, int slot, int destinationIndex) {
+        add(destinationIndex, population.getAge(slot), population.getGeneration(slot), population.getHealth(slot),
+                population.getReproductionRate(slot), population.getMutationRate(slot));
+        population.remove(slot);
+    }
+
+    void add(int destinationIndex, int age, int generation, double health, double reproductionRate,
+             double mutationRate) {
+        if (size == destination.length) {
+            int capacity = size * 2;
+            this.destination = Arrays.copyOf(this.destination, capacity);
+            this.age = Arrays.copyOf(this.age, capacity);
+            this.generation = Arrays.copyOf(this.generation, capacity);
+            this.health = Arrays.copyOf(this.health, capacity);
+            this.reproductionRate = Arrays.copyOf(this.reproductionRate, capacity);
+            this.mutationRate = Arrays.copyOf(this.mutationRate, capacity);
+        }
+        this.destination[size] = destinationIndex;
+        this.age[size] = age;
+        this.generation[size] = generation;
+        this.health[size] = health;
+        this.reproductionRate[size] = reproductionRate;
+        this.mutationRate[size] = mutationRate;
+        size++;
+    }
+
+    /**
+     * Adds the migrant at the given index to its new population.
+     *
+     * @return the slot of the migrant in the population
+     */
+    int arrive(int index, BunnyPopulation population) {
+        return population.insert(age[index], generation[index], health[index], reproductionRate[index],
+                mutationRate[index]);
+    }
+
+    int getDestination(int index) {
+        return destination[index];
+    }
+
+    int getAge(int index) {
+        return age[index];
+    }
+
+    int getGeneration(int index) {
+        return generation[index];
+    }
+
+    double getHealth(int index) {
+        return health[index];
+    }
+
+    double getReproductionRate(int index) {
+        return reproductionRate[index];
+    }
+
+    double getMutationRate(int index) {
+        return mutationRate[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,287 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Keeps the columns of a population outside the Java heap, in direct buffers or in memory-mapped files, see
+ * {@link PopulationStorage#offHeap()} and {@link PopulationStorage#mapped(Path)}.
+ *
+ * <p>Every column is split into chunks of {@link #CHUNK_SLOTS} slots, each one buffer, because a single buffer
+ * holds at most 2 GB. Values are little-endian and booleans are bytes, the same layout as a checkpoint, so columns
+ * are written to and read from checkpoints as bulk byte copies.</p>
+ */
+final class OffHeapStorage extends PopulationStorage {
+    static final int CHUNK_SHIFT = 20;
+    static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+
+    private final Path directory;
+    private final Column age = new Column("age", 2);
+    private final Column generation = new Column("generation", 2);
+    private final Column health = new Column("health", 3);
+    private final Column reproductionRate = new Column("reproductionRate", 3);
+    private final Column mutationRate = new Column("mutationRate", 3);
+    private final Column alive = new Column("alive", 0);
+    private final Column occupied = new Column("occupied", 0);
+    private final Column id = new Column("id", 3);
+    private final Column freeSlots = new Column("freeSlots", 2);
+    private final Column[] columns = {age, generation, health, reproductionRate, mutationRate, alive, occupied, id,
+            freeSlots};
+    private int capacity;
+
+    /**
+     * @param directory the directory of the column files, or {@code null} for direct buffers
+     */
+    OffHeapStorage(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * One column, as a list of chunks of which all but a lone first chunk hold {@link #CHUNK_SLOTS} slots.
+     */
+    private final class Column {
+        private final String name;
+        private final int shift;
+        private ByteBuffer[] chunks = new ByteBuffer[0];
+        private FileChannel channel;
+
+        Column(String name, int shift) {
+            this.name = name;
+            this.shift = shift;
+        }
+
+        void grow(int capacity) throws IOException {
+            int chunkCount = (int) (((long) capacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+            if (chunkCount > chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount);
+            }
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                // Direct memory is allocated as needed while the column fits one chunk; files are sparse.
+                int slots = directory == null && chunkCount == 1 ? capacity : CHUNK_SLOTS;
+                if (chunks[chunk] == null || chunks[chunk].capacity() < slots << shift) {
+                    chunks[chunk] = allocate(chunk, slots, chunks[chunk]);
+                }
+            }
+        }
+
+        private ByteBuffer allocate(int chunk, int slots, ByteBuffer previous) throws IOException {
+            ByteBuffer buffer;
+            if (directory == null) {
+                buffer = ByteBuffer.allocateDirect(slots << shift);
+                if (previous != null) {
+                    buffer.put(0, previous, 0, previous.capacity());
+                }
+            } else {
+                if (channel == null) {
+                    channel = FileChannel.open(file(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunk << (CHUNK_SHIFT + shift),
+                        (long) slots << shift);
+            }
+            return buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private Path file() {
+            return directory.resolve(name + ".column");
+        }
+
+        int getInt(int slot) {
+            return chunks[slot >>> CHUNK_SHIFT].getInt((slot & CHUNK_MASK) << 2);
+        }
+
+        void putInt(int slot, int value) {
+            chunks[slot >>> CHUNK_SHIFT].putInt((slot & CHUNK_MASK) << 2, value);
+        }
+
+        long getLong(int slot) {
+            return chunks[slot >>> CHUNK_SHIFT].getLong((slot & CHUNK_MASK) << 3);
+        }
+
+        void putLong(int slot, long value) {
+            chunks[slot >>> CHUNK_SHIFT].putLong((slot & CHUNK_MASK) << 3, value);
+        }
+
+        double getDouble(int slot) {
+            return chunks[slot >>> CHUNK_SHIFT].getDouble((slot & CHUNK_MASK) << 3);
+        }
+
+        void putDouble(int slot, double value) {
+            chunks[slot >>> CHUNK_SHIFT].putDouble((slot & CHUNK_MASK) << 3, value);
+        }
+
+        boolean getBoolean(int slot) {
+            return chunks[slot >>> CHUNK_SHIFT].get(slot & CHUNK_MASK) != 0;
+        }
+
+        void putBoolean(int slot, boolean value) {
+            chunks[slot >>> CHUNK_SHIFT].put(slot & CHUNK_MASK, value ? (byte) 1 : (byte) 0);
+        }
+
+        void write(MappedOutput out, int count) throws IOException {
+            for (int chunk = 0; (long) chunk << CHUNK_SHIFT < count; chunk++) {
+                int slots = Math.min(count - (chunk << CHUNK_SHIFT), CHUNK_SLOTS);
+                out.putBytes(chunks[chunk], slots << shift);
+            }
+        }
+
+        void read(MappedInput in, int count) throws IOException {
+            for (int chunk = 0; (long) chunk << CHUNK_SHIFT < count; chunk++) {
+                int slots = Math.min(count - (chunk << CHUNK_SHIFT), CHUNK_SLOTS);
+                in.getBytes(chunks[chunk], slots << shift);
+            }
+        }
+
+        void close() throws IOException {
+            chunks = new ByteBuffer[0];
+            if (channel != null) {
+                channel.close();
+                channel = null;
+                Files.deleteIfExists(file());
+            }
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    void grow(int capacity) {
+        if (capacity <= this.capacity) {
+            return;
+        }
+        try {
+            for (Column column : columns) {
+                column.grow(capacity);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot map " + capacity + " slots in " + directory, e);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    int getAge(int slot) {
+        return age.getInt(slot);
+    }
+
+    @Override
+    void setAge(int slot, int age) {
+        this.age.putInt(slot, age);
+    }
+
+    @Override
+    int getGeneration(int slot) {
+        return generation.getInt(slot);
+    }
+
+    @Override
+    void setGeneration(int slot, int generation) {
+        this.generation.putInt(slot, generation);
+    }
+
+    @Override
+    double getHealth(int slot) {
+        return health.getDouble(slot);
+    }
+
+    @Override
+    void setHealth(int slot, double health) {
+        this.health.putDouble(slot, health);
+    }
+
+    @Override
+    double getReproductionRate(int slot) {
+        return reproductionRate.getDouble(slot);
+    }
+
+    @Override
+    void setReproductionRate(int slot, double reproductionRate) {
+        this.reproductionRate.putDouble(slot, reproductionRate);
+    }
+
+    @Override
+    double getMutationRate(int slot) {
+        return mutationRate.getDouble(slot);
+    }
+
+    @Override
+    void setMutationRate(int slot, double mutationRate) {
+        this.mutationRate.putDouble(slot, mutationRate);
+    }
+
+    @Override
+    boolean isAlive(int slot) {
+        return alive.getBoolean(slot);
+    }
+
+    @Override
+    void setAlive(int slot, boolean alive) {
+        this.alive.putBoolean(slot, alive);
+    }
+
+    @Override
+    boolean isOccupied(int slot) {
+        return occupied.getBoolean(slot);
+    }
+
+    @Override
+    void setOccupied(int slot, boolean occupied) {
+        this.occupied.putBoolean(slot, occupied);
+    }
+
+    @Override
+    long getId(int slot) {
+        return id.getLong(slot);
+    }
+
+    @Override
+    void setId(int slot, long id) {
+        this.id.putLong(slot, id);
+    }
+
+    @Override
+    int getFreeSlot(int index) {
+        return freeSlots.getInt(index);
+    }
+
+    @Override
+    void setFreeSlot(int index, int slot) {
+        freeSlots.putInt(index, slot);
+    }
+
+    @Override
+    void write(MappedOutput out, int slotLimit, int freeCount) throws IOException {
+        for (Column column : columns) {
+            column.write(out, column == freeSlots ? freeCount : slotLimit);
+        }
+    }
+
+    @Override
+    void read(MappedInput in, int slotLimit, int freeCount) throws IOException {
+        for (Column column : columns) {
+            column.read(in, column == freeSlots ? freeCount : slotLimit);
+        }
+    }
+
+    /**
+     * Releases the columns. Direct memory is returned once the buffers are garbage collected; column files are
+     * deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Column column : columns) {
+            column.close();
+        }
+        capacity = 0;
+    }
+}
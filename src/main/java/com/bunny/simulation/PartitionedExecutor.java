@@ -0,0 +1,136 @@
+package com.bunny.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Single Responsibility Principle (SRP): PartitionedExecutor splits a slot range into fixed-size chunks and runs
+ * a task on each chunk, either one after another or on a fork-join pool.
+ *
+ * <p>The chunk layout depends only on the chunk size, never on the parallelism. Work that keeps its
+ * per-chunk results separate and merges them in chunk order therefore produces the same outcome whether
+ * the chunks run on one thread or on many.</p>
+ */
+public class PartitionedExecutor {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    private final int parallelism;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * A task that processes the slots {@code [fromSlot, toSlot)} of one chunk.
+     */
+    @FunctionalInterface
+    public interface ChunkTask {
+        void run(int chunk, int fromSlot, int toSlot);
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param parallelism the number of threads to use; 1 runs every chunk on the calling thread
+     * @param chunkSize the number of slots per chunk
+     */
+    public PartitionedExecutor(int parallelism, int chunkSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * @param slotLimit the exclusive upper bound of the slot range
+     * @return the number of chunks the range {@code [0, slotLimit)} is split into
+     */
+    public int chunkCount(int slotLimit) {
+        return slotLimit == 0 ? 0 : (slotLimit - 1) / chunkSize + 1;
+    }
+
+    /**
+     * Runs the task once for every chunk of {@code [0, slotLimit)} and returns when all chunks are done.
+     *
+     * @param slotLimit the exclusive upper bound of the slot range
+     * @param task the task to run per chunk
+     */
+    public void forEachChunk(int slotLimit, ChunkTask task) {
+        int chunks = chunkCount(slotLimit);
+        if (pool == null || pool.isShutdown() || chunks <= 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                runChunk(task, chunk, slotLimit);
+            }
+        } else {
+            pool.invoke(new IndexAction(chunk -> runChunk(task, chunk, slotLimit), 0, chunks));
+        }
+    }
+
+    /**
+     * Runs the task once for every index in {@code [0, count)} and returns when all indices are done. Used for
+     * work that is partitioned the same way as an earlier {@link #forEachChunk(int, ChunkTask)} call, such as
+     * processing per-chunk buffers.
+     *
+     * @param count the number of indices
+     * @param task the task to run per index
+     */
+    public void forEachIndex(int count, IntConsumer task) {
+        if (pool == null || pool.isShutdown() || count <= 1) {
+            for (int index = 0; index < count; index++) {
+                task.accept(index);
+            }
+        } else {
+            pool.invoke(new IndexAction(task, 0, count));
+        }
+    }
+
+    /**
+     * Stops the worker threads of this executor. Chunks already running are finished. Later calls run every chunk
+     * on the calling thread, which does not change their outcome.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private void runChunk(ChunkTask task, int chunk, int slotLimit) {
+        int fromSlot = chunk * chunkSize;
+        int toSlot = (int) Math.min((long) fromSlot + chunkSize, slotLimit);
+        task.run(chunk, fromSlot, toSlot);
+    }
+
+    private static class IndexAction extends RecursiveAction {
+        private final IntConsumer task;
+        private final int fromIndex;
+        private final int toIndex;
+
+        IndexAction(IntConsumer task, int fromIndex, int toIndex) {
+            this.task = task;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex == 1) {
+                task.accept(fromIndex);
+                return;
+            }
+            int middle = (fromIndex + toIndex) >>> 1;
+            invokeAll(new IndexAction(task, fromIndex, middle), new IndexAction(task, middle, toIndex));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a {@link SimulationCheckpoint} of a simulation every given number of years.
+ *
+ * <p>Checkpoints are named {@code checkpoint-<year>.bin} after the year they were taken at the end of. Only the
+ * most recent checkpoints are kept when a limit is set. A failed write stops the simulation with an
+ * {@link UncheckedIOException}, rather than letting a long run continue without the checkpoints it relies on.</p>
+ *
+ * <pre>{@code
+ * Simulation simulation = new Simulation(10_000_000, 10_000_000, 42L);
+ * simulation.addYearListener(new PeriodicCheckpoint(simulation, Path.of("checkpoints"), 50, 2));
+ * simulation.runSimulation(1000);
+ * }</pre>
+ */
+public class PeriodicCheckpoint implements YearListener {
+    private final Simulation simulation;
+    private final Path directory;
+    private final int everyYears;
+    private final int keep;
+
+    /**
+     * @param simulation the simulation to checkpoint
+     * @param directory the directory to write checkpoints to, created if missing
+     * @param everyYears the number of years between checkpoints
+     * @param keep the number of most recent checkpoints to keep, or 0 to keep all
+     */
+    public PeriodicCheckpoint(Simulation simulation, Path directory, int everyYears, int keep) {
+        if (everyYears < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 year: " + everyYears);
+        }
+        this.simulation = simulation;
+        this.directory = directory;
+        this.everyYears = everyYears;
+        this.keep = keep;
+    }
+
+    @Override
+    public void yearCompleted(int year, SimulationEngine engine) {
+        int completedYears = year + 1;
+        if (completedYears % everyYears != 0) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            SimulationCheckpoint.write(simulation, checkpointFile(year));
+            if (keep > 0) {
+                Files.deleteIfExists(checkpointFile(year - keep * everyYears));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the checkpoint of year " + year, e);
+        }
+    }
+
+    /**
+     * @param year the year a checkpoint was taken at the end of
+     * @return the file of that checkpoint
+     */
+    public Path checkpointFile(int year) {
+        return directory.resolve("checkpoint-" + year + ".bin");
+    }
+}
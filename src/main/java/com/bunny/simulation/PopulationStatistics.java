@@ -0,0 +1,199 @@
+package com.bunny.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Single Responsibility Principle (SRP): PopulationStatistics keeps aggregates over the living bunnies of a
+ * {@link BunnyPopulation} up to date as bunnies are born, age, change health, die and are removed.
+ *
+ * <p>It holds the number of living bunnies, their age and generation histograms, and sums and sums of squares of
+ * their health, reproduction rate and mutation rate. Counts, means and variances are therefore answered in constant
+ * time, without scanning the population.</p>
+ *
+ * <p>The population updates its statistics on every change made through its public methods. Parallel passes of the
+ * yearly tick record the changes of each chunk in a statistics object of their own, which holds differences
+ * rather than totals and is then merged into the population's statistics with {@link #merge}, in chunk order.</p>
+ */
+public class PopulationStatistics {
+    private long aliveCount;
+    private long[] ageCounts = new long[Bunny.MAX_AGE + 1];
+    private long[] generationCounts = new long[16];
+    private long ageSum;
+    private long generationSum;
+    private double healthSum;
+    private double healthSquareSum;
+    private double reproductionRateSum;
+    private double reproductionRateSquareSum;
+    private double mutationRateSum;
+    private double mutationRateSquareSum;
+
+    /**
+     * Records a living bunny that joins the population.
+     */
+    void add(int age, int generation, double health, double reproductionRate, double mutationRate) {
+        update(age, generation, health, reproductionRate, mutationRate, 1);
+    }
+
+    /**
+     * Records a living bunny that dies or leaves the population, with the traits it had until then.
+     */
+    void remove(int age, int generation, double health, double reproductionRate, double mutationRate) {
+        update(age, generation, health, reproductionRate, mutationRate, -1);
+    }
+
+    private void update(int age, int generation, double health, double reproductionRate, double mutationRate,
+                        int sign) {
+        aliveCount += sign;
+        ageCounts = ensure(ageCounts, age);
+        ageCounts[age] += sign;
+        ageSum += (long) sign * age;
+        generationCounts = ensure(generationCounts, generation);
+        generationCounts[generation] += sign;
+        generationSum += (long) sign * generation;
+        healthSum += sign * health;
+        healthSquareSum += sign * health * health;
+        reproductionRateSum += sign * reproductionRate;
+        reproductionRateSquareSum += sign * reproductionRate * reproductionRate;
+        mutationRateSum += sign * mutationRate;
+        mutationRateSquareSum += sign * mutationRate * mutationRate;
+    }
+
+    /**
+     * Records that a living bunny changed its age.
+     */
+    void changeAge(int from, int to) {
+        ageCounts = ensure(ageCounts, Math.max(from, to));
+        ageCounts[from]--;
+        ageCounts[to]++;
+        ageSum += to - from;
+    }
+
+    /**
+     * Records that a living bunny changed its health.
+     */
+    void changeHealth(double from, double to) {
+        healthSum += to - from;
+        healthSquareSum += to * to - from * from;
+    }
+
+    /**
+     * Records that {@code count} living bunnies with a total health of {@code healthSum} each changed their health
+     * by {@code delta}.
+     */
+    void shiftHealth(long count, double healthSum, double delta) {
+        this.healthSum += count * delta;
+        this.healthSquareSum += 2 * delta * healthSum + count * delta * delta;
+    }
+
+    /**
+     * Adds the changes recorded in another statistics object to this one.
+     */
+    void merge(PopulationStatistics changes) {
+        aliveCount += changes.aliveCount;
+        ageCounts = ensure(ageCounts, changes.ageCounts.length - 1);
+        for (int age = 0; age < changes.ageCounts.length; age++) {
+            ageCounts[age] += changes.ageCounts[age];
+        }
+        generationCounts = ensure(generationCounts, changes.generationCounts.length - 1);
+        for (int generation = 0; generation < changes.generationCounts.length; generation++) {
+            generationCounts[generation] += changes.generationCounts[generation];
+        }
+        ageSum += changes.ageSum;
+        generationSum += changes.generationSum;
+        healthSum += changes.healthSum;
+        healthSquareSum += changes.healthSquareSum;
+        reproductionRateSum += changes.reproductionRateSum;
+        reproductionRateSquareSum += changes.reproductionRateSquareSum;
+        mutationRateSum += changes.mutationRateSum;
+        mutationRateSquareSum += changes.mutationRateSquareSum;
+    }
+
+    /**
+     * Resets all aggregates to those of an empty population.
+     */
+    void clear() {
+        aliveCount = 0;
+        Arrays.fill(ageCounts, 0);
+        Arrays.fill(generationCounts, 0);
+        ageSum = 0;
+        generationSum = 0;
+        healthSum = 0;
+        healthSquareSum = 0;
+        reproductionRateSum = 0;
+        reproductionRateSquareSum = 0;
+        mutationRateSum = 0;
+        mutationRateSquareSum = 0;
+    }
+
+    private static long[] ensure(long[] counts, int index) {
+        return index < counts.length ? counts : Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+    }
+
+    /**
+     * @return the number of living bunnies
+     */
+    public long getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * @return the number of living bunnies of the given age
+     */
+    public long getAgeCount(int age) {
+        return age < ageCounts.length ? ageCounts[age] : 0;
+    }
+
+    /**
+     * @return the number of living bunnies of the given generation
+     */
+    public long getGenerationCount(int generation) {
+        return generation < generationCounts.length ? generationCounts[generation] : 0;
+    }
+
+    public double getMeanAge() {
+        return mean(ageSum);
+    }
+
+    public double getMeanGeneration() {
+        return mean(generationSum);
+    }
+
+    public double getMeanHealth() {
+        return mean(healthSum);
+    }
+
+    public double getHealthVariance() {
+        return variance(healthSum, healthSquareSum);
+    }
+
+    public double getMeanReproductionRate() {
+        return mean(reproductionRateSum);
+    }
+
+    public double getReproductionRateVariance() {
+        return variance(reproductionRateSum, reproductionRateSquareSum);
+    }
+
+    public double getMeanMutationRate() {
+        return mean(mutationRateSum);
+    }
+
+    public double getMutationRateVariance() {
+        return variance(mutationRateSum, mutationRateSquareSum);
+    }
+
+    private double mean(double sum) {
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    /**
+     * @return the population variance, or 0 if there are no living bunnies
+     */
+    private double variance(double sum, double squareSum) {
+        if (aliveCount == 0) {
+            return 0;
+        }
+        double mean = sum / aliveCount;
+        return Math.max(squareSum / aliveCount - mean * mean, 0);
+    }
+}
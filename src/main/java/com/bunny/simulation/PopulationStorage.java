@@ -0,0 +1,192 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Open/Closed Principle (OCP): PopulationStorage holds the columns of a {@link BunnyPopulation}, so the same
+ * population logic runs on columns kept in Java arrays or in memory outside the Java heap.
+ *
+ * <ul>
+ * <li>{@link #onHeap()} keeps every column in a primitive array. This is the default and the fastest choice while
+ * the population fits comfortably in the heap.</li>
+ * <li>{@link #offHeap()} keeps the columns in direct memory, in chunks of a million slots. The garbage collector
+ * sees a handful of buffer objects however many bunnies there are, so its pauses do not grow with the population.
+ * Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size.</li>
+ * <li>{@link #mapped(Path)} keeps the columns in memory-mapped files in a directory, so the operating system pages
+ * them to disk and the population can be larger than the machine's memory.</li>
+ * </ul>
+ *
+ * <p>A storage belongs to one population. Whoever creates it closes it once the population is no longer used.</p>
+ */
+public abstract class PopulationStorage implements Closeable {
+
+    /**
+     * The most slots a storage holds, the longest array that every JVM can allocate.
+     */
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    PopulationStorage() {
+    }
+
+    public static PopulationStorage onHeap() {
+        return new HeapStorage();
+    }
+
+    public static PopulationStorage offHeap() {
+        return new OffHeapStorage(null);
+    }
+
+    /**
+     * @param directory an existing directory for the column files; they are deleted when the storage is closed
+     */
+    public static PopulationStorage mapped(Path directory) {
+        return new OffHeapStorage(directory);
+    }
+
+    /**
+     * @return the number of slots the columns hold
+     */
+    public abstract int capacity();
+
+    /**
+     * Grows every column to at least the given number of slots, at most {@link #MAX_CAPACITY}, keeping their
+     * contents. New slots are zero.
+     */
+    abstract void grow(int capacity);
+
+    abstract int getAge(int slot);
+
+    abstract void setAge(int slot, int age);
+
+    abstract int getGeneration(int slot);
+
+    abstract void setGeneration(int slot, int generation);
+
+    abstract double getHealth(int slot);
+
+    abstract void setHealth(int slot, double health);
+
+    abstract double getReproductionRate(int slot);
+
+    abstract void setReproductionRate(int slot, double reproductionRate);
+
+    abstract double getMutationRate(int slot);
+
+    abstract void setMutationRate(int slot, double mutationRate);
+
+    abstract boolean isAlive(int slot);
+
+    abstract void setAlive(int slot, boolean alive);
+
+    abstract boolean isOccupied(int slot);
+
+    abstract void setOccupied(int slot, boolean occupied);
+
+    abstract long getId(int slot);
+
+    abstract void setId(int slot, long id);
+
+    /**
+     * @return the entry of the free-slot stack at the given index
+     */
+    abstract int getFreeSlot(int index);
+
+    abstract void setFreeSlot(int index, int slot);
+
+    /**
+     * Changes the health of the living bunnies in the slot range {@code [fromSlot, toSlot)} by the same amount and
+     * records the change in the given statistics. Storages with primitive columns override this with a batch kernel.
+     * The previous health values are summed in the order of {@link HealthKernels}, so both record the same change.
+     */
+    void adjustHealth(int fromSlot, int toSlot, double delta, PopulationStatistics changes) {
+        long count = 0;
+        double sum0 = 0;
+        double sum1 = 0;
+        double sum2 = 0;
+        double sum3 = 0;
+        double sum4 = 0;
+        double sum5 = 0;
+        double sum6 = 0;
+        double sum7 = 0;
+        for (int slot = fromSlot; slot < toSlot; slot += HealthKernels.SUM_LANES) {
+            if (slot < toSlot && isOccupied(slot) && isAlive(slot)) {
+                double health = getHealth(slot);
+                count++;
+                sum0 += health;
+                setHealth(slot, health + delta);
+            }
+            if (slot + 1 < toSlot && isOccupied(slot + 1) && isAlive(slot + 1)) {
+                double health = getHealth(slot + 1);
+                count++;
+                sum1 += health;
+                setHealth(slot + 1, health + delta);
+            }
+            if (slot + 2 < toSlot && isOccupied(slot + 2) && isAlive(slot + 2)) {
+                double health = getHealth(slot + 2);
+                count++;
+                sum2 += health;
+                setHealth(slot + 2, health + delta);
+            }
+            if (slot + 3 < toSlot && isOccupied(slot + 3) && isAlive(slot + 3)) {
+                double health = getHealth(slot + 3);
+                count++;
+                sum3 += health;
+                setHealth(slot + 3, health + delta);
+            }
+            if (slot + 4 < toSlot && isOccupied(slot + 4) && isAlive(slot + 4)) {
+                double health = getHealth(slot + 4);
+                count++;
+                sum4 += health;
+                setHealth(slot + 4, health + delta);
+            }
+            if (slot + 5 < toSlot && isOccupied(slot + 5) && isAlive(slot + 5)) {
+                double health = getHealth(slot + 5);
+                count++;
+                sum5 += health;
+                setHealth(slot + 5, health + delta);
+            }
+            if (slot + 6 < toSlot && isOccupied(slot + 6) && isAlive(slot + 6)) {
+                double health = getHealth(slot + 6);
+                count++;
+                sum6 += health;
+                setHealth(slot + 6, health + delta);
+            }
+            if (slot + 7 < toSlot && isOccupied(slot + 7) && isAlive(slot + 7)) {
+                double health = getHealth(slot + 7);
+                count++;
+                sum7 += health;
+                setHealth(slot + 7, health + delta);
+            }
+        }
+        changes.shiftHealth(count, HealthKernels.combine(sum0, sum1, sum2, sum3, sum4, sum5, sum6, sum7), delta);
+    }
+
+    /**
+     * Calculates the fitness of the bunnies in the slot range {@code [fromSlot, toSlot)} into the array, at their
+     * slots, see {@link BunnyPopulation#calculateFitness(int, double)}.
+     */
+    void calculateFitness(int fromSlot, int toSlot, double resourceFitness, double[] fitness) {
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            // Favor balanced traits
+            double traitFitness = 1.0 / Math.abs(getReproductionRate(slot) - getMutationRate(slot));
+            fitness[slot] = getHealth(slot) * resourceFitness * traitFitness;
+        }
+    }
+
+    /**
+     * Writes the first {@code slotLimit} slots of every column and the first {@code freeCount} free slots in the
+     * checkpoint layout of {@link BunnyPopulation}.
+     */
+    abstract void write(MappedOutput out, int slotLimit, int freeCount) throws IOException;
+
+    /**
+     * Reads columns written by {@link #write}, after the storage has been grown to hold them.
+     */
+    abstract void read(MappedInput in, int slotLimit, int freeCount) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+}
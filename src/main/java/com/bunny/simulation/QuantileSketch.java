@@ -0,0 +1,225 @@
+package com.bunny.simulation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Single Responsibility Principle (SRP): QuantileSketch estimates quantiles of a stream of values in bounded memory.
+ *
+ * <p>The sketch is a stack of compactors. Values enter level 0; when a level holds {@code k} values it is sorted
+ * and every other value moves up one level, where it stands for twice as many original values. Which half moves
+ * up is chosen at random, which keeps the estimate unbiased. The sketch holds at most {@code k} values per level and
+ * about {@code log2(n / k)} levels, and the rank error of a quantile shrinks as {@code k} grows (about 1% for the
+ * default of 200).</p>
+ *
+ * <p>Two sketches with the same {@code k} can be merged, so sketches built on separate threads or for separate
+ * replicas combine into one without revisiting the values.</p>
+ */
+public class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+    private static final long INITIAL_RANDOM_STATE = 0x2545F4914F6CDD1DL;
+
+    private final int k;
+    private double[][] levels;
+    private int[] sizes;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private long randomState = INITIAL_RANDOM_STATE;
+
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Creates an empty sketch.
+     *
+     * @param k the number of values a level holds before it is compacted; an even number of at least 2
+     */
+    public QuantileSketch(int k) {
+        if (k < 2 || k % 2 != 0) {
+            throw new IllegalArgumentException("k must be an even number of at least 2: " + k);
+        }
+        this.k = k;
+        this.levels = new double[1][k];
+        this.sizes = new int[1];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+        append(0, value);
+    }
+
+    /**
+     * Adds all values summarized by another sketch to this one.
+     *
+     * @param other a sketch with the same {@code k}
+     */
+    public void merge(QuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches with k " + k + " and " + other.k);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        for (int level = 0; level < other.sizes.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+    }
+
+    /**
+     * Estimates the value at the given quantile.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated value, or {@code NaN} if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile <= 0) {
+            return min;
+        }
+        if (quantile >= 1) {
+            return max;
+        }
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        long[] weighted = new long[retained];
+        double[] values = new double[retained];
+        int index = 0;
+        long totalWeight = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[index] = levels[level][i];
+                weighted[index++] = level;
+                totalWeight += 1L << level;
+            }
+        }
+        Integer[] order = new Integer[retained];
+        for (int i = 0; i < retained; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double target = quantile * totalWeight;
+        long cumulative = 0;
+        for (Integer i : order) {
+            cumulative += 1L << weighted[i];
+            if (cumulative >= target) {
+                return values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the number of values added to this sketch, including merged sketches
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Empties the sketch, keeping its buffers. A cleared sketch compacts exactly like a new one.
+     */
+    void clear() {
+        Arrays.fill(sizes, 0);
+        randomState = INITIAL_RANDOM_STATE;
+        count = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+    }
+
+    int serializedBytes() {
+        int bytes = 2 * Integer.BYTES + 2 * Long.BYTES + 2 * Double.BYTES;
+        for (int size : sizes) {
+            bytes += Integer.BYTES + size * Double.BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the retained values and the state of the sketch, so that {@link #read(ByteBuffer)} restores a sketch
+     * that answers and merges exactly like this one.
+     */
+    void write(ByteBuffer buffer) {
+        buffer.putInt(k).putLong(count).putDouble(min).putDouble(max).putLong(randomState).putInt(sizes.length);
+        for (int level = 0; level < sizes.length; level++) {
+            buffer.putInt(sizes[level]);
+            for (int i = 0; i < sizes[level]; i++) {
+                buffer.putDouble(levels[level][i]);
+            }
+        }
+    }
+
+    static QuantileSketch read(ByteBuffer buffer) {
+        QuantileSketch sketch = new QuantileSketch(buffer.getInt());
+        sketch.count = buffer.getLong();
+        sketch.min = buffer.getDouble();
+        sketch.max = buffer.getDouble();
+        sketch.randomState = buffer.getLong();
+        int levelCount = buffer.getInt();
+        sketch.levels = new double[levelCount][sketch.k];
+        sketch.sizes = new int[levelCount];
+        for (int level = 0; level < levelCount; level++) {
+            sketch.sizes[level] = buffer.getInt();
+            for (int i = 0; i < sketch.sizes[level]; i++) {
+                sketch.levels[level][i] = buffer.getDouble();
+            }
+        }
+        return sketch;
+    }
+
+    private void append(int level, double value) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            levels[level] = new double[k];
+            sizes = Arrays.copyOf(sizes, level + 1);
+        }
+        if (sizes[level] == k) {
+            compact(level);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private void compact(int level) {
+        double[] values = levels[level];
+        Arrays.sort(values, 0, k);
+        int offset = nextBit();
+        sizes[level] = 0;
+        for (int i = offset; i < k; i += 2) {
+            append(level + 1, values[i]);
+        }
+    }
+
+    private int nextBit() {
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        return (int) (randomState >>> 63);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bunny.simulation;
+
+/**
+ * The random environmental events of {@link Environment#introduceRandomEvent()}.
+ */
+public enum RandomEvent {
+    DROUGHT,
+    ABUNDANCE,
+    DISEASE
+}
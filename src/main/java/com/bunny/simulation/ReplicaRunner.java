@@ -0,0 +1,258 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongFunction;
+
+/**
+ * Single Responsibility Principle (SRP): ReplicaRunner runs many independent replicas of a simulation in one
+ * process and aggregates their yearly results.
+ *
+ * <p>Every replica is created by a factory from a seed of its own, derived from the runner's base seed and the
+ * replica index. Worker threads of a fork-join pool take replica indices in increasing order from a shared counter,
+ * and each replica keeps its state at the end of every year. Finished replicas are recorded into a
+ * {@link ReplicaStatistics}, which keeps running statistics and quantile sketches per year instead of the replicas'
+ * histories, strictly in replica-index order: a replica that finishes early waits until every replica before it has
+ * been recorded. The statistics therefore see the same values in the same order whatever the parallelism and the
+ * scheduling of the threads, so a whole batch is repeatable down to the bit.</p>
+ *
+ * <p>A worker does not start a replica more than {@link #WINDOW_PER_THREAD} times the parallelism ahead of the
+ * oldest replica not yet recorded; it waits for that replica instead. At most that many finished histories wait for
+ * their turn, however many replicas the batch has.</p>
+ *
+ * <pre>{@code
+ * ReplicaRunner runner = new ReplicaRunner(seed -> new Simulation(10, 50, seed), 1000, 20, 42L);
+ * ReplicaStatistics statistics = runner.run();
+ * double meanPopulation = statistics.getStatistics(ReplicaStatistics.Metric.POPULATION, 19).getMean();
+ * }</pre>
+ */
+public class ReplicaRunner {
+    /** The number of replicas per thread that may run ahead of the oldest replica not yet recorded. */
+    public static final int WINDOW_PER_THREAD = 4;
+
+    private final LongFunction<? extends SimulationEngine> factory;
+    private final int replicas;
+    private final int years;
+    private final long baseSeed;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int peakWaitingReplicas;
+
+    /**
+     * Creates a runner.
+     *
+     * @param factory creates a replica from its seed; replicas that are {@link AutoCloseable} are closed once they
+     * have run
+     * @param replicas the number of replicas to run
+     * @param years the number of years to run each replica
+     * @param baseSeed the seed the replica seeds are derived from
+     */
+    public ReplicaRunner(LongFunction<? extends SimulationEngine> factory, int replicas, int years, long baseSeed) {
+        this.factory = factory;
+        this.replicas = replicas;
+        this.years = years;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Sets the number of replicas run at the same time. Defaults to the number of available processors.
+     *
+     * @param parallelism the number of threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs all replicas and returns their aggregated statistics once every replica has finished.
+     *
+     * @return the statistics per year across all replicas
+     */
+    public ReplicaStatistics run() {
+        ReplicaStatistics statistics = new ReplicaStatistics();
+        run(statistics);
+        return statistics;
+    }
+
+    /**
+     * Runs all replicas, recording into the given statistics, which can be read while the replicas are running.
+     * They grow by whole replicas, in replica-index order.
+     *
+     * @param statistics the statistics to record into
+     */
+    public void run(ReplicaStatistics statistics) {
+        InOrderRecorder recorder = new InOrderRecorder(statistics, replicas, WINDOW_PER_THREAD * parallelism);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<Void>> workers = new ArrayList<>();
+            for (int worker = 0; worker < parallelism; worker++) {
+                workers.add(pool.submit(new Worker(recorder)));
+            }
+            for (ForkJoinTask<Void> worker : workers) {
+                worker.join();
+            }
+        } finally {
+            pool.shutdown();
+            peakWaitingReplicas = recorder.peakWaiting;
+        }
+    }
+
+    /**
+     * @return the largest number of finished replicas that waited for their turn to be recorded in the last run
+     */
+    int getPeakWaitingReplicas() {
+        return peakWaitingReplicas;
+    }
+
+    /**
+     * Returns the seed of a replica. The seeds of a batch depend only on the base seed and the replica index.
+     *
+     * @param replica the index of the replica
+     * @return the seed passed to the factory for the replica
+     */
+    public long replicaSeed(int replica) {
+        return new RandomSource(baseSeed).stream(0, replica).nextLong();
+    }
+
+    private void runReplica(int replica, InOrderRecorder recorder) {
+        SimulationEngine engine = factory.apply(replicaSeed(replica));
+        ReplicaHistory history = new ReplicaHistory();
+        try {
+            engine.addYearListener(history);
+            engine.runSimulation(years);
+        } finally {
+            close(engine);
+        }
+        recorder.finished(replica, history);
+    }
+
+    private static void close(SimulationEngine engine) {
+        if (engine instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) engine).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot close a replica", e);
+            }
+        }
+    }
+
+    /**
+     * The yearly states of one replica, kept until the replica's turn to be recorded.
+     */
+    private static final class ReplicaHistory implements YearListener {
+        private int[] years = new int[16];
+        private double[] populations = new double[16];
+        private double[] resources = new double[16];
+        private double[] meanGenerations = new double[16];
+        private int size;
+
+        @Override
+        public void yearCompleted(int year, SimulationEngine engine) {
+            if (size == years.length) {
+                years = Arrays.copyOf(years, size * 2);
+                populations = Arrays.copyOf(populations, size * 2);
+                resources = Arrays.copyOf(resources, size * 2);
+                meanGenerations = Arrays.copyOf(meanGenerations, size * 2);
+            }
+            years[size] = year;
+            populations[size] = engine.getPopulationSize();
+            resources[size] = engine.getEnvironment().getResourceAvailability();
+            meanGenerations[size] = engine.getMeanGeneration();
+            size++;
+        }
+
+        void recordInto(ReplicaStatistics statistics) {
+            for (int i = 0; i < size; i++) {
+                statistics.record(years[i], populations[i], resources[i], meanGenerations[i]);
+            }
+        }
+    }
+
+    /**
+     * Hands out replica indices in increasing order and records finished replicas into the statistics in
+     * replica-index order, keeping the replicas started within a window after the oldest one not yet recorded.
+     */
+    private static final class InOrderRecorder {
+        private final ReplicaStatistics statistics;
+        private final int replicas;
+        private final ReplicaHistory[] waiting;
+        private int claimed;
+        private int next;
+        private int waitingCount;
+        private int peakWaiting;
+        private boolean aborted;
+
+        InOrderRecorder(ReplicaStatistics statistics, int replicas, int window) {
+            this.statistics = statistics;
+            this.replicas = replicas;
+            this.waiting = new ReplicaHistory[window];
+        }
+
+        /**
+         * Takes the next replica to run, waiting while it would be beyond the window.
+         *
+         * @return the index of the replica, or -1 once every replica has been taken or the run was aborted
+         */
+        synchronized int claim() {
+            while (!aborted && claimed < replicas && claimed - next >= waiting.length) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    abort();
+                }
+            }
+            return aborted || claimed >= replicas ? -1 : claimed++;
+        }
+
+        synchronized void finished(int replica, ReplicaHistory history) {
+            waiting[replica % waiting.length] = history;
+            waitingCount++;
+            peakWaiting = Math.max(peakWaiting, waitingCount);
+            int recorded = next;
+            while (next < replicas && waiting[next % waiting.length] != null) {
+                waiting[next % waiting.length].recordInto(statistics);
+                waiting[next % waiting.length] = null;
+                waitingCount--;
+                next++;
+            }
+            if (next > recorded) {
+                notifyAll();
+            }
+        }
+
+        /**
+         * Stops handing out replicas, so that no worker waits for a replica that failed.
+         */
+        synchronized void abort() {
+            aborted = true;
+            notifyAll();
+        }
+    }
+
+    private class Worker extends RecursiveAction {
+        private final InOrderRecorder recorder;
+
+        Worker(InOrderRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                for (int replica = recorder.claim(); replica >= 0; replica = recorder.claim()) {
+                    runReplica(replica, recorder);
+                }
+            } catch (RuntimeException | Error e) {
+                recorder.abort();
+                throw e;
+            }
+        }
+    }
+}
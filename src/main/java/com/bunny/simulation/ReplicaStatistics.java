@@ -0,0 +1,123 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single Responsibility Principle (SRP): ReplicaStatistics aggregates per-year results of many replicas of a
+ * simulation.
+ *
+ * <p>For every year and every {@link Metric}, the values reported by the replicas are folded into a
+ * {@link RunningStatistics} and a {@link QuantileSketch} as they arrive. Memory therefore grows with the number of
+ * years, never with the number of replicas. Recording is thread-safe; each year is locked separately, so replicas
+ * running on different threads rarely wait for each other.</p>
+ */
+public class ReplicaStatistics {
+
+    /**
+     * The per-year quantities aggregated across replicas.
+     */
+    public enum Metric {
+        POPULATION,
+        RESOURCES,
+        MEAN_GENERATION
+    }
+
+    private final int sketchK;
+    private final List<YearAggregate> years = new ArrayList<>();
+
+    private static final class YearAggregate {
+        private final RunningStatistics[] statistics = new RunningStatistics[Metric.values().length];
+        private final QuantileSketch[] sketches = new QuantileSketch[Metric.values().length];
+
+        YearAggregate(int sketchK) {
+            for (int metric = 0; metric < statistics.length; metric++) {
+                statistics[metric] = new RunningStatistics();
+                sketches[metric] = new QuantileSketch(sketchK);
+            }
+        }
+
+        synchronized void record(Metric metric, double value) {
+            statistics[metric.ordinal()].add(value);
+            sketches[metric.ordinal()].add(value);
+        }
+    }
+
+    public ReplicaStatistics() {
+        this(QuantileSketch.DEFAULT_K);
+    }
+
+    /**
+     * @param sketchK the {@code k} of the quantile sketches, see {@link QuantileSketch#QuantileSketch(int)}
+     */
+    public ReplicaStatistics(int sketchK) {
+        this.sketchK = sketchK;
+    }
+
+    /**
+     * Records the state of one replica at the end of a year.
+     *
+     * @param year the index of the year
+     * @param engine the replica
+     */
+    public void record(int year, SimulationEngine engine) {
+        record(year, engine.getPopulationSize(), engine.getEnvironment().getResourceAvailability(),
+                engine.getMeanGeneration());
+    }
+
+    /**
+     * Records the state of one replica at the end of a year from its values.
+     */
+    void record(int year, double population, double resources, double meanGeneration) {
+        YearAggregate aggregate = yearAggregate(year);
+        aggregate.record(Metric.POPULATION, population);
+        aggregate.record(Metric.RESOURCES, resources);
+        aggregate.record(Metric.MEAN_GENERATION, meanGeneration);
+    }
+
+    /**
+     * @return the number of years for which at least one replica has reported
+     */
+    public synchronized int getYears() {
+        return years.size();
+    }
+
+    /**
+     * Returns a copy of the running statistics of a metric in a year.
+     *
+     * @param metric the metric
+     * @param year the index of the year
+     * @return mean, variance and extremes of the metric across the replicas that reached the year
+     */
+    public RunningStatistics getStatistics(Metric metric, int year) {
+        YearAggregate aggregate = yearAggregate(year);
+        RunningStatistics copy = new RunningStatistics();
+        synchronized (aggregate) {
+            copy.merge(aggregate.statistics[metric.ordinal()]);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the quantile sketch of a metric in a year.
+     *
+     * @param metric the metric
+     * @param year the index of the year
+     * @return the distribution of the metric across the replicas that reached the year
+     */
+    public QuantileSketch getQuantiles(Metric metric, int year) {
+        YearAggregate aggregate = yearAggregate(year);
+        QuantileSketch copy = new QuantileSketch(sketchK);
+        synchronized (aggregate) {
+            copy.merge(aggregate.sketches[metric.ordinal()]);
+        }
+        return copy;
+    }
+
+    private synchronized YearAggregate yearAggregate(int year) {
+        while (years.size() <= year) {
+            years.add(new YearAggregate(sketchK));
+        }
+        return years.get(year);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bunny.simulation;
+
+/**
+ * Single Responsibility Principle (SRP): RunningStatistics keeps the count, mean, variance, minimum and maximum of
+ * a stream of values without storing the values.
+ *
+ * <p>Values are added with Welford's update, and two instances are combined with the parallel variant of the same
+ * update, so statistics collected on different threads can be merged exactly.</p>
+ */
+public class RunningStatistics {
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values seen by another instance to this one.
+     *
+     * @param other the statistics to merge into this instance
+     */
+    public void merge(RunningStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the sample variance, or 0 for fewer than two values
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : squaredDeviations / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
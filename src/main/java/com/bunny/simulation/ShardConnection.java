@@ -0,0 +1,197 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * One end of the connection between a {@link ShardCoordinator} and a {@link ShardWorker}.
+ *
+ * <p>Every message is a frame of its length ({@code int}), its type ({@code byte}) and a binary payload. Migrants
+ * travel as a count followed by the traits of each migrant. Buffers grow to the largest message and are reused, so a
+ * year costs one write and one read per message, whatever the number of migrants.</p>
+ */
+final class ShardConnection implements Closeable {
+    /** Coordinator to worker: shard index, shard count, bunnies, capacity, seed, migration rate. */
+    static final byte INIT = 1;
+    /** Coordinator to worker: run one year. */
+    static final byte STEP = 2;
+    /** Worker to coordinator: the state of the shard after the year and its emigrants. */
+    static final byte REPORT = 3;
+    /** Coordinator to worker: the global totals of the year and the shard's immigrants. */
+    static final byte EXCHANGE = 4;
+    /** Coordinator to worker: shut down. */
+    static final byte STOP = 5;
+
+    private static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES;
+    private static final int MIGRANT_BYTES = 3 * Integer.BYTES + 3 * Double.BYTES;
+
+    private final SocketChannel channel;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    private ByteBuffer out = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer in = ByteBuffer.allocate(1 << 16);
+
+    ShardConnection(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        if (channel.getLocalAddress() instanceof InetSocketAddress) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        }
+    }
+
+    static ShardConnection connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(protocolFamily(address));
+        channel.connect(address);
+        return new ShardConnection(channel);
+    }
+
+    static StandardProtocolFamily protocolFamily(SocketAddress address) {
+        return address instanceof UnixDomainSocketAddress ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET;
+    }
+
+    /**
+     * Parses {@code host:port} or {@code unix:path}.
+     */
+    static SocketAddress parseAddress(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(Path.of(address.substring(5)));
+        }
+        int colon = address.lastIndexOf(':');
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    static String formatAddress(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress) {
+            return "unix:" + ((UnixDomainSocketAddress) address).getPath();
+        }
+        InetSocketAddress inet = (InetSocketAddress) address;
+        return inet.getHostString() + ":" + inet.getPort();
+    }
+
+    /**
+     * Starts a message. The returned buffer holds at least {@code payloadBytes} more bytes.
+     */
+    ByteBuffer begin(byte type, int payloadBytes) {
+        if (out.capacity() < HEADER_BYTES + payloadBytes) {
+            out = ByteBuffer.allocate(Math.max(HEADER_BYTES + payloadBytes, out.capacity() * 2));
+        }
+        out.clear();
+        out.putInt(0).put(type);
+        return out;
+    }
+
+    /**
+     * Sends the message started with {@link #begin(byte, int)}.
+     */
+    void send() throws IOException {
+        out.putInt(0, out.position() - Integer.BYTES);
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+
+    void send(byte type) throws IOException {
+        begin(type, 0);
+        send();
+    }
+
+    /**
+     * Receives the next message and checks its type.
+     *
+     * @return the payload of the message
+     * @throws IOException if the connection fails or the message has another type
+     */
+    ByteBuffer receive(byte expectedType) throws IOException {
+        header.clear();
+        readFully(header);
+        header.flip();
+        int length = header.getInt() - Byte.BYTES;
+        byte type = header.get();
+        if (type != expectedType) {
+            throw new IOException("Expected message " + expectedType + " but received " + type);
+        }
+        if (in.capacity() < length) {
+            in = ByteBuffer.allocate(Math.max(length, in.capacity() * 2));
+        }
+        in.clear().limit(length);
+        readFully(in);
+        in.flip();
+        return in;
+    }
+
+    /**
+     * Receives the type of the next message that has no payload.
+     */
+    byte receiveType() throws IOException {
+        header.clear();
+        readFully(header);
+        header.flip();
+        int length = header.getInt() - Byte.BYTES;
+        if (length != 0) {
+            throw new IOException("Unexpected payload of " + length + " bytes");
+        }
+        return header.get();
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("The connection was closed");
+            }
+        }
+    }
+
+    static int migrantBytes(int count) {
+        return Integer.BYTES + count * MIGRANT_BYTES;
+    }
+
+    /**
+     * Writes the migrants of a batch that move to the given destination, or all of them for a destination of -1.
+     */
+    static void putMigrants(ByteBuffer buffer, Migrants migrants, int destination) {
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+        int count = 0;
+        for (int i = 0; i < migrants.size(); i++) {
+            if (destination < 0 || migrants.getDestination(i) == destination) {
+                buffer.putInt(migrants.getDestination(i))
+                        .putInt(migrants.getAge(i))
+                        .putInt(migrants.getGeneration(i))
+                        .putDouble(migrants.getHealth(i))
+                        .putDouble(migrants.getReproductionRate(i))
+                        .putDouble(migrants.getMutationRate(i));
+                count++;
+            }
+        }
+        buffer.putInt(countPosition, count);
+    }
+
+    /**
+     * Reads a batch written by {@link #putMigrants} and appends it to the given migrants.
+     *
+     * @return the number of migrants read
+     */
+    static int getMigrants(ByteBuffer buffer, Migrants migrants) {
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int destination = buffer.getInt();
+            int age = buffer.getInt();
+            int generation = buffer.getInt();
+            migrants.add(destination, age, generation, buffer.getDouble(), buffer.getDouble(), buffer.getDouble());
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
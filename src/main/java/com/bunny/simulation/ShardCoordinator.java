@@ -0,0 +1,340 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single Responsibility Principle (SRP): ShardCoordinator runs a population split into shards, each simulated by a
+ * {@link ShardWorker} in its own process, and keeps the shards in lockstep.
+ *
+ * <p>Every shard owns part of the population and its own {@link Environment}, like a patch of a
+ * {@link SpatialSimulation}, so a run can hold more bunnies than one JVM's heap. The shards form a line, and each
+ * year living bunnies move to an adjacent shard with the migration rate. A year is three rounds of batched binary
+ * messages over TCP or Unix domain sockets: the coordinator tells every worker to step, collects every worker's
+ * report and emigrants, and sends every worker its immigrants and the global totals. No worker starts a year
+ * before all shards have exchanged their migrants.</p>
+ *
+ * <p>Shard seeds and migration decisions are derived from the seed and the shard index, and migrants arrive in
+ * shard order, so the outcome does not depend on where or how fast the workers run.</p>
+ *
+ * <pre>{@code
+ * try (ShardCoordinator coordinator = new ShardCoordinator(4, 100_000, 400_000, 42L)) {
+ *     coordinator.launchLocalWorkers();
+ *     coordinator.start();
+ *     coordinator.runSimulation(50);
+ * }
+ * }</pre>
+ */
+public class ShardCoordinator implements SimulationEngine, Closeable {
+    public static final long DEFAULT_WORKER_EXIT_TIMEOUT_MILLIS = 10_000;
+
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final ShardConnection[] workers;
+    private final int bunniesPerShard;
+    private final int capacityPerShard;
+    private final long seed;
+    private double migrationRate = SpatialSimulation.DEFAULT_MIGRATION_RATE;
+    private final Migrants migrants = new Migrants();
+    private final int[] arrivals;
+    private final List<Process> processes = new ArrayList<>();
+    private long workerExitTimeoutMillis = DEFAULT_WORKER_EXIT_TIMEOUT_MILLIS;
+    private long populationSize;
+    private double meanGeneration;
+    private Environment summary;
+    private int year;
+    private final List<YearListener> yearListeners = new ArrayList<>();
+
+    /**
+     * Listens for workers on an ephemeral loopback TCP port.
+     */
+    public ShardCoordinator(int shards, int bunniesPerShard, int capacityPerShard, long seed) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), shards, bunniesPerShard, capacityPerShard,
+                seed);
+    }
+
+    /**
+     * Listens for workers on the given address.
+     *
+     * @param bindAddress a TCP address, or a {@link UnixDomainSocketAddress} whose file does not exist yet
+     * @param shards the number of shards and workers
+     * @param bunniesPerShard the number of bunnies each shard starts with
+     * @param capacityPerShard the carrying capacity of each shard's environment
+     * @param seed the seed from which the random sources of all shards are derived
+     * @throws IOException if the address cannot be bound
+     */
+    public ShardCoordinator(SocketAddress bindAddress, int shards, int bunniesPerShard, int capacityPerShard,
+                            long seed) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is needed: " + shards);
+        }
+        this.server = ServerSocketChannel.open(ShardConnection.protocolFamily(bindAddress));
+        server.bind(bindAddress, shards);
+        this.address = server.getLocalAddress();
+        this.workers = new ShardConnection[shards];
+        this.arrivals = new int[shards];
+        this.bunniesPerShard = bunniesPerShard;
+        this.capacityPerShard = capacityPerShard;
+        this.seed = seed;
+        this.populationSize = (long) shards * bunniesPerShard;
+        updateSummary(0, populationSize, 0);
+    }
+
+    static long shardSeed(long seed, int shard) {
+        return new RandomSource(seed).stream(0, shard).nextLong();
+    }
+
+    static SplittableRandom migrationStream(long seed, int year, int shard) {
+        return new RandomSource(seed).stream(year + 1L, shard);
+    }
+
+    static int[] neighbours(int shard, int shardCount) {
+        if (shardCount == 1) {
+            return new int[0];
+        }
+        if (shard == 0) {
+            return new int[] {1};
+        }
+        if (shard == shardCount - 1) {
+            return new int[] {shard - 1};
+        }
+        return new int[] {shard - 1, shard + 1};
+    }
+
+    /**
+     * @return the address workers connect to
+     */
+    public SocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Sets the probability with which a living bunny moves to an adjacent shard each year. Must be called before
+     * {@link #start()}.
+     *
+     * @param migrationRate the probability, between 0 and 1
+     */
+    public void setMigrationRate(double migrationRate) {
+        if (migrationRate < 0 || migrationRate > 1) {
+            throw new IllegalArgumentException("The migration rate must be between 0 and 1: " + migrationRate);
+        }
+        this.migrationRate = migrationRate;
+    }
+
+    /**
+     * Sets how long {@link #close()} waits for each worker process started by {@link #launchLocalWorkers()} to exit
+     * before it kills the process.
+     *
+     * @param workerExitTimeoutMillis the time to wait in milliseconds, at least 0
+     */
+    public void setWorkerExitTimeoutMillis(long workerExitTimeoutMillis) {
+        if (workerExitTimeoutMillis < 0) {
+            throw new IllegalArgumentException("The worker exit timeout must not be negative: "
+                    + workerExitTimeoutMillis);
+        }
+        this.workerExitTimeoutMillis = workerExitTimeoutMillis;
+    }
+
+    /**
+     * Starts one worker process per shard on this machine, with the class path of this JVM. The processes stop
+     * when the coordinator is closed.
+     *
+     * @return the started processes
+     * @throws IOException if a process cannot be started
+     */
+    public List<Process> launchLocalWorkers() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int shard = 0; shard < workers.length; shard++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    ShardWorker.class.getName(), ShardConnection.formatAddress(address))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+        return List.copyOf(processes);
+    }
+
+    /**
+     * Waits until one worker per shard has connected and sends each worker its shard.
+     *
+     * @throws IOException if a connection fails
+     */
+    public void start() throws IOException {
+        for (int shard = 0; shard < workers.length; shard++) {
+            workers[shard] = new ShardConnection(server.accept());
+            ByteBuffer init = workers[shard].begin(ShardConnection.INIT, 4 * Integer.BYTES + Long.BYTES
+                    + Double.BYTES);
+            init.putInt(shard)
+                    .putInt(workers.length)
+                    .putInt(bunniesPerShard)
+                    .putInt(capacityPerShard)
+                    .putLong(seed)
+                    .putDouble(migrationRate);
+            workers[shard].send();
+        }
+    }
+
+    /**
+     * Runs all shards for the given number of years, one year at a time in lockstep.
+     *
+     * @param years the number of years to run the simulation
+     * @throws UncheckedIOException if the connection to a worker fails
+     */
+    @Override
+    public void runSimulation(int years) {
+        try {
+            for (int i = 0; i < years; i++) {
+                runYear();
+                int completed = year++;
+                for (int listener = 0; listener < yearListeners.size(); listener++) {
+                    yearListeners.get(listener).yearCompleted(completed, this);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void runYear() throws IOException {
+        for (ShardConnection worker : workers) {
+            worker.send(ShardConnection.STEP);
+        }
+
+        migrants.clear();
+        long size = 0;
+        long capacity = 0;
+        long currentPopulation = 0;
+        double resources = 0;
+        long alive = 0;
+        double generationSum = 0;
+        for (ShardConnection worker : workers) {
+            ByteBuffer report = worker.receive(ShardConnection.REPORT);
+            size += report.getLong();
+            resources += report.getDouble();
+            capacity += report.getInt();
+            currentPopulation += report.getLong();
+            long shardAlive = report.getLong();
+            alive += shardAlive;
+            generationSum += report.getDouble() * shardAlive;
+            ShardConnection.getMigrants(report, migrants);
+        }
+        Arrays.fill(arrivals, 0);
+        for (int i = 0; i < migrants.size(); i++) {
+            arrivals[migrants.getDestination(i)]++;
+            generationSum += migrants.getGeneration(i);
+        }
+        size += migrants.size();
+        alive += migrants.size();
+        currentPopulation += migrants.size();
+
+        for (int shard = 0; shard < workers.length; shard++) {
+            ByteBuffer exchange = workers[shard].begin(ShardConnection.EXCHANGE,
+                    Long.BYTES + Double.BYTES + ShardConnection.migrantBytes(arrivals[shard]));
+            exchange.putLong(size).putDouble(resources);
+            ShardConnection.putMigrants(exchange, migrants, shard);
+            workers[shard].send();
+        }
+
+        populationSize = size;
+        meanGeneration = alive == 0 ? 0 : generationSum / alive;
+        updateSummary(capacity, currentPopulation, resources);
+    }
+
+    private void updateSummary(long capacity, long currentPopulation, double resources) {
+        if (capacity == 0) {
+            capacity = (long) workers.length * capacityPerShard;
+        }
+        summary = new Environment((int) Math.min(capacity, Integer.MAX_VALUE), currentPopulation, resources,
+                new RandomSource(seed));
+    }
+
+    /**
+     * Stops the workers, closes the connections and waits for the worker processes started by
+     * {@link #launchLocalWorkers()}. A worker process that has not exited within the worker exit timeout is killed,
+     * so closing returns even if a worker hangs.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int shard = 0; shard < workers.length; shard++) {
+            if (workers[shard] == null) {
+                continue;
+            }
+            try {
+                workers[shard].send(ShardConnection.STOP);
+                workers[shard].close();
+            } catch (IOException e) {
+                failure = e;
+            }
+            workers[shard] = null;
+        }
+        server.close();
+        if (address instanceof UnixDomainSocketAddress) {
+            Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(workerExitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        processes.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public int getShardCount() {
+        return workers.length;
+    }
+
+    /**
+     * @return the number of bunnies in all shards at the end of the last year
+     */
+    @Override
+    public long getPopulationSize() {
+        return populationSize;
+    }
+
+    /**
+     * Returns a summary of the shards' environments at the end of the last year: the carrying capacity,
+     * population count and resources are totals over all shards. The summary is not used by the simulation.
+     */
+    @Override
+    public Environment getEnvironment() {
+        return summary;
+    }
+
+    @Override
+    public double getMeanGeneration() {
+        return meanGeneration;
+    }
+
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    public void addYearListener(YearListener listener) {
+        yearListeners.add(listener);
+    }
+}
@@ -0,0 +1,130 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single Responsibility Principle (SRP): ShardWorker simulates one shard of a {@link ShardCoordinator}'s
+ * population, in its own process or thread.
+ *
+ * <p>The worker connects to the coordinator and receives the index of its shard and the parameters of the run.
+ * It then owns a {@link Simulation} with its own environment and steps it one year whenever the coordinator says
+ * so. After each year it sends the state of its shard and the bunnies leaving it, and receives the bunnies
+ * arriving from neighbouring shards together with the global totals of the year.</p>
+ *
+ * <p>Usage: {@code java -cp ... com.bunny.simulation.ShardWorker host:port} or {@code ... unix:path}</p>
+ */
+public class ShardWorker {
+    private static final Logger log = LoggerFactory.getLogger(ShardWorker.class);
+
+    private final SocketAddress coordinator;
+    private Simulation simulation;
+    private int shard;
+    private long globalPopulation;
+    private double globalResources;
+
+    /**
+     * @param coordinator the address returned by {@link ShardCoordinator#getAddress()}
+     */
+    public ShardWorker(SocketAddress coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Connects to the coordinator and simulates the shard until the coordinator stops it.
+     *
+     * @throws IOException if the connection fails
+     */
+    public void run() throws IOException {
+        try (ShardConnection connection = ShardConnection.connect(coordinator)) {
+            ByteBuffer init = connection.receive(ShardConnection.INIT);
+            shard = init.getInt();
+            int shardCount = init.getInt();
+            int bunnies = init.getInt();
+            int capacity = init.getInt();
+            long seed = init.getLong();
+            double migrationRate = init.getDouble();
+            simulation = new Simulation(bunnies, capacity, ShardCoordinator.shardSeed(seed, shard));
+            int[] neighbours = ShardCoordinator.neighbours(shard, shardCount);
+            Migrants emigrants = new Migrants();
+            Migrants immigrants = new Migrants();
+            log.debug("Shard {} of {} started", shard, shardCount);
+
+            byte type;
+            while ((type = connection.receiveType()) == ShardConnection.STEP) {
+                int year = simulation.getYear();
+                simulation.runSimulation(1);
+                emigrants.collect(simulation.getPopulation(), ShardCoordinator.migrationStream(seed, year, shard),
+                        migrationRate, neighbours);
+                simulation.getEnvironment().decreasePopulation(emigrants.size());
+                report(connection, emigrants);
+
+                ByteBuffer exchange = connection.receive(ShardConnection.EXCHANGE);
+                globalPopulation = exchange.getLong();
+                globalResources = exchange.getDouble();
+                immigrants.clear();
+                int arrived = ShardConnection.getMigrants(exchange, immigrants);
+                for (int i = 0; i < arrived; i++) {
+                    immigrants.arrive(i, simulation.getPopulation());
+                }
+                simulation.getEnvironment().increasePopulation(arrived);
+            }
+            if (type != ShardConnection.STOP) {
+                throw new IOException("Unexpected message " + type);
+            }
+            log.debug("Shard {} stopped after {} years", shard, simulation.getYear());
+        }
+    }
+
+    private void report(ShardConnection connection, Migrants emigrants) throws IOException {
+        BunnyPopulation population = simulation.getPopulation();
+        PopulationStatistics statistics = population.getStatistics();
+        Environment environment = simulation.getEnvironment();
+        ByteBuffer report = connection.begin(ShardConnection.REPORT,
+                3 * Long.BYTES + 2 * Double.BYTES + Integer.BYTES + ShardConnection.migrantBytes(emigrants.size()));
+        report.putLong(population.size())
+                .putDouble(environment.getResourceAvailability())
+                .putInt(environment.getCarryingCapacity())
+                .putLong(environment.getCurrentPopulation())
+                .putLong(statistics.getAliveCount())
+                .putDouble(statistics.getMeanGeneration());
+        ShardConnection.putMigrants(report, emigrants, -1);
+        connection.send();
+    }
+
+    /**
+     * @return the simulation of this worker's shard, or {@code null} before the coordinator assigned it
+     */
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    /**
+     * @return the population of all shards at the end of the last year, as sent by the coordinator
+     */
+    public long getGlobalPopulation() {
+        return globalPopulation;
+    }
+
+    /**
+     * @return the resources of all shards at the end of the last year, as sent by the coordinator
+     */
+    public double getGlobalResources() {
+        return globalResources;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ShardWorker <host:port | unix:path>");
+            System.exit(2);
+        }
+        new ShardWorker(ShardConnection.parseAddress(args[0])).run();
+    }
+}
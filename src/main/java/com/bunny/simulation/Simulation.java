@@ -0,0 +1,673 @@
+package com.bunny.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import com.bunny.simulation.MetricsRegistry.Counter;
+import com.bunny.simulation.MetricsRegistry.Gauge;
+import com.bunny.simulation.MetricsRegistry.Phase;
+import com.sun.management.ThreadMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single Responsibility Principle (SRP): Each class has a specific responsibility:
+ * Environment manages environmental conditions and resources.
+ * Simulation orchestrates the overall simulation process.
+ * Open/Closed Principle (OCP): The system is designed to allow extension (e.g.,
+ * adding new environmental effects without modifying existing code.
+ * Dependency Inversion Principle (DIP): The Simulation class should not depend directly on the Bunny or Environment classes.
+ * Instead, it should depend on their interfaces, allowing new types of bunnies or environmental
+ * management strategies to be added without modifying the existing application.
+ */
+public class Simulation implements SimulationEngine, AutoCloseable {
+    private Environment environment;
+    private BunnyPopulation population;
+    private RandomSource random;
+    private long yearEpoch;
+    private int year;
+    private final List<YearListener> yearListeners = new ArrayList<>();
+    private PartitionedExecutor executor = new PartitionedExecutor(1, PartitionedExecutor.DEFAULT_CHUNK_SIZE);
+    private SlotBuffer[] parentsByChunk = new SlotBuffer[0];
+    private SlotBuffer[] offspringByChunk = new SlotBuffer[0];
+    private SlotBuffer[] deadByChunk = new SlotBuffer[0];
+    private PopulationStatistics[] changesByChunk = new PopulationStatistics[0];
+    private int[] mutationsByChunk = new int[0];
+    private int[] deathsByAgeByChunk = new int[0];
+    private int[] deathsByHealthByChunk = new int[0];
+    private boolean resourcesAvailable;
+    private double healthDelta;
+    private final SlotBuffer selected = new SlotBuffer();
+    private final PartitionedExecutor.ChunkTask ageTask = this::ageChunk;
+    private final IntConsumer birthTask = this::bearChunk;
+    private final PartitionedExecutor.ChunkTask healthTask = this::adjustHealthChunk;
+    private final PartitionedExecutor.ChunkTask deadTask = this::collectDeadChunk;
+    private double reproductionThreshold = 0.5;
+    private MetricsRegistry metrics;
+    private FitnessIndex fitnessIndex;
+    private LineageLog lineage;
+    private boolean sketchTraits;
+    private TraitSketches[] sketchesByChunk = new TraitSketches[0];
+    private TraitSketches traitSketches;
+    private double[] fitness = new double[0];
+    private static final Logger log = LoggerFactory.getLogger(Simulation.class);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean
+            ? (ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+
+    /**
+     * Initializes a new simulation with a specified number of initial bunnies and a carrying capacity for the environment.
+     *
+     * <p>This constructor creates a new {@code Environment} with the given carrying capacity and populates it
+     * with the specified number of initial bunnies. Each bunny is initialized as part of generation 0.
+     * The environment's population count is also increased accordingly to reflect the number of bunnies added.</p>
+     *
+     * @param initialBunnies the number of bunnies to start the simulation with
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     */
+    public Simulation(int initialBunnies, int carryingCapacity) {
+        this(initialBunnies, carryingCapacity, new RandomSource());
+    }
+
+    /**
+     * Initializes a new simulation whose random draws are all derived from the given seed. Two simulations created
+     * with the same arguments produce the same population year after year, for any parallelism.
+     *
+     * @param initialBunnies the number of bunnies to start the simulation with
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     * @param seed the seed of the simulation's random source
+     */
+    public Simulation(int initialBunnies, int carryingCapacity, long seed) {
+        this(initialBunnies, carryingCapacity, new RandomSource(seed), PopulationStorage.onHeap());
+    }
+
+    /**
+     * Initializes a seeded simulation whose population columns are kept in the given storage, for example outside
+     * the Java heap. The storage does not change the results: the same seed gives the same population in any
+     * storage.
+     *
+     * @param initialBunnies the number of bunnies to start the simulation with
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     * @param seed the seed of the simulation's random source
+     * @param storage an empty storage, closed by the caller once the simulation is no longer used
+     */
+    public Simulation(int initialBunnies, int carryingCapacity, long seed, PopulationStorage storage) {
+        this(initialBunnies, carryingCapacity, new RandomSource(seed), storage);
+    }
+
+    private Simulation(int initialBunnies, int carryingCapacity, RandomSource random) {
+        this(initialBunnies, carryingCapacity, random, PopulationStorage.onHeap());
+    }
+
+    private Simulation(int initialBunnies, int carryingCapacity, RandomSource random, PopulationStorage storage) {
+        this.random = random;
+        environment = new Environment(carryingCapacity, random);
+        population = new BunnyPopulation(initialBunnies, random, storage);
+
+        SplittableRandom stream = random.nextStream();
+        for (int i = 0; i < initialBunnies; i++) {
+            population.add(0, stream);
+            environment.increasePopulation();
+        }
+    }
+
+    /**
+     * Restores a simulation from a checkpoint, see {@link SimulationCheckpoint}.
+     */
+    Simulation(Environment environment, BunnyPopulation population, RandomSource random, int year, int chunkSize) {
+        this.environment = environment;
+        this.population = population;
+        this.random = random;
+        this.year = year;
+        this.executor = new PartitionedExecutor(1, chunkSize);
+    }
+
+    /**
+     * Runs the simulation for a specified number of years, processing events and updating the state of bunnies and the environment each year.
+     *
+     * <p>This method simulates the life cycle of bunnies over a given number of years. For each year, it introduces
+     * a random event, allows bunnies to age and reproduce based on resource availability, updates the environment's
+     * resource state, and adjusts the health of the bunnies. Dead bunnies are removed from the population at the
+     * end of each year, statistics for the year are logged at debug level and the registered {@link YearListener}s
+     * are called. Register a {@link StatisticsSink} to record the statistics of every year.
+     * Years are counted across calls, so running 5 years twice simulates years 0 to 9.</p>
+     *
+     * <p>With a {@link MetricsRegistry} set, the duration of every phase, the births, deaths and mutations of the
+     * year and the population, resources and allocated bytes at its end are reported to the registry.</p>
+     *
+     * @param years the number of years to run the simulation
+     */
+    @Override
+    public void runSimulation(int years) {
+        for (int i = 0; i < years; i++) {
+            long allocatedAtStart = metrics == null ? 0 : allocatedBytes();
+            population.invalidateIndex();
+            long time = startTimer();
+            environment.introduceRandomEvent();
+            time = stopTimer(Phase.RANDOM_EVENT, time);
+            ageAndReproduce();
+            time = stopTimer(Phase.AGE_AND_REPRODUCE, time);
+            environment.updateResources(population.size());
+            time = stopTimer(Phase.UPDATE_RESOURCES, time);
+            adjustHealth();
+            time = stopTimer(Phase.ADJUST_HEALTH, time);
+            removeDeadBunnies();
+            time = stopTimer(Phase.REMOVE_DEAD, time);
+            printYearStats(year);
+            if (metrics != null) {
+                recordGauges(allocatedAtStart);
+                time = System.nanoTime();
+            }
+            int completed = year++;
+            for (int listener = 0; listener < yearListeners.size(); listener++) {
+                yearListeners.get(listener).yearCompleted(completed, this);
+            }
+            stopTimer(Phase.LISTENERS, time);
+        }
+    }
+
+    private long startTimer() {
+        return metrics == null ? 0 : System.nanoTime();
+    }
+
+    private long stopTimer(Phase phase, long start) {
+        if (metrics == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        metrics.recordPhase(phase, now - start);
+        return now;
+    }
+
+    private void recordGauges(long allocatedAtStart) {
+        metrics.setGauge(Gauge.POPULATION, population.size());
+        metrics.setGauge(Gauge.RESOURCES, environment.getResourceAvailability());
+        metrics.setGauge(Gauge.CARRYING_CAPACITY, environment.getCarryingCapacity());
+        long allocated = allocatedBytes();
+        metrics.setGauge(Gauge.ALLOCATED_BYTES, allocated < 0 ? -1 : allocated - allocatedAtStart);
+    }
+
+    /**
+     * @return the bytes allocated so far by the calling thread, or -1 if the JVM cannot measure them. Allocations
+     * of the worker threads of a parallel tick are not included.
+     */
+    private static long allocatedBytes() {
+        return THREADS != null && THREADS.isThreadAllocatedMemoryEnabled()
+                ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Ages every bunny by one year and lets the living bunnies of reproduction age reproduce when enough resources
+     * are available. Parents are collected first and their offspring added afterwards, so newborns are neither aged
+     * nor asked to reproduce in the year they are born.
+     *
+     * <p>Each chunk of the population collects its parents into its own buffer. Slots for the offspring are then
+     * reserved on the calling thread in chunk order, and the offspring of each chunk are initialized in parallel
+     * from a random stream of their own, derived from the year and the chunk index.</p>
+     */
+    private void ageAndReproduce() {
+        resourcesAvailable = environment.getResourceAvailability() > 10;
+        yearEpoch = random.nextEpoch();
+        int chunks = executor.chunkCount(population.slotLimit());
+        ensureChunkBuffers(chunks);
+        executor.forEachChunk(population.slotLimit(), ageTask);
+
+        long births = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            SlotBuffer parents = parentsByChunk[chunk];
+            SlotBuffer offspring = offspringByChunk[chunk];
+            offspring.clear();
+            for (int i = 0; i < parents.size(); i++) {
+                offspring.add(population.reserveSlot());
+            }
+            births += parents.size();
+        }
+        executor.forEachIndex(chunks, birthTask);
+        if (lineage != null) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                SlotBuffer parents = parentsByChunk[chunk];
+                SlotBuffer offspring = offspringByChunk[chunk];
+                for (int i = 0; i < parents.size(); i++) {
+                    recordBirth(parents.get(i), offspring.get(i));
+                }
+            }
+        }
+        mergeChanges(chunks);
+        environment.setCurrentPopulation(population.getStatistics().getAliveCount());
+        if (metrics != null) {
+            recordLifeCycle(chunks, births);
+        }
+    }
+
+    private void recordLifeCycle(int chunks, long births) {
+        long mutations = 0;
+        long deathsByAge = 0;
+        long deathsByHealth = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            mutations += mutationsByChunk[chunk];
+            deathsByAge += deathsByAgeByChunk[chunk];
+            deathsByHealth += deathsByHealthByChunk[chunk];
+        }
+        metrics.increment(Counter.BIRTHS, births);
+        metrics.increment(Counter.MUTATIONS, mutations);
+        metrics.increment(Counter.DEATHS_BY_AGE, deathsByAge);
+        metrics.increment(Counter.DEATHS_BY_HEALTH, deathsByHealth);
+    }
+
+    private void ageChunk(int chunk, int fromSlot, int toSlot) {
+        SlotBuffer parents = parentsByChunk[chunk];
+        parents.clear();
+        PopulationStatistics changes = changesByChunk[chunk];
+        int deathsByAge = 0;
+        int deathsByHealth = 0;
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            if (!population.isOccupied(slot)) {
+                continue;
+            }
+            boolean wasAlive = population.isAlive(slot);
+            population.ageOneYear(slot, changes);
+            if (population.isAlive(slot)) {
+                if (resourcesAvailable && population.canReproduce(slot)) {
+                    parents.add(slot);
+                }
+            } else if (wasAlive) {
+                if (population.getAge(slot) >= Bunny.MAX_AGE) {
+                    deathsByAge++;
+                } else {
+                    deathsByHealth++;
+                }
+            }
+        }
+        deathsByAgeByChunk[chunk] = deathsByAge;
+        deathsByHealthByChunk[chunk] = deathsByHealth;
+    }
+
+    private void bearChunk(int chunk) {
+        SlotBuffer parents = parentsByChunk[chunk];
+        SlotBuffer offspring = offspringByChunk[chunk];
+        SplittableRandom stream = random.stream(yearEpoch, chunk);
+        int mutations = 0;
+        for (int i = 0; i < parents.size(); i++) {
+            if (population.bear(parents.get(i), offspring.get(i), stream, changesByChunk[chunk])) {
+                mutations++;
+            }
+        }
+        mutationsByChunk[chunk] = mutations;
+    }
+
+    /**
+     * Applies the environment's health decline to every living bunny, chunk by chunk.
+     */
+    private void adjustHealth() {
+        healthDelta = -environment.getHealthDecline();
+        int chunks = executor.chunkCount(population.slotLimit());
+        ensureChunkBuffers(chunks);
+        executor.forEachChunk(population.slotLimit(), healthTask);
+        mergeChanges(chunks);
+    }
+
+    private void adjustHealthChunk(int chunk, int fromSlot, int toSlot) {
+        population.adjustHealth(fromSlot, toSlot, healthDelta, changesByChunk[chunk]);
+    }
+
+    /**
+     * Merges the statistics changes recorded by each chunk into the population's statistics, in chunk order.
+     */
+    private void mergeChanges(int chunks) {
+        PopulationStatistics statistics = population.getStatistics();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            statistics.merge(changesByChunk[chunk]);
+            changesByChunk[chunk].clear();
+        }
+    }
+
+    private void ensureChunkBuffers(int chunks) {
+        if (parentsByChunk.length >= chunks) {
+            return;
+        }
+        int previous = parentsByChunk.length;
+        parentsByChunk = Arrays.copyOf(parentsByChunk, chunks);
+        offspringByChunk = Arrays.copyOf(offspringByChunk, chunks);
+        deadByChunk = Arrays.copyOf(deadByChunk, chunks);
+        changesByChunk = Arrays.copyOf(changesByChunk, chunks);
+        mutationsByChunk = Arrays.copyOf(mutationsByChunk, chunks);
+        deathsByAgeByChunk = Arrays.copyOf(deathsByAgeByChunk, chunks);
+        deathsByHealthByChunk = Arrays.copyOf(deathsByHealthByChunk, chunks);
+        for (int chunk = previous; chunk < chunks; chunk++) {
+            parentsByChunk[chunk] = new SlotBuffer();
+            offspringByChunk[chunk] = new SlotBuffer();
+            deadByChunk[chunk] = new SlotBuffer();
+            changesByChunk[chunk] = new PopulationStatistics();
+        }
+    }
+
+    /**
+     * Removes dead bunnies from the population.
+     *
+     * <p>This method iterates through the population and removes every bunny that has died, of age or of poor
+     * health, as well as any bunny that has reached {@link Bunny#MAX_AGE}. The freed slots are reused by later
+     * births.</p>
+     *
+     * <p>With trait sketching enabled, the same pass adds every remaining bunny to the sketches of its chunk, which
+     * are merged into {@link #getTraitSketches()}.</p>
+     */
+    public void removeDeadBunnies() {
+        int chunks = executor.chunkCount(population.slotLimit());
+        ensureChunkBuffers(chunks);
+        if (sketchTraits && sketchesByChunk.length < chunks) {
+            int previous = sketchesByChunk.length;
+            sketchesByChunk = Arrays.copyOf(sketchesByChunk, chunks);
+            for (int chunk = previous; chunk < chunks; chunk++) {
+                sketchesByChunk[chunk] = new TraitSketches();
+            }
+        }
+        executor.forEachChunk(population.slotLimit(), deadTask);
+        if (sketchTraits) {
+            TraitSketches sketches = new TraitSketches();
+            sketches.setYear(year);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                sketches.merge(sketchesByChunk[chunk]);
+            }
+            traitSketches = sketches;
+        }
+        long removals = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            SlotBuffer dead = deadByChunk[chunk];
+            for (int i = 0; i < dead.size(); i++) {
+                population.remove(dead.get(i));
+            }
+            removals += dead.size();
+        }
+        if (metrics != null) {
+            metrics.increment(Counter.REMOVALS, removals);
+        }
+    }
+
+    private void collectDeadChunk(int chunk, int fromSlot, int toSlot) {
+        SlotBuffer dead = deadByChunk[chunk];
+        dead.clear();
+        TraitSketches sketches = sketchTraits ? sketchesByChunk[chunk] : null;
+        if (sketches != null) {
+            sketches.clear();
+        }
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            if (!population.isOccupied(slot)) {
+                continue;
+            }
+            if (!population.isAlive(slot) || population.getAge(slot) >= Bunny.MAX_AGE) {
+                dead.add(slot);
+            } else if (sketches != null) {
+                sketches.add(population.getAge(slot), population.getHealth(slot), population.getReproductionRate(slot),
+                        population.getMutationRate(slot));
+            }
+        }
+    }
+
+    private void printYearStats(int year) {
+        if (log.isDebugEnabled()) {
+            log.debug("Year: {}, Population: {}, Current Resource Level: {}",
+                    year, population.size(), environment.getResourceAvailability());
+        }
+    }
+
+    /**
+     * Runs a small simulation for 20 years and prints the statistics of every year as CSV.
+     */
+    public static void main(String[] args) {
+        Simulation simulation = new Simulation(10, 50);
+        simulation.addYearListener(new CsvStatisticsSink(System.out));
+        simulation.runSimulation(20);
+    }
+
+    /**
+     * Returns views of the bunnies currently in the population. The list is a snapshot; views stay valid until
+     * their bunny is removed from the population.
+     *
+     * @return views of all bunnies in the population
+     */
+    public List<Bunny> getBunnies() {
+        return population.views();
+    }
+
+    @Override
+    public long getPopulationSize() {
+        return population.size();
+    }
+
+    @Override
+    public double getMeanGeneration() {
+        return population.getStatistics().getMeanGeneration();
+    }
+
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    public void addYearListener(YearListener listener) {
+        yearListeners.add(listener);
+    }
+
+    public BunnyPopulation getPopulation() {
+        return population;
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    RandomSource getRandomSource() {
+        return random;
+    }
+
+    /**
+     * Sets the number of threads used for the yearly tick. With a parallelism of 1 (the default) every chunk of
+     * the population is processed on the calling thread.
+     *
+     * <p>The population is always processed in chunks of {@link #getChunkSize()} slots, and per-chunk results are
+     * merged in chunk order, so the parallelism does not change the outcome of a year for a given chunk layout.</p>
+     *
+     * @param parallelism the number of threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        replaceExecutor(new PartitionedExecutor(parallelism, executor.getChunkSize()));
+    }
+
+    public int getParallelism() {
+        return executor.getParallelism();
+    }
+
+    /**
+     * Sets the number of population slots processed together as one chunk of the yearly tick.
+     *
+     * @param chunkSize the number of slots per chunk, at least 1
+     */
+    public void setChunkSize(int chunkSize) {
+        replaceExecutor(new PartitionedExecutor(executor.getParallelism(), chunkSize));
+    }
+
+    public int getChunkSize() {
+        return executor.getChunkSize();
+    }
+
+    /**
+     * Sets the registry that receives the timings, counters and gauges of every year.
+     *
+     * @param metrics the registry, or {@code null} to stop measuring (the default)
+     */
+    public void setMetricsRegistry(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metrics;
+    }
+
+    /**
+     * Sets the log that records every birth from now on. The bunnies already in the population are recorded as
+     * founders, without a parent.
+     *
+     * @param lineage the log, or {@code null} to stop recording (the default)
+     */
+    public void setLineageLog(LineageLog lineage) {
+        this.lineage = lineage;
+        if (lineage == null) {
+            return;
+        }
+        List<Integer> founders = new ArrayList<>(population.size());
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (population.isOccupied(slot)) {
+                founders.add(slot);
+            }
+        }
+        founders.sort(Comparator.comparingLong(population::getId));
+        for (int slot : founders) {
+            lineage.append(population.getId(slot), LineageLog.NO_PARENT, year - population.getAge(slot),
+                    population.getMutationRate(slot));
+        }
+    }
+
+    public LineageLog getLineageLog() {
+        return lineage;
+    }
+
+    /**
+     * Enables or disables the trait sketches built at the end of every year, see {@link #getTraitSketches()}.
+     *
+     * @param sketchTraits whether to build trait sketches (disabled by default)
+     */
+    public void setTraitSketching(boolean sketchTraits) {
+        this.sketchTraits = sketchTraits;
+        if (!sketchTraits) {
+            sketchesByChunk = new TraitSketches[0];
+            traitSketches = null;
+        }
+    }
+
+    /**
+     * Returns the distribution of the living bunnies' traits at the end of the last year. Every year gets new
+     * sketches, so a {@link YearListener} can keep the sketches of each year, or their
+     * {@link TraitSketches#toByteArray() serialized form}, at a few kilobytes per year.
+     *
+     * @return the sketches of the last year, or {@code null} if trait sketching is disabled or no year has ended
+     */
+    public TraitSketches getTraitSketches() {
+        return traitSketches;
+    }
+
+    private void recordBirth(int parent, int offspring) {
+        lineage.append(population.getId(offspring), population.getId(parent), year,
+                population.getMutationRate(offspring));
+    }
+
+    /**
+     * Stops the worker threads of a parallel tick, see {@link #setParallelism(int)}. The storage of the population
+     * stays open, it is closed by whoever created it. A closed simulation can still run, on the calling thread,
+     * with the same outcome.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void replaceExecutor(PartitionedExecutor replacement) {
+        executor.shutdown();
+        executor = replacement;
+    }
+
+    /**
+     * Simulates natural selection by allowing bunnies to reproduce based on their fitness levels.
+     *
+     * <p>This method iterates through the current population of bunnies and calculates
+     * each bunny's fitness. If a bunny's fitness exceeds a specified threshold, it has a chance
+     * to reproduce, with the likelihood of reproduction being proportional to its fitness.
+     * Offspring are then added to the population.</p>
+     */
+    public void naturalSelection() {
+        double resourceFitness = environment.getResourceAvailability() / environment.getCarryingCapacity();
+        SplittableRandom stream = random.nextStream();
+        selected.clear();
+
+        int slotLimit = population.slotLimit();
+        if (fitness.length < slotLimit) {
+            fitness = new double[population.getStorage().capacity()];
+        }
+        population.calculateFitness(0, slotLimit, resourceFitness, fitness);
+        for (int slot = 0; slot < slotLimit; slot++) {
+            if (!population.isOccupied(slot)) {
+                continue;
+            }
+            if (fitness[slot] > reproductionThreshold && stream.nextDouble() < fitness[slot]) {
+                selected.add(slot);
+            }
+        }
+        long births = 0;
+        long mutations = 0;
+        for (int i = 0; i < selected.size(); i++) {
+            int parent = selected.get(i);
+            if (population.canReproduce(parent)) {
+                births++;
+                int offspring = population.reserveSlot();
+                if (population.bear(parent, offspring, stream)) {
+                    mutations++;
+                }
+                if (lineage != null) {
+                    recordBirth(parent, offspring);
+                }
+            }
+        }
+        environment.setCurrentPopulation(population.getStatistics().getAliveCount());
+        if (metrics != null) {
+            metrics.increment(Counter.BIRTHS, births);
+            metrics.increment(Counter.MUTATIONS, mutations);
+        }
+    }
+
+    /**
+     * Lets the given number of parents reproduce, each drawn from the bunnies that can reproduce with a probability
+     * proportional to its fitness. A bunny may be drawn more than once.
+     *
+     * <p>Unlike {@link #naturalSelection()}, which computes the fitness of every bunny, the parents are drawn from a
+     * {@link FitnessIndex}. It is built once per year on first use and kept up to date afterwards, so repeated
+     * selections within a year cost {@code O(parents log n)} each. The resource fitness of the environment scales
+     * every bunny's fitness alike and therefore does not influence the draw.</p>
+     *
+     * @param parents the number of parents to draw
+     * @return the number of offspring born, 0 if no bunny can reproduce
+     */
+    public int naturalSelection(int parents) {
+        if (fitnessIndex == null) {
+            fitnessIndex = new FitnessIndex(population);
+        }
+        SplittableRandom stream = random.nextStream();
+        selected.clear();
+        for (int i = 0; i < parents; i++) {
+            int parent = fitnessIndex.sample(stream);
+            if (parent < 0) {
+                break;
+            }
+            selected.add(parent);
+        }
+        long mutations = 0;
+        for (int i = 0; i < selected.size(); i++) {
+            int offspring = population.reserveSlot();
+            if (population.bear(selected.get(i), offspring, stream)) {
+                mutations++;
+            }
+            if (lineage != null) {
+                recordBirth(selected.get(i), offspring);
+            }
+        }
+        environment.setCurrentPopulation(population.getStatistics().getAliveCount());
+        if (metrics != null) {
+            metrics.increment(Counter.BIRTHS, selected.size());
+            metrics.increment(Counter.MUTATIONS, mutations);
+        }
+        return selected.size();
+    }
+}
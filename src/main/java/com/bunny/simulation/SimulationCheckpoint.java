@@ -0,0 +1,146 @@
+package com.bunny.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Single Responsibility Principle (SRP): SimulationCheckpoint saves the complete state of a {@link Simulation} to a
+ * binary file and restores it.
+ *
+ * <p>A checkpoint holds the next year to run, the state of the random source, the environment's carrying capacity,
+ * population count and resource availability, the chunk size, and the population's columns with their slot layout,
+ * bunny ids and free list. Columns are copied in bulk through memory-mapped windows, so writing a checkpoint costs
+ * little more than copying the columns. A restored simulation continues exactly as the original would have; a forked
+ * simulation starts from the same state with a new seed.</p>
+ *
+ * <p>The file format is little-endian: a magic number and format version, followed by the fields in the order of
+ * {@link #write(Simulation, Path)}.</p>
+ */
+public final class SimulationCheckpoint {
+    private static final int MAGIC = 0x424E5953; // "BNYS"
+    private static final int VERSION = 2;
+
+    private SimulationCheckpoint() {
+    }
+
+    /**
+     * Writes a checkpoint of the simulation. The checkpoint is written next to the target file first and then
+     * moved in place, so an interrupted write never leaves a damaged checkpoint behind.
+     *
+     * @param simulation the simulation to save
+     * @param file the checkpoint file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Simulation simulation, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (MappedOutput out = new MappedOutput(temporary)) {
+            write(simulation, out);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes a checkpoint of the simulation to memory, see {@link #fromBytes(byte[])}.
+     */
+    static byte[] toBytes(Simulation simulation) {
+        MappedOutput out = new MappedOutput();
+        try {
+            write(simulation, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write a checkpoint to memory", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(Simulation simulation, MappedOutput out) throws IOException {
+        RandomSource random = simulation.getRandomSource();
+        Environment environment = simulation.getEnvironment();
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putInt(simulation.getYear());
+        out.putInt(simulation.getChunkSize());
+        out.putLong(random.getSeed());
+        out.putLong(random.getEpoch());
+        out.putInt(environment.getCarryingCapacity());
+        out.putLong(environment.getCurrentPopulation());
+        out.putDouble(environment.getResourceAvailability());
+        simulation.getPopulation().write(out);
+    }
+
+    /**
+     * Restores a simulation from a checkpoint. Running the restored simulation gives the same results as running
+     * the original simulation on from the moment of the checkpoint.
+     *
+     * @param file the checkpoint file
+     * @return the restored simulation, with a parallelism of 1
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static Simulation read(Path file) throws IOException {
+        return read(file, null, PopulationStorage.onHeap());
+    }
+
+    /**
+     * Starts a new simulation from the state saved in a checkpoint, with its random draws derived from a new seed.
+     * Forks of one checkpoint with different seeds share their history up to the checkpoint and diverge after it.
+     *
+     * @param file the checkpoint file
+     * @param seed the seed of the forked simulation
+     * @return the forked simulation, with a parallelism of 1
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static Simulation fork(Path file, long seed) throws IOException {
+        return read(file, seed, PopulationStorage.onHeap());
+    }
+
+    /**
+     * Restores a simulation from a checkpoint into the given storage, for example to continue a population that
+     * does not fit in the Java heap.
+     *
+     * @param file the checkpoint file
+     * @param storage an empty storage, closed by the caller once the simulation is no longer used
+     * @return the restored simulation, with a parallelism of 1
+     * @throws IOException if the file cannot be read or is not a checkpoint
+     */
+    public static Simulation read(Path file, PopulationStorage storage) throws IOException {
+        return read(file, null, storage);
+    }
+
+    /**
+     * Restores a simulation from a checkpoint written by {@link #toBytes(Simulation)}.
+     */
+    static Simulation fromBytes(byte[] checkpoint) {
+        try {
+            return read(new MappedInput(checkpoint), "memory", null, PopulationStorage.onHeap());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a simulation checkpoint", e);
+        }
+    }
+
+    private static Simulation read(Path file, Long forkSeed, PopulationStorage storage) throws IOException {
+        try (MappedInput in = new MappedInput(file)) {
+            return read(in, file.toString(), forkSeed, storage);
+        }
+    }
+
+    private static Simulation read(MappedInput in, String source, Long forkSeed, PopulationStorage storage)
+            throws IOException {
+        int magic = in.getInt();
+        int version = in.getInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not a version " + VERSION + " simulation checkpoint: " + source);
+        }
+        int year = in.getInt();
+        int chunkSize = in.getInt();
+        long seed = in.getLong();
+        long epoch = in.getLong();
+        RandomSource random = forkSeed == null ? new RandomSource(seed, epoch) : new RandomSource(forkSeed, epoch);
+        int carryingCapacity = in.getInt();
+        long currentPopulation = in.getLong();
+        double resourceAvailability = in.getDouble();
+        Environment environment = new Environment(carryingCapacity, currentPopulation, resourceAvailability, random);
+        BunnyPopulation population = BunnyPopulation.read(in, random, storage);
+        return new Simulation(environment, population, random, year, chunkSize);
+    }
+}
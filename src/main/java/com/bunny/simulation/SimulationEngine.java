@@ -0,0 +1,48 @@
+package com.bunny.simulation;
+
+/**
+ * Dependency Inversion Principle (DIP): code that drives or observes a simulation depends on this interface
+ * rather than on a particular way of representing the population.
+ *
+ * <p>{@link Simulation} tracks every bunny individually. {@link CohortSimulation} tracks counts of identical
+ * bunnies and reaches population sizes the per-bunny model cannot hold. {@link CalendarSimulation} tracks every
+ * bunny but only visits it in the years in which it matures, reproduces or dies.
+ * {@link SuperIndividualSimulation} keeps a fixed budget of weighted agents however large the population grows.</p>
+ */
+public interface SimulationEngine {
+
+    /**
+     * Runs the simulation for the given number of years.
+     *
+     * @param years the number of years to run
+     */
+    void runSimulation(int years);
+
+    /**
+     * @return the number of bunnies in the population at the end of the last year, after the bunnies that died in
+     * it have been removed
+     */
+    long getPopulationSize();
+
+    /**
+     * @return the environment of the simulation
+     */
+    Environment getEnvironment();
+
+    /**
+     * @return the mean generation of the living bunnies, or 0 if there are none
+     */
+    double getMeanGeneration();
+
+    /**
+     * @return the number of years simulated so far
+     */
+    int getYear();
+
+    /**
+     * Registers a listener that is called at the end of every simulated year.
+     *
+     * @param listener the listener to add
+     */
+    void addYearListener(YearListener listener);
+}
@@ -0,0 +1,185 @@
+package com.bunny.simulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Single Responsibility Principle (SRP): SimulationMetrics keeps the totals reported to a {@link MetricsRegistry}
+ * in memory and publishes them through JMX.
+ *
+ * <p>The simulation thread writes and any thread, such as a JMX client, reads, so all values are kept in atomic
+ * arrays. Writes happen a few times per year, which makes their cost negligible next to the year itself.</p>
+ *
+ * <pre>{@code
+ * SimulationMetrics metrics = new SimulationMetrics();
+ * metrics.register("main");
+ * simulation.setMetricsRegistry(metrics);
+ * }</pre>
+ */
+public class SimulationMetrics implements MetricsRegistry, SimulationMetricsMXBean {
+    private static final String DOMAIN = "com.bunny.simulation";
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+    private final AtomicLongArray gauges = new AtomicLongArray(Gauge.values().length);
+    private final AtomicLong years = new AtomicLong();
+    private ObjectName objectName;
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+        if (phase == Phase.LISTENERS) {
+            years.incrementAndGet(); // the last phase of a year
+        }
+    }
+
+    @Override
+    public void increment(Counter counter, long delta) {
+        counters.addAndGet(counter.ordinal(), delta);
+    }
+
+    @Override
+    public void setGauge(Gauge gauge, double value) {
+        gauges.set(gauge.ordinal(), Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * @return the total time spent in the given phase, in nanoseconds
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    public long getCount(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    public double getGauge(Gauge gauge) {
+        return Double.longBitsToDouble(gauges.get(gauge.ordinal()));
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * {@code com.bunny.simulation:type=SimulationMetrics,name=<name>}.
+     *
+     * @param name distinguishes the simulations of one JVM
+     * @return the name the metrics were registered under
+     * @throws JMException if the name is invalid or already registered
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        ObjectName registered = new ObjectName(DOMAIN + ":type=SimulationMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, registered);
+        objectName = registered;
+        return registered;
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, if they were registered.
+     *
+     * @throws JMException if unregistering fails
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    @Override
+    public long getRandomEventNanos() {
+        return getPhaseNanos(Phase.RANDOM_EVENT);
+    }
+
+    @Override
+    public long getAgeAndReproduceNanos() {
+        return getPhaseNanos(Phase.AGE_AND_REPRODUCE);
+    }
+
+    @Override
+    public long getUpdateResourcesNanos() {
+        return getPhaseNanos(Phase.UPDATE_RESOURCES);
+    }
+
+    @Override
+    public long getAdjustHealthNanos() {
+        return getPhaseNanos(Phase.ADJUST_HEALTH);
+    }
+
+    @Override
+    public long getRemoveDeadNanos() {
+        return getPhaseNanos(Phase.REMOVE_DEAD);
+    }
+
+    @Override
+    public long getListenersNanos() {
+        return getPhaseNanos(Phase.LISTENERS);
+    }
+
+    @Override
+    public long getYears() {
+        return years.get();
+    }
+
+    @Override
+    public long getBirths() {
+        return getCount(Counter.BIRTHS);
+    }
+
+    @Override
+    public long getMutations() {
+        return getCount(Counter.MUTATIONS);
+    }
+
+    @Override
+    public long getDeathsByAge() {
+        return getCount(Counter.DEATHS_BY_AGE);
+    }
+
+    @Override
+    public long getDeathsByHealth() {
+        return getCount(Counter.DEATHS_BY_HEALTH);
+    }
+
+    @Override
+    public long getRemovals() {
+        return getCount(Counter.REMOVALS);
+    }
+
+    @Override
+    public double getPopulation() {
+        return getGauge(Gauge.POPULATION);
+    }
+
+    @Override
+    public double getResources() {
+        return getGauge(Gauge.RESOURCES);
+    }
+
+    @Override
+    public double getCarryingCapacity() {
+        return getGauge(Gauge.CARRYING_CAPACITY);
+    }
+
+    @Override
+    public double getAllocatedBytes() {
+        return getGauge(Gauge.ALLOCATED_BYTES);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < phaseNanos.length(); i++) {
+            phaseNanos.set(i, 0);
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        years.set(0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bunny.simulation;
+
+/**
+ * Interface Segregation Principle (ISP): the read-only view of {@link SimulationMetrics} published through JMX.
+ *
+ * <p>Timings and counters are totals since the metrics were created or last reset; gauges hold the value at the end
+ * of the last completed year.</p>
+ */
+public interface SimulationMetricsMXBean {
+
+    long getRandomEventNanos();
+
+    long getAgeAndReproduceNanos();
+
+    long getUpdateResourcesNanos();
+
+    long getAdjustHealthNanos();
+
+    long getRemoveDeadNanos();
+
+    long getListenersNanos();
+
+    long getYears();
+
+    long getBirths();
+
+    long getMutations();
+
+    long getDeathsByAge();
+
+    long getDeathsByHealth();
+
+    long getRemovals();
+
+    double getPopulation();
+
+    double getResources();
+
+    double getCarryingCapacity();
+
+    double getAllocatedBytes();
+
+    /**
+     * Sets all timings and counters back to 0.
+     */
+    void reset();
+}
@@ -0,0 +1,41 @@
+package com.bunny.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive slot indices.
+ *
+ * <p>Used as reusable scratch space by the yearly tick so that collecting parents or dead bunnies
+ * does not box indices or allocate once the buffer has grown to its working size.</p>
+ */
+final class SlotBuffer {
+    private int[] slots;
+    private int size;
+
+    SlotBuffer() {
+        this(16);
+    }
+
+    SlotBuffer(int initialCapacity) {
+        this.slots = new int[Math.max(initialCapacity, 1)];
+    }
+
+    void add(int slot) {
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, BunnyPopulation.grownCapacity(slots.length));
+        }
+        slots[size++] = slot;
+    }
+
+    int get(int index) {
+        return slots[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
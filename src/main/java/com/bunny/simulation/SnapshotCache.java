@@ -0,0 +1,163 @@
+package com.bunny.simulation;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * A bounded cache of simulation states, kept as in-memory checkpoints (see {@link SimulationCheckpoint}) and keyed
+ * by the starting parameters of a simulation and the year it has reached.
+ *
+ * <p>The cache holds at most a given number of bytes. When a new state does not fit, the least recently used states
+ * are evicted first. For each starting state, the cached years are also indexed in order, so that
+ * {@link #latest(Prefix, int)} finds the longest cached prefix of a run without scanning. All methods are
+ * thread-safe.</p>
+ */
+final class SnapshotCache {
+    /** An estimate of the bytes the cache spends per entry besides the checkpoint itself. */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Prefix, TreeMap<Integer, Key>> years = new HashMap<>();
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * The starting parameters shared by every year of one run.
+     */
+    static final class Prefix {
+        private final int initialBunnies;
+        private final int carryingCapacity;
+        private final long seed;
+
+        Prefix(int initialBunnies, int carryingCapacity, long seed) {
+            this.initialBunnies = initialBunnies;
+            this.carryingCapacity = carryingCapacity;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Prefix)) {
+                return false;
+            }
+            Prefix prefix = (Prefix) other;
+            return initialBunnies == prefix.initialBunnies && carryingCapacity == prefix.carryingCapacity
+                    && seed == prefix.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(initialBunnies, carryingCapacity, seed);
+        }
+    }
+
+    private static final class Key {
+        private final Prefix prefix;
+        private final int year;
+
+        Key(Prefix prefix, int year) {
+            this.prefix = prefix;
+            this.year = year;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && prefix.equals(((Key) other).prefix) && year == ((Key) other).year;
+        }
+
+        @Override
+        public int hashCode() {
+            return prefix.hashCode() * 31 + year;
+        }
+    }
+
+    /**
+     * @param maxBytes the number of bytes the cached checkpoints may take up
+     */
+    SnapshotCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Stores the state of a simulation that started with the given parameters, at its current year.
+     */
+    void put(Prefix prefix, Simulation simulation) {
+        byte[] checkpoint = SimulationCheckpoint.toBytes(simulation);
+        if (checkpoint.length + ENTRY_OVERHEAD > maxBytes) {
+            return;
+        }
+        Key key = new Key(prefix, simulation.getYear());
+        synchronized (this) {
+            byte[] previous = entries.put(key, checkpoint);
+            if (previous != null) {
+                bytes -= previous.length + ENTRY_OVERHEAD;
+            }
+            bytes += checkpoint.length + ENTRY_OVERHEAD;
+            years.computeIfAbsent(prefix, p -> new TreeMap<>()).put(key.year, key);
+            Iterator<Map.Entry<Key, byte[]>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes) {
+                Map.Entry<Key, byte[]> entry = eldest.next();
+                bytes -= entry.getValue().length + ENTRY_OVERHEAD;
+                removeYear(entry.getKey());
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Restores the latest cached state of a run with the given starting parameters, at or before the given year.
+     *
+     * @return a new simulation continuing from the cached state, or {@code null} if no year up to {@code year} is
+     * cached
+     */
+    Simulation latest(Prefix prefix, int year) {
+        byte[] checkpoint;
+        synchronized (this) {
+            TreeMap<Integer, Key> cached = years.get(prefix);
+            Map.Entry<Integer, Key> floor = cached == null ? null : cached.floorEntry(year);
+            if (floor == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            checkpoint = entries.get(floor.getValue());
+        }
+        return SimulationCheckpoint.fromBytes(checkpoint);
+    }
+
+    private void removeYear(Key key) {
+        TreeMap<Integer, Key> cached = years.get(key.prefix);
+        cached.remove(key.year);
+        if (cached.isEmpty()) {
+            years.remove(key.prefix);
+        }
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+}
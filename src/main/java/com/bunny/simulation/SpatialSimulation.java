@@ -0,0 +1,258 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Single Responsibility Principle (SRP): SpatialSimulation runs a landscape of patches, each a {@link Simulation}
+ * with its own environment, and moves bunnies between neighbouring patches.
+ *
+ * <p>The patches form a grid. Every patch has its own carrying capacity, resources, random events and population,
+ * so a year of one patch reads and writes only the data of that patch, and patches are stepped in parallel. Once all
+ * patches have completed the year, migration runs as a batched phase: every living bunny leaves its patch with the
+ * migration rate, for one of the up to four adjacent patches chosen at random. Emigrants are first collected per
+ * patch and then added to their destinations, again in parallel per patch.</p>
+ *
+ * <p>Each patch and the migration phase take their random numbers from streams derived from the seed, and migrants
+ * arrive in a fixed order, so a run is reproducible for a given seed, independent of the parallelism.</p>
+ */
+public class SpatialSimulation implements SimulationEngine, AutoCloseable {
+    public static final double DEFAULT_MIGRATION_RATE = 0.05;
+
+    private final int width;
+    private final int height;
+    private final Simulation[] patches;
+    private final int[][] neighbours;
+    private final Migrants[] emigrants;
+    private final RandomSource random;
+    private long migrationEpoch;
+    private double migrationRate = DEFAULT_MIGRATION_RATE;
+    private PartitionedExecutor executor = new PartitionedExecutor(1, PartitionedExecutor.DEFAULT_CHUNK_SIZE);
+    private Environment summary;
+    private int year;
+    private final List<YearListener> yearListeners = new ArrayList<>();
+    private final IntConsumer stepTask = this::stepPatch;
+    private final IntConsumer emigrateTask = this::emigrate;
+    private final IntConsumer immigrateTask = this::immigrate;
+
+    /**
+     * Initializes a grid of equal patches.
+     *
+     * @param width the number of patches per row
+     * @param height the number of rows
+     * @param bunniesPerPatch the number of bunnies each patch starts with
+     * @param capacityPerPatch the carrying capacity of each patch
+     * @param seed the seed from which the random sources of all patches are derived
+     */
+    public SpatialSimulation(int width, int height, int bunniesPerPatch, int capacityPerPatch, long seed) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("The grid needs at least one patch: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.random = new RandomSource(seed);
+        int count = width * height;
+        this.patches = new Simulation[count];
+        this.neighbours = new int[count][];
+        this.emigrants = new Migrants[count];
+
+        long patchEpoch = random.nextEpoch();
+        for (int patch = 0; patch < count; patch++) {
+            long patchSeed = random.stream(patchEpoch, patch).nextLong();
+            patches[patch] = new Simulation(bunniesPerPatch, capacityPerPatch, patchSeed);
+            neighbours[patch] = neighboursOf(patch % width, patch / width);
+            emigrants[patch] = new Migrants();
+        }
+        updateSummary();
+    }
+
+    private int[] neighboursOf(int x, int y) {
+        List<Integer> adjacent = new ArrayList<>(4);
+        if (y > 0) {
+            adjacent.add(index(x, y - 1));
+        }
+        if (x > 0) {
+            adjacent.add(index(x - 1, y));
+        }
+        if (x < width - 1) {
+            adjacent.add(index(x + 1, y));
+        }
+        if (y < height - 1) {
+            adjacent.add(index(x, y + 1));
+        }
+        return adjacent.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * Runs the simulation for a specified number of years. Every year, each patch runs one year of
+     * {@link Simulation#runSimulation(int)}, bunnies migrate between neighbouring patches and the registered
+     * {@link YearListener}s are called.
+     *
+     * @param years the number of years to run the simulation
+     */
+    @Override
+    public void runSimulation(int years) {
+        for (int i = 0; i < years; i++) {
+            executor.forEachIndex(patches.length, stepTask);
+            migrate();
+            updateSummary();
+            int completed = year++;
+            for (int listener = 0; listener < yearListeners.size(); listener++) {
+                yearListeners.get(listener).yearCompleted(completed, this);
+            }
+        }
+    }
+
+    private void stepPatch(int patch) {
+        patches[patch].runSimulation(1);
+    }
+
+    /**
+     * Moves bunnies between neighbouring patches: first every patch collects its emigrants, then every patch takes
+     * in the emigrants of its neighbours that chose it, in the order of the neighbours' indices.
+     */
+    void migrate() {
+        migrationEpoch = random.nextEpoch();
+        executor.forEachIndex(patches.length, emigrateTask);
+        executor.forEachIndex(patches.length, immigrateTask);
+    }
+
+    private void emigrate(int patch) {
+        Migrants leaving = emigrants[patch];
+        leaving.collect(patches[patch].getPopulation(), random.stream(migrationEpoch, patch), migrationRate,
+                neighbours[patch]);
+        patches[patch].getEnvironment().decreasePopulation(leaving.size());
+    }
+
+    private void immigrate(int patch) {
+        BunnyPopulation population = patches[patch].getPopulation();
+        long arrived = 0;
+        for (int source : neighbours[patch]) {
+            Migrants incoming = emigrants[source];
+            for (int i = 0; i < incoming.size(); i++) {
+                if (incoming.getDestination(i) == patch) {
+                    incoming.arrive(i, population);
+                    arrived++;
+                }
+            }
+        }
+        patches[patch].getEnvironment().increasePopulation(arrived);
+    }
+
+    private void updateSummary() {
+        long capacity = 0;
+        long currentPopulation = 0;
+        double resources = 0;
+        for (Simulation patch : patches) {
+            Environment environment = patch.getEnvironment();
+            capacity += environment.getCarryingCapacity();
+            currentPopulation += environment.getCurrentPopulation();
+            resources += environment.getResourceAvailability();
+        }
+        summary = new Environment((int) Math.min(capacity, Integer.MAX_VALUE), currentPopulation, resources, random);
+    }
+
+    /**
+     * @return the patch at the given position of the grid
+     */
+    public Simulation getPatch(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("No patch at " + x + "," + y);
+        }
+        return patches[index(x, y)];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the probability with which a living bunny moves to a neighbouring patch each year.
+     *
+     * @param migrationRate the probability, between 0 and 1
+     */
+    public void setMigrationRate(double migrationRate) {
+        if (migrationRate < 0 || migrationRate > 1) {
+            throw new IllegalArgumentException("The migration rate must be between 0 and 1: " + migrationRate);
+        }
+        this.migrationRate = migrationRate;
+    }
+
+    public double getMigrationRate() {
+        return migrationRate;
+    }
+
+    /**
+     * Sets the number of threads that step patches and migrate bunnies. The outcome does not depend on it.
+     *
+     * @param parallelism the number of threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        executor.shutdown();
+        executor = new PartitionedExecutor(parallelism, PartitionedExecutor.DEFAULT_CHUNK_SIZE);
+    }
+
+    public int getParallelism() {
+        return executor.getParallelism();
+    }
+
+    /**
+     * Stops the worker threads of this simulation and of every patch, see {@link Simulation#close()}.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (Simulation patch : patches) {
+            patch.close();
+        }
+    }
+
+    @Override
+    public long getPopulationSize() {
+        long size = 0;
+        for (Simulation patch : patches) {
+            size += patch.getPopulationSize();
+        }
+        return size;
+    }
+
+    /**
+     * Returns a summary of the patches' environments at the end of the last year: the carrying capacity,
+     * population count and resources are totals over all patches. The summary is not used by the simulation.
+     */
+    @Override
+    public Environment getEnvironment() {
+        return summary;
+    }
+
+    @Override
+    public double getMeanGeneration() {
+        double sum = 0;
+        long alive = 0;
+        for (Simulation patch : patches) {
+            PopulationStatistics statistics = patch.getPopulation().getStatistics();
+            sum += statistics.getMeanGeneration() * statistics.getAliveCount();
+            alive += statistics.getAliveCount();
+        }
+        return alive == 0 ? 0 : sum / alive;
+    }
+
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    public void addYearListener(YearListener listener) {
+        yearListeners.add(listener);
+    }
+}
@@ -0,0 +1,37 @@
+package com.bunny.simulation;
+
+import java.io.Closeable;
+
+/**
+ * Open/Closed Principle (OCP): a destination for the statistics of every simulated year, recorded as primitive
+ * values instead of formatted log lines.
+ *
+ * <p>A sink is a {@link YearListener}; register it with {@link SimulationEngine#addYearListener(YearListener)} and
+ * close it after the run to flush what it has buffered.</p>
+ */
+public interface StatisticsSink extends YearListener, Closeable {
+
+    /**
+     * The event type recorded for a year without a random event.
+     */
+    int NO_EVENT = -1;
+
+    /**
+     * Records the statistics of one year.
+     *
+     * @param year the index of the year
+     * @param population the population size at the end of the year
+     * @param resourceLevel the resource availability at the end of the year
+     * @param carryingCapacity the carrying capacity at the end of the year
+     * @param eventType the ordinal of the year's {@link RandomEvent}, or {@link #NO_EVENT}
+     */
+    void record(int year, long population, double resourceLevel, int carryingCapacity, int eventType);
+
+    @Override
+    default void yearCompleted(int year, SimulationEngine engine) {
+        Environment environment = engine.getEnvironment();
+        RandomEvent event = environment.getLastEvent();
+        record(year, engine.getPopulationSize(), environment.getResourceAvailability(),
+                environment.getCarryingCapacity(), event == null ? NO_EVENT : event.ordinal());
+    }
+}
@@ -0,0 +1,404 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Single Responsibility Principle (SRP): SuperIndividualSimulation runs the bunny life cycle of {@link Simulation}
+ * on a bounded number of agents, each standing for a weight of identical bunnies.
+ *
+ * <p>While resources stay high the population grows exponentially, and with it the memory and time of a per-bunny
+ * simulation. Here an agent ages, reproduces and dies for all the bunnies it stands for: a reproducing agent of weight
+ * {@code w} bears {@code w} offspring, drawn as one agent of unmutated offspring and one of mutated offspring with a
+ * binomial number of bunnies. Whenever a year ends with more agents than the budget, agents are reduced in two
+ * steps:</p>
+ * <ol>
+ * <li>Agents of the same age and generation whose mutation rates fall in the same bucket are merged, their traits
+ * averaged by weight.</li>
+ * <li>If that is not enough, each age class is down-sampled by systematic resampling: agents are kept with a
+ * probability proportional to their weight, and the weight of the class is shared out among the kept agents.</li>
+ * </ol>
+ *
+ * <p>Both steps keep the weight of every age class exactly. Since bunnies of the same age share their health, the
+ * life cycle of the weights does not change: {@link #getPopulationSize()} and the environment's resource level match
+ * {@link Simulation} for the same initial bunnies, carrying capacity and seed, year by year, as in
+ * {@link CohortSimulation}. Trait distributions are preserved in expectation. Memory and time per year are bounded by
+ * the agent budget, whatever the population size.</p>
+ */
+public class SuperIndividualSimulation implements SimulationEngine {
+    public static final int DEFAULT_AGENT_BUDGET = 100_000;
+    private static final double BASE_MUTATION_RATE = 0.05;
+    private static final double TRAIT_BUCKET_WIDTH = 0.01;
+    private static final int MAX_GENERATION_KEY = (1 << 21) - 1;
+
+    private final Environment environment;
+    private final RandomSource random;
+    private final int agentBudget;
+    private final List<YearListener> yearListeners = new ArrayList<>();
+    private Agents agents;
+    private Agents scratch;
+    private long[] sortKeys = new long[0];
+    private long aliveCount;
+    private long deadCount;
+    private long yearEpoch;
+    private int year;
+
+    /**
+     * The columns of the agents.
+     */
+    private static final class Agents {
+        private int[] age;
+        private int[] generation;
+        private double[] health;
+        private double[] reproductionRate;
+        private double[] mutationRate;
+        private long[] weight;
+        private int count;
+
+        Agents(int capacity) {
+            age = new int[capacity];
+            generation = new int[capacity];
+            health = new double[capacity];
+            reproductionRate = new double[capacity];
+            mutationRate = new double[capacity];
+            weight = new long[capacity];
+        }
+
+        void add(int age, int generation, double health, double reproductionRate, double mutationRate, long weight) {
+            if (count == this.age.length) {
+                int capacity = count * 2;
+                this.age = Arrays.copyOf(this.age, capacity);
+                this.generation = Arrays.copyOf(this.generation, capacity);
+                this.health = Arrays.copyOf(this.health, capacity);
+                this.reproductionRate = Arrays.copyOf(this.reproductionRate, capacity);
+                this.mutationRate = Arrays.copyOf(this.mutationRate, capacity);
+                this.weight = Arrays.copyOf(this.weight, capacity);
+            }
+            this.age[count] = age;
+            this.generation[count] = generation;
+            this.health[count] = health;
+            this.reproductionRate[count] = reproductionRate;
+            this.mutationRate[count] = mutationRate;
+            this.weight[count] = weight;
+            count++;
+        }
+
+        void add(Agents from, int agent, long weight) {
+            add(from.age[agent], from.generation[agent], from.health[agent], from.reproductionRate[agent],
+                    from.mutationRate[agent], weight);
+        }
+
+        /**
+         * Adds the weight and the weighted traits of another agent to the last agent.
+         */
+        void mergeIntoLast(Agents from, int agent) {
+            int last = count - 1;
+            long total = weight[last] + from.weight[agent];
+            double share = (double) from.weight[agent] / total;
+            health[last] += (from.health[agent] - health[last]) * share;
+            reproductionRate[last] += (from.reproductionRate[agent] - reproductionRate[last]) * share;
+            mutationRate[last] += (from.mutationRate[agent] - mutationRate[last]) * share;
+            weight[last] = total;
+        }
+    }
+
+    /**
+     * Initializes a simulation with the same starting state as {@link Simulation#Simulation(int, int, long)} and the
+     * {@link #DEFAULT_AGENT_BUDGET}.
+     */
+    public SuperIndividualSimulation(long initialBunnies, int carryingCapacity, long seed) {
+        this(initialBunnies, carryingCapacity, seed, DEFAULT_AGENT_BUDGET);
+    }
+
+    /**
+     * Initializes a simulation with the same starting state as {@link Simulation#Simulation(int, int, long)}.
+     *
+     * @param initialBunnies the number of generation 0 bunnies to start with
+     * @param carryingCapacity the maximum number of bunnies the environment can support
+     * @param seed the seed of the simulation's random source
+     * @param agentBudget the number of agents kept at the end of a year, at least {@code 2 * Bunny.MAX_AGE}
+     */
+    public SuperIndividualSimulation(long initialBunnies, int carryingCapacity, long seed, int agentBudget) {
+        if (agentBudget < 2 * Bunny.MAX_AGE) {
+            throw new IllegalArgumentException("The agent budget must be at least " + 2 * Bunny.MAX_AGE);
+        }
+        this.agentBudget = agentBudget;
+        this.random = new RandomSource(seed);
+        this.environment = new Environment(carryingCapacity, random);
+        int initialAgents = (int) Math.min(initialBunnies, agentBudget);
+        agents = new Agents(Math.max(initialAgents, 16));
+        scratch = new Agents(Math.max(initialAgents, 16));
+
+        SplittableRandom stream = random.nextStream();
+        for (int i = 0; i < initialAgents; i++) {
+            long weight = share(initialBunnies, initialAgents, i + 1) - share(initialBunnies, initialAgents, i);
+            agents.add(0, 0, 100.0, 0.5 + stream.nextDouble() * 0.5, BASE_MUTATION_RATE, weight);
+        }
+        aliveCount = initialBunnies;
+        environment.increasePopulation(initialBunnies);
+    }
+
+    /**
+     * Runs the simulation for a specified number of years. Each year follows the steps of
+     * {@link Simulation#runSimulation(int)}: a random event, ageing and reproduction, the resource update, the health
+     * adjustment and the removal of the dead, followed by the reduction to the agent budget and the registered
+     * {@link YearListener}s.
+     *
+     * @param years the number of years to run the simulation
+     */
+    @Override
+    public void runSimulation(int years) {
+        for (int i = 0; i < years; i++) {
+            environment.introduceRandomEvent();
+            long deaths = ageAndReproduce();
+            environment.updateResources(aliveCount + deaths);
+            double decline = environment.getHealthDecline();
+            for (int agent = 0; agent < agents.count; agent++) {
+                agents.health[agent] -= decline;
+            }
+            if (agents.count > agentBudget) {
+                merge();
+            }
+            if (agents.count > agentBudget) {
+                resample(random.stream(yearEpoch, 1));
+            }
+            int completed = year++;
+            for (int listener = 0; listener < yearListeners.size(); listener++) {
+                yearListeners.get(listener).yearCompleted(completed, this);
+            }
+        }
+    }
+
+    /**
+     * Ages every agent, drops the agents that die and lets the others reproduce when enough resources are available.
+     *
+     * @return the number of bunnies that died
+     */
+    private long ageAndReproduce() {
+        boolean resourcesAvailable = environment.getResourceAvailability() > 10;
+        yearEpoch = random.nextEpoch();
+        SplittableRandom stream = random.stream(yearEpoch, 0);
+
+        Agents next = scratch;
+        next.count = 0;
+        long deaths = 0;
+        for (int agent = 0; agent < agents.count; agent++) {
+            int age = agents.age[agent] + 1;
+            if (age >= Bunny.MAX_AGE || agents.health[agent] < Bunny.HEALTH_THRESHOLD) {
+                deaths += agents.weight[agent];
+                continue;
+            }
+            next.add(agents, agent, agents.weight[agent]);
+            next.age[next.count - 1] = age;
+        }
+        scratch = agents;
+        agents = next;
+        aliveCount -= deaths;
+        deadCount += deaths;
+
+        if (resourcesAvailable) {
+            int parents = agents.count;
+            for (int parent = 0; parent < parents; parent++) {
+                if (agents.age[parent] >= Bunny.REPRODUCTION_AGE) {
+                    reproduce(parent, stream);
+                }
+            }
+        }
+        environment.setCurrentPopulation(aliveCount);
+        return deaths;
+    }
+
+    private void reproduce(int parent, SplittableRandom stream) {
+        long weight = agents.weight[parent];
+        int generation = agents.generation[parent] + 1;
+        long mutated = Binomial.sample(stream, weight, agents.mutationRate[parent]);
+        if (weight > mutated) {
+            agents.add(0, generation, 100.0, 0.5 + stream.nextDouble() * 0.5, BASE_MUTATION_RATE, weight - mutated);
+        }
+        if (mutated > 0) {
+            double mutationRate = BASE_MUTATION_RATE + (stream.nextDouble() * 0.2) - 0.1; // mutate between -0.1 and +0.1
+            agents.add(0, generation, 100.0, 0.5 + stream.nextDouble() * 0.5, Math.max(0, Math.min(mutationRate, 1.0)),
+                    mutated);
+        }
+        aliveCount += weight;
+    }
+
+    /**
+     * Merges agents of the same age, generation and mutation rate bucket and leaves the agents ordered by age.
+     */
+    private void merge() {
+        if (sortKeys.length < agents.count) {
+            sortKeys = new long[Math.max(agents.count, sortKeys.length * 2)];
+        }
+        for (int agent = 0; agent < agents.count; agent++) {
+            long key = ((long) agents.age[agent] << 28)
+                    | ((long) Math.min(agents.generation[agent], MAX_GENERATION_KEY) << 7)
+                    | Math.min((int) (agents.mutationRate[agent] / TRAIT_BUCKET_WIDTH), 127);
+            sortKeys[agent] = key << 32 | agent;
+        }
+        Arrays.sort(sortKeys, 0, agents.count);
+
+        Agents next = scratch;
+        next.count = 0;
+        long previousKey = -1;
+        for (int i = 0; i < agents.count; i++) {
+            long key = sortKeys[i] >>> 32;
+            int agent = (int) sortKeys[i];
+            if (key == previousKey) {
+                next.mergeIntoLast(agents, agent);
+            } else {
+                next.add(agents, agent, agents.weight[agent]);
+                previousKey = key;
+            }
+        }
+        scratch = agents;
+        agents = next;
+    }
+
+    /**
+     * Down-samples every age class to its share of the budget. Agents must be ordered by age, see {@link #merge()}.
+     */
+    private void resample(SplittableRandom stream) {
+        int classes = 0;
+        for (int agent = 0; agent < agents.count; agent++) {
+            if (agent == 0 || agents.age[agent] != agents.age[agent - 1]) {
+                classes++;
+            }
+        }
+        Agents next = scratch;
+        next.count = 0;
+        int total = agents.count;
+        for (int from = 0; from < total; ) {
+            int to = from + 1;
+            while (to < total && agents.age[to] == agents.age[from]) {
+                to++;
+            }
+            int keep = (int) Math.max(1, (long) (to - from) * (agentBudget - classes) / total);
+            if (keep >= to - from) {
+                for (int agent = from; agent < to; agent++) {
+                    next.add(agents, agent, agents.weight[agent]);
+                }
+            } else {
+                resampleClass(from, to, keep, stream, next);
+            }
+            from = to;
+        }
+        scratch = agents;
+        agents = next;
+    }
+
+    /**
+     * Keeps {@code keep} selections of the agents {@code [from, to)} by systematic resampling, each selection carrying
+     * an equal share of the class weight.
+     */
+    private void resampleClass(int from, int to, int keep, SplittableRandom stream, Agents next) {
+        long classWeight = 0;
+        for (int agent = from; agent < to; agent++) {
+            classWeight += agents.weight[agent];
+        }
+        double step = (double) classWeight / keep;
+        double pointer = stream.nextDouble() * step;
+        double cumulative = 0;
+        int selection = 0;
+        for (int agent = from; agent < to && selection < keep; agent++) {
+            cumulative += agents.weight[agent];
+            int first = selection;
+            while (selection < keep && (pointer < cumulative || agent == to - 1)) {
+                selection++;
+                pointer += step;
+            }
+            if (selection > first) {
+                next.add(agents, agent, share(classWeight, keep, selection) - share(classWeight, keep, first));
+            }
+        }
+    }
+
+    /**
+     * @return {@code floor(total * part / parts)} without overflow, for {@code part <= parts}
+     */
+    private static long share(long total, int parts, int part) {
+        return total / parts * part + total % parts * part / parts;
+    }
+
+    /**
+     * @return the number of living bunnies, the total weight of all agents
+     */
+    @Override
+    public long getPopulationSize() {
+        return aliveCount;
+    }
+
+    /**
+     * @return the number of bunnies that have died so far
+     */
+    public long getDeadCount() {
+        return deadCount;
+    }
+
+    /**
+     * @return the number of agents, at most the budget at the end of a year
+     */
+    public int getAgentCount() {
+        return agents.count;
+    }
+
+    public int getAgentBudget() {
+        return agentBudget;
+    }
+
+    /**
+     * @param agent an agent index below {@link #getAgentCount()}
+     * @return the number of bunnies the agent stands for
+     */
+    public long getWeight(int agent) {
+        return agents.weight[agent];
+    }
+
+    /**
+     * @return the mean mutation rate of the living bunnies, or 0 if there are none
+     */
+    public double getMeanMutationRate() {
+        double sum = 0;
+        for (int agent = 0; agent < agents.count; agent++) {
+            sum += agents.mutationRate[agent] * agents.weight[agent];
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    /**
+     * @return the mean health of the living bunnies, or 0 if there are none
+     */
+    public double getMeanHealth() {
+        double sum = 0;
+        for (int agent = 0; agent < agents.count; agent++) {
+            sum += agents.health[agent] * agents.weight[agent];
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    @Override
+    public double getMeanGeneration() {
+        double sum = 0;
+        for (int agent = 0; agent < agents.count; agent++) {
+            sum += (double) agents.generation[agent] * agents.weight[agent];
+        }
+        return aliveCount == 0 ? 0 : sum / aliveCount;
+    }
+
+    @Override
+    public int getYear() {
+        return year;
+    }
+
+    @Override
+    public void addYearListener(YearListener listener) {
+        yearListeners.add(listener);
+    }
+
+    @Override
+    public Environment getEnvironment() {
+        return environment;
+    }
+}
@@ -0,0 +1,266 @@
+package com.bunny.simulation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single Responsibility Principle (SRP): SweepRunner runs a parameter sweep of {@link Simulation}s, sharing the years
+ * that sweep points have in common.
+ *
+ * <p>A sweep point is a number of initial bunnies, a carrying capacity, a seed and a number of years. Points with the
+ * same starting parameters follow the same run and differ only in how long they run, so the runner keeps the states
+ * it passes through in a bounded {@link SnapshotCache}, keyed by the starting parameters and the year. Each point
+ * continues from the longest cached prefix of its run instead of starting from year 0. Points of the same run are
+ * taken in order of their years, and different runs go in parallel. A sweep over {@code n} lengths of one run then
+ * simulates the longest length once instead of all {@code n} lengths, and the cache carries over to later sweeps of
+ * the same runner.</p>
+ *
+ * <pre>{@code
+ * SweepRunner runner = new SweepRunner(256L << 20);
+ * List<SweepRunner.Result> results = runner.run(List.of(new SweepRunner.Point(10, 50, 1L, 10),
+ *         new SweepRunner.Point(10, 50, 1L, 20)));
+ * }</pre>
+ *
+ * <p>A restored state continues exactly as the original run would have, see {@link SimulationCheckpoint}, so every
+ * result is the same as that of a fresh simulation run for the point's years.</p>
+ */
+public class SweepRunner {
+    private final SnapshotCache cache;
+    private final AtomicLong yearsSimulated = new AtomicLong();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int snapshotInterval;
+
+    /**
+     * One point of a sweep.
+     */
+    public static final class Point {
+        private final int initialBunnies;
+        private final int carryingCapacity;
+        private final long seed;
+        private final int years;
+
+        /**
+         * @param initialBunnies the number of bunnies to start the simulation with
+         * @param carryingCapacity the maximum number of bunnies the environment can support
+         * @param seed the seed of the simulation's random source
+         * @param years the number of years to run
+         */
+        public Point(int initialBunnies, int carryingCapacity, long seed, int years) {
+            this.initialBunnies = initialBunnies;
+            this.carryingCapacity = carryingCapacity;
+            this.seed = seed;
+            this.years = years;
+        }
+
+        public int getInitialBunnies() {
+            return initialBunnies;
+        }
+
+        public int getCarryingCapacity() {
+            return carryingCapacity;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public int getYears() {
+            return years;
+        }
+
+        SnapshotCache.Prefix prefix() {
+            return new SnapshotCache.Prefix(initialBunnies, carryingCapacity, seed);
+        }
+    }
+
+    /**
+     * The state of the simulation of a sweep point after its years.
+     */
+    public static final class Result {
+        private final Point point;
+        private final long populationSize;
+        private final double resourceAvailability;
+        private final double meanGeneration;
+        private final int resumedFromYear;
+
+        Result(Point point, Simulation simulation, int resumedFromYear) {
+            this.point = point;
+            this.populationSize = simulation.getPopulationSize();
+            this.resourceAvailability = simulation.getEnvironment().getResourceAvailability();
+            this.meanGeneration = simulation.getMeanGeneration();
+            this.resumedFromYear = resumedFromYear;
+        }
+
+        public Point getPoint() {
+            return point;
+        }
+
+        public long getPopulationSize() {
+            return populationSize;
+        }
+
+        public double getResourceAvailability() {
+            return resourceAvailability;
+        }
+
+        public double getMeanGeneration() {
+            return meanGeneration;
+        }
+
+        /**
+         * @return the year of the cached state the point continued from, 0 if it ran from the start
+         */
+        public int getResumedFromYear() {
+            return resumedFromYear;
+        }
+    }
+
+    /**
+     * Creates a runner.
+     *
+     * @param cacheBytes the number of bytes the cached simulation states may take up
+     */
+    public SweepRunner(long cacheBytes) {
+        this.cache = new SnapshotCache(cacheBytes);
+    }
+
+    /**
+     * Sets the number of runs simulated at the same time. Defaults to the number of available processors.
+     *
+     * @param parallelism the number of threads, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Caches the state of every run each given number of years as well, and not only at the years of the sweep
+     * points, so that later sweeps with other lengths find a nearby prefix.
+     *
+     * @param snapshotInterval the number of years between cached states, or 0 to cache the points only (the default)
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        if (snapshotInterval < 0) {
+            throw new IllegalArgumentException("The snapshot interval must not be negative: " + snapshotInterval);
+        }
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Runs all points of a sweep.
+     *
+     * @param points the sweep points
+     * @return the results, in the order of the points
+     */
+    public List<Result> run(List<Point> points) {
+        Map<SnapshotCache.Prefix, List<Integer>> runs = new LinkedHashMap<>();
+        for (int index = 0; index < points.size(); index++) {
+            runs.computeIfAbsent(points.get(index).prefix(), prefix -> new ArrayList<>()).add(index);
+        }
+        List<List<Integer>> groups = new ArrayList<>(runs.values());
+        for (List<Integer> group : groups) {
+            group.sort(Comparator.comparingInt(index -> points.get(index).getYears()));
+        }
+        Result[] results = new Result[points.size()];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new RunAction(points, groups, results, 0, groups.size()));
+        } finally {
+            pool.shutdown();
+        }
+        return List.of(results);
+    }
+
+    private void runPoints(List<Point> points, List<Integer> group, Result[] results) {
+        for (int index : group) {
+            Point point = points.get(index);
+            SnapshotCache.Prefix prefix = point.prefix();
+            Simulation simulation = cache.latest(prefix, point.getYears());
+            if (simulation == null) {
+                simulation = new Simulation(point.getInitialBunnies(), point.getCarryingCapacity(), point.getSeed());
+            }
+            try {
+                int resumedFromYear = simulation.getYear();
+                while (simulation.getYear() < point.getYears()) {
+                    int year = simulation.getYear();
+                    int next = snapshotInterval == 0
+                            ? point.getYears()
+                            : Math.min(point.getYears(), (year / snapshotInterval + 1) * snapshotInterval);
+                    simulation.runSimulation(next - year);
+                    yearsSimulated.addAndGet(next - year);
+                    cache.put(prefix, simulation);
+                }
+                results[index] = new Result(point, simulation, resumedFromYear);
+            } finally {
+                simulation.close();
+            }
+        }
+    }
+
+    /**
+     * @return the number of years simulated by all sweeps of this runner, after the cached prefixes
+     */
+    public long getYearsSimulated() {
+        return yearsSimulated.get();
+    }
+
+    /**
+     * @return the number of sweep points that continued from a cached state
+     */
+    public long getCacheHits() {
+        return cache.getHits();
+    }
+
+    /**
+     * @return the number of bytes the cached states currently take up
+     */
+    public long getCachedBytes() {
+        return cache.getBytes();
+    }
+
+    /**
+     * @return the number of cached states evicted to stay within the cache size
+     */
+    public long getCacheEvictions() {
+        return cache.getEvictions();
+    }
+
+    private class RunAction extends RecursiveAction {
+        private final List<Point> points;
+        private final List<List<Integer>> groups;
+        private final Result[] results;
+        private final int fromGroup;
+        private final int toGroup;
+
+        RunAction(List<Point> points, List<List<Integer>> groups, Result[] results, int fromGroup, int toGroup) {
+            this.points = points;
+            this.groups = groups;
+            this.results = results;
+            this.fromGroup = fromGroup;
+            this.toGroup = toGroup;
+        }
+
+        @Override
+        protected void compute() {
+            if (toGroup - fromGroup == 1) {
+                runPoints(points, groups.get(fromGroup), results);
+                return;
+            }
+            if (toGroup <= fromGroup) {
+                return;
+            }
+            int middle = (fromGroup + toGroup) >>> 1;
+            invokeAll(new RunAction(points, groups, results, fromGroup, middle),
+                    new RunAction(points, groups, results, middle, toGroup));
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.bunny.simulation;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single Responsibility Principle (SRP): TelemetryServer streams the statistics of a running simulation to dashboards
+ * as server-sent events over a local HTTP endpoint.
+ *
+ * <p>{@link #record} only publishes an immutable frame into a bounded ring of the most recent years, so the
+ * simulation thread never formats text, touches a socket or waits for a viewer. Every viewer has a thread of its own
+ * that polls the ring and writes all frames published since its last write in one batch, so a viewer that falls
+ * behind catches up with a single flush. A viewer that falls behind by more than the ring holds skips the frames
+ * that were overwritten and receives a {@code dropped} event with their number. Slow or stalled viewers therefore
+ * only ever delay themselves.</p>
+ *
+ * <p>Each event is a {@code year} event whose id is the year and whose data is a JSON object with the fields
+ * {@code year}, {@code population}, {@code resourceLevel}, {@code carryingCapacity} and {@code event}. With
+ * {@link #setSampleSize(int)}, frames of a {@link Simulation} also carry a {@code sample} array of bunnies taken at
+ * evenly spaced slots, which does not draw from the simulation's random source. A new viewer first receives the
+ * frames still in the ring, or those after the year in its {@code Last-Event-ID} header.</p>
+ *
+ * <pre>{@code
+ * try (TelemetryServer telemetry = new TelemetryServer(8080)) {
+ *     simulation.addYearListener(telemetry);
+ *     simulation.runSimulation(1000);
+ * }
+ * // curl -N http://localhost:8080/telemetry
+ * }</pre>
+ *
+ * <p>Viewers are served from a pool of daemon threads, one per open stream, up to a maximum number of viewers.</p>
+ */
+public class TelemetryServer implements StatisticsSink {
+    private static final Logger log = LoggerFactory.getLogger(TelemetryServer.class);
+    public static final String PATH = "/telemetry";
+    public static final int DEFAULT_RING_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_VIEWERS = 256;
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final RandomEvent[] EVENTS = RandomEvent.values();
+
+    private final int mask;
+    private final AtomicReferenceArray<Frame> ring;
+    private volatile long published;
+    private volatile boolean closed;
+    private volatile int sampleSize;
+
+    private final int maxViewers;
+    private final AtomicInteger viewers = new AtomicInteger();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * One published year. Frames are immutable, so viewers can read them while the ring moves on.
+     */
+    private static final class Frame {
+        private final long sequence;
+        private final int year;
+        private final long population;
+        private final double resourceLevel;
+        private final int carryingCapacity;
+        private final int eventType;
+        private final long[] sampleIds;
+        private final int[] sampleAges;
+        private final int[] sampleGenerations;
+        private final double[] sampleHealth;
+        private final double[] sampleMutationRates;
+
+        Frame(long sequence, int year, long population, double resourceLevel, int carryingCapacity, int eventType,
+              BunnyPopulation sampled, int sampleSize) {
+            this.sequence = sequence;
+            this.year = year;
+            this.population = population;
+            this.resourceLevel = resourceLevel;
+            this.carryingCapacity = carryingCapacity;
+            this.eventType = eventType;
+            int count = sampled == null ? 0 : Math.min(sampleSize, sampled.slotLimit());
+            sampleIds = new long[count];
+            sampleAges = new int[count];
+            sampleGenerations = new int[count];
+            sampleHealth = new double[count];
+            sampleMutationRates = new double[count];
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((long) i * sampled.slotLimit() / count);
+                sampleIds[i] = sampled.isOccupied(slot) ? sampled.getId(slot) : -1;
+                sampleAges[i] = sampled.getAge(slot);
+                sampleGenerations[i] = sampled.getGeneration(slot);
+                sampleHealth[i] = sampled.getHealth(slot);
+                sampleMutationRates[i] = sampled.getMutationRate(slot);
+            }
+        }
+
+        void appendTo(StringBuilder out) {
+            out.append("id: ").append(year).append("\nevent: year\ndata: {\"year\":").append(year)
+                    .append(",\"population\":").append(population)
+                    .append(",\"resourceLevel\":").append(resourceLevel)
+                    .append(",\"carryingCapacity\":").append(carryingCapacity)
+                    .append(",\"event\":");
+            if (eventType == NO_EVENT) {
+                out.append("null");
+            } else {
+                out.append('"').append(EVENTS[eventType].name()).append('"');
+            }
+            if (sampleIds.length > 0) {
+                out.append(",\"sample\":[");
+                String separator = "";
+                for (int i = 0; i < sampleIds.length; i++) {
+                    if (sampleIds[i] < 0) {
+                        continue;
+                    }
+                    out.append(separator).append("{\"id\":").append(sampleIds[i])
+                            .append(",\"age\":").append(sampleAges[i])
+                            .append(",\"generation\":").append(sampleGenerations[i])
+                            .append(",\"health\":").append(sampleHealth[i])
+                            .append(",\"mutationRate\":").append(sampleMutationRates[i]).append('}');
+                    separator = ",";
+                }
+                out.append(']');
+            }
+            out.append("}\n\n");
+        }
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param port the port to listen on, or 0 for any free port, see {@link #getPort()}
+     * @throws IOException if the server cannot be bound
+     */
+    public TelemetryServer(int port) throws IOException {
+        this(port, DEFAULT_RING_CAPACITY, DEFAULT_MAX_VIEWERS);
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param port the port to listen on, or 0 for any free port, see {@link #getPort()}
+     * @param ringCapacity the number of recent years kept for viewers, rounded up to a power of two
+     * @param maxViewers the number of viewers served at the same time; further viewers are turned away
+     * @throws IOException if the server cannot be bound
+     */
+    public TelemetryServer(int port, int ringCapacity, int maxViewers) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(ringCapacity - 1, 1)) << 1;
+        this.mask = capacity - 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.maxViewers = maxViewers;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "telemetry-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, this::serve);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Adds a sample of the given number of bunnies to every frame of a {@link Simulation}.
+     *
+     * @param sampleSize the number of sampled slots per year, or 0 for no samples (the default)
+     */
+    public void setSampleSize(int sampleSize) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("The sample size must not be negative: " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public void record(int year, long population, double resourceLevel, int carryingCapacity, int eventType) {
+        publish(new Frame(published, year, population, resourceLevel, carryingCapacity, eventType, null, 0));
+    }
+
+    @Override
+    public void yearCompleted(int year, SimulationEngine engine) {
+        Environment environment = engine.getEnvironment();
+        RandomEvent event = environment.getLastEvent();
+        int samples = sampleSize;
+        BunnyPopulation sampled = samples > 0 && engine instanceof Simulation
+                ? ((Simulation) engine).getPopulation() : null;
+        publish(new Frame(published, year, engine.getPopulationSize(), environment.getResourceAvailability(),
+                environment.getCarryingCapacity(), event == null ? NO_EVENT : event.ordinal(), sampled, samples));
+    }
+
+    private void publish(Frame frame) {
+        ring.set((int) (frame.sequence & mask), frame);
+        published = frame.sequence + 1;
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        if (viewers.incrementAndGet() > maxViewers || closed) {
+            viewers.decrementAndGet();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+            stream(exchange.getResponseBody(), firstSequence(exchange.getRequestHeaders().getFirst("Last-Event-ID")));
+        } catch (IOException e) {
+            log.debug("Telemetry viewer disconnected: {}", e.getMessage());
+        } finally {
+            viewers.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    /**
+     * Finds the first frame a new viewer receives: the oldest in the ring, or the one after the last year it saw.
+     * A viewer whose last year is older than the ring starts before the ring, so it is told what it missed.
+     */
+    private long firstSequence(String lastEventId) {
+        long end = published;
+        long oldest = Math.max(0, end - mask - 1);
+        if (lastEventId == null) {
+            return oldest;
+        }
+        int lastYear;
+        try {
+            lastYear = Integer.parseInt(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return oldest;
+        }
+        for (long sequence = end - 1; sequence >= oldest; sequence--) {
+            Frame frame = ring.get((int) (sequence & mask));
+            if (frame != null && frame.sequence == sequence && frame.year <= lastYear) {
+                return sequence + 1;
+            }
+        }
+        // Years between the last one seen and the oldest in the ring are reported as dropped
+        Frame first = ring.get((int) (oldest & mask));
+        if (first != null && first.year > lastYear + 1) {
+            return Math.max(0, oldest - (first.year - lastYear - 1));
+        }
+        return oldest;
+    }
+
+    private void stream(OutputStream out, long next) throws IOException {
+        StringBuilder batch = new StringBuilder();
+        out.write(": bunny simulation telemetry\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        while (!closed) {
+            long end = published;
+            if (end - next > mask + 1) {
+                long skipped = end - (mask + 1) - next;
+                droppedFrames.addAndGet(skipped);
+                batch.append("event: dropped\ndata: ").append(skipped).append("\n\n");
+                next = end - (mask + 1);
+            }
+            while (next < end) {
+                Frame frame = ring.get((int) (next & mask));
+                if (frame.sequence != next) {
+                    // Overwritten while this viewer was reading; the next round counts it as dropped
+                    break;
+                }
+                frame.appendTo(batch);
+                next++;
+            }
+            if (batch.length() > 0) {
+                out.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                batch.setLength(0);
+            } else {
+                LockSupport.parkNanos(POLL_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the address of the event stream
+     */
+    public URI getUri() {
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + getPort() + PATH);
+    }
+
+    /**
+     * @return the number of viewers currently streaming
+     */
+    public int getViewerCount() {
+        return viewers.get();
+    }
+
+    /**
+     * @return the number of frames skipped by viewers that fell behind by more than the ring holds, over all viewers
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Ends all streams and stops the server. Frames recorded afterwards are no longer served.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,158 @@
+package com.bunny.simulation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Single Responsibility Principle (SRP): TraitSketches summarizes the distribution of the bunnies' traits in one
+ * year, in a few kilobytes however large the population.
+ *
+ * <p>For every {@link Trait} it keeps a {@link QuantileSketch} and a {@link FixedHistogram}. {@link Simulation}
+ * builds one set of sketches per chunk of the population while it removes the dead, and merges them in chunk order,
+ * so the sketches cost no extra pass over the population and do not depend on the number of threads. Sketches of
+ * different years, replicas or patches can be merged in the same way.</p>
+ *
+ * <p>{@link #toByteArray()} serializes the sketches, little-endian: a magic number and version, the year, and for
+ * every trait in declaration order its histogram followed by its quantile sketch.</p>
+ */
+public class TraitSketches {
+    private static final int MAGIC = 0x424E5954; // "BNYT"
+    private static final int VERSION = 1;
+
+    /**
+     * The traits that are sketched, with the range and number of bins of their histograms.
+     */
+    public enum Trait {
+        AGE(0, Bunny.MAX_AGE, Bunny.MAX_AGE),
+        HEALTH(0, 100, 20),
+        REPRODUCTION_RATE(0, 1, 20),
+        MUTATION_RATE(0, 1, 20);
+
+        private final double lower;
+        private final double upper;
+        private final int bins;
+
+        Trait(double lower, double upper, int bins) {
+            this.lower = lower;
+            this.upper = upper;
+            this.bins = bins;
+        }
+    }
+
+    private static final Trait[] TRAITS = Trait.values();
+
+    private int year;
+    private final QuantileSketch[] quantiles = new QuantileSketch[TRAITS.length];
+    private final FixedHistogram[] histograms = new FixedHistogram[TRAITS.length];
+
+    /**
+     * Creates empty sketches.
+     */
+    public TraitSketches() {
+        for (Trait trait : TRAITS) {
+            quantiles[trait.ordinal()] = new QuantileSketch();
+            histograms[trait.ordinal()] = new FixedHistogram(trait.lower, trait.upper, trait.bins);
+        }
+    }
+
+    private TraitSketches(int year, QuantileSketch[] quantiles, FixedHistogram[] histograms) {
+        this.year = year;
+        System.arraycopy(quantiles, 0, this.quantiles, 0, quantiles.length);
+        System.arraycopy(histograms, 0, this.histograms, 0, histograms.length);
+    }
+
+    /**
+     * Adds one bunny.
+     */
+    public void add(int age, double health, double reproductionRate, double mutationRate) {
+        add(Trait.AGE, age);
+        add(Trait.HEALTH, health);
+        add(Trait.REPRODUCTION_RATE, reproductionRate);
+        add(Trait.MUTATION_RATE, mutationRate);
+    }
+
+    private void add(Trait trait, double value) {
+        quantiles[trait.ordinal()].add(value);
+        histograms[trait.ordinal()].add(value);
+    }
+
+    /**
+     * Adds the bunnies summarized by other sketches to these.
+     */
+    public void merge(TraitSketches other) {
+        for (int trait = 0; trait < TRAITS.length; trait++) {
+            quantiles[trait].merge(other.quantiles[trait]);
+            histograms[trait].merge(other.histograms[trait]);
+        }
+    }
+
+    void clear() {
+        for (int trait = 0; trait < TRAITS.length; trait++) {
+            quantiles[trait].clear();
+            histograms[trait].clear();
+        }
+    }
+
+    /**
+     * @return the year the sketches describe, at its end
+     */
+    public int getYear() {
+        return year;
+    }
+
+    void setYear(int year) {
+        this.year = year;
+    }
+
+    /**
+     * @return the number of bunnies sketched
+     */
+    public long getCount() {
+        return quantiles[0].getCount();
+    }
+
+    public QuantileSketch getQuantiles(Trait trait) {
+        return quantiles[trait.ordinal()];
+    }
+
+    public FixedHistogram getHistogram(Trait trait) {
+        return histograms[trait.ordinal()];
+    }
+
+    /**
+     * @return the serialized sketches, see {@link #fromByteArray(byte[])}
+     */
+    public byte[] toByteArray() {
+        int bytes = 3 * Integer.BYTES;
+        for (int trait = 0; trait < TRAITS.length; trait++) {
+            bytes += histograms[trait].serializedBytes() + quantiles[trait].serializedBytes();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(year);
+        for (int trait = 0; trait < TRAITS.length; trait++) {
+            histograms[trait].write(buffer);
+            quantiles[trait].write(buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Restores sketches written by {@link #toByteArray()}. They answer and merge like the original sketches.
+     *
+     * @throws IllegalArgumentException if the bytes are not serialized trait sketches
+     */
+    public static TraitSketches fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < 3 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not version " + VERSION + " trait sketches");
+        }
+        int year = buffer.getInt();
+        QuantileSketch[] quantiles = new QuantileSketch[TRAITS.length];
+        FixedHistogram[] histograms = new FixedHistogram[TRAITS.length];
+        for (int trait = 0; trait < TRAITS.length; trait++) {
+            histograms[trait] = FixedHistogram.read(buffer);
+            quantiles[trait] = QuantileSketch.read(buffer);
+        }
+        return new TraitSketches(year, quantiles, histograms);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bunny.simulation;
+
+/**
+ * Open/Closed Principle (OCP): observers of a running simulation, such as statistics collectors, plug in through
+ * this interface without changes to the yearly loop.
+ */
+@FunctionalInterface
+public interface YearListener {
+
+    /**
+     * Called at the end of every simulated year, once the state of the year is final.
+     *
+     * <p>Listeners run on the thread that runs the simulation, so they add directly to the duration of a year and
+     * should hand expensive work to another thread.</p>
+     *
+     * <p>The engine already counts the completed year, so {@link SimulationEngine#getYear()} returns
+     * {@code year + 1}, the next year to run. A checkpoint taken from a listener therefore resumes after the
+     * completed year instead of repeating it.</p>
+     *
+     * @param year the index of the completed year, counted from 0 since the simulation was created
+     * @param engine the simulation, to read the state at the end of the year
+     */
+    void yearCompleted(int year, SimulationEngine engine);
+}
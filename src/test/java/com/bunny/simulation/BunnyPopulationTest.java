@@ -0,0 +1,86 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BunnyPopulationTest {
+    private BunnyPopulation population;
+    private SplittableRandom random;
+
+    @BeforeEach
+    void setUp() {
+        population = new BunnyPopulation(2);
+        random = new SplittableRandom(42);
+    }
+
+    @Test
+    void testAddInitialAttributes() {
+        int slot = population.add(3, random);
+        assertEquals(1, population.size(), "Population should contain the new bunny.");
+        assertEquals(0, population.getAge(slot), "Initial age should be 0.");
+        assertEquals(3, population.getGeneration(slot), "Generation should be the one given.");
+        assertEquals(100.0, population.getHealth(slot), "Initial health should be 100.");
+        assertTrue(population.isAlive(slot), "New bunny should be alive.");
+        assertTrue(population.getReproductionRate(slot) >= 0.5 && population.getReproductionRate(slot) <= 1.0,
+                "Reproduction rate should be between 0.5 and 1.0.");
+    }
+
+    @Test
+    void testColumnsGrowBeyondInitialCapacity() {
+        for (int i = 0; i < 100; i++) {
+            population.add(0, random);
+        }
+        assertEquals(100, population.size(), "Population should grow past its initial capacity.");
+        assertEquals(100, population.slotLimit(), "Slots should be handed out densely.");
+    }
+
+    @Test
+    void testRemovedSlotIsReused() {
+        int first = population.add(0, random);
+        population.add(0, random);
+        population.remove(first);
+
+        assertEquals(1, population.size(), "Removed bunny should no longer be counted.");
+        assertFalse(population.isOccupied(first), "Removed slot should be free.");
+
+        int reused = population.add(1, random);
+        assertEquals(first, reused, "A birth should reuse the freed slot.");
+        assertEquals(2, population.slotLimit(), "Reusing a slot should not extend the slot range.");
+        assertEquals(1, population.getGeneration(reused), "Reused slot should hold the new bunny's attributes.");
+    }
+
+    @Test
+    void testReproduceAddsOffspringToPopulation() {
+        int parent = population.add(0, random);
+        population.ageOneYear(parent);
+        assertEquals(-1, population.reproduce(parent, random), "Bunny should not reproduce before reproduction age.");
+
+        population.ageOneYear(parent);
+        int offspring = population.reproduce(parent, random);
+        assertTrue(offspring >= 0, "Bunny should reproduce at reproduction age.");
+        assertEquals(1, population.getGeneration(offspring), "Offspring should be one generation later.");
+        assertEquals(2, population.size(), "Offspring should be part of the population.");
+    }
+
+    @Test
+    void testViewsReflectColumns() {
+        int slot = population.add(0, random);
+        Bunny bunny = population.view(slot);
+        bunny.setHealth(42.0);
+        assertEquals(42.0, population.getHealth(slot), "Writes through a view should reach the columns.");
+        assertEquals(1, population.views().size(), "There should be one view per bunny.");
+    }
+
+    @Test
+    void testCapacityGrowthStopsAtTheLimit() {
+        assertEquals(32, BunnyPopulation.grownCapacity(16), "A full population should double its capacity.");
+        assertEquals(PopulationStorage.MAX_CAPACITY, BunnyPopulation.grownCapacity(1 << 30),
+                "Doubling past the limit should stop at the limit instead of overflowing.");
+        assertThrows(IllegalStateException.class, () -> BunnyPopulation.grownCapacity(PopulationStorage.MAX_CAPACITY),
+                "A population at the limit should refuse to grow.");
+    }
+}
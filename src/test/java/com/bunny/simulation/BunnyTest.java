@@ -1,3 +1,5 @@
+package com.bunny.simulation;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
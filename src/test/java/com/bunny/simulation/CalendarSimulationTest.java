@@ -0,0 +1,67 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarSimulationTest {
+
+    @Test
+    void testMatchesPerBunnySimulationForSameSeed() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Simulation simulation = new Simulation(20, 100, seed);
+            CalendarSimulation calendar = new CalendarSimulation(20, 100, seed);
+            for (int year = 0; year < 20; year++) {
+                simulation.runSimulation(1);
+                calendar.runSimulation(1);
+                assertEquals(simulation.getPopulationSize(), calendar.getPopulationSize(),
+                        "Population sizes should match in year " + year + " for seed " + seed);
+                assertEquals(simulation.getEnvironment().getResourceAvailability(),
+                        calendar.getEnvironment().getResourceAvailability(), 1e-9,
+                        "Resource levels should match in year " + year + " for seed " + seed);
+                assertEquals(simulation.getPopulation().getStatistics().getMeanHealth(), calendar.getMeanHealth(),
+                        1e-9, "Mean health should match in year " + year + " for seed " + seed);
+                assertEquals(simulation.getMeanGeneration(), calendar.getMeanGeneration(), 1e-9,
+                        "Mean generations should match in year " + year + " for seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesCohortSimulationForSameSeed() {
+        CohortSimulation cohorts = new CohortSimulation(5_000, 20_000, 8L);
+        CalendarSimulation calendar = new CalendarSimulation(5_000, 20_000, 8L);
+        for (int year = 0; year < 12; year++) {
+            cohorts.runSimulation(1);
+            calendar.runSimulation(1);
+            assertEquals(cohorts.getPopulationSize(), calendar.getPopulationSize(),
+                    "Population sizes should match in year " + year);
+            assertEquals(cohorts.getDeadCount(), calendar.getDeadCount(), "Deaths should match in year " + year);
+        }
+    }
+
+    @Test
+    void testHealthIsComputedFromAccumulatedDecline() {
+        CalendarSimulation calendar = new CalendarSimulation(10, 1_000, 4L);
+        calendar.runSimulation(3);
+        long youngest = calendar.getPopulationSize() - 1;
+        double oldestHealth = calendar.getHealth(0);
+        assertEquals(100.0 - calendar.getHealthOffset(), oldestHealth, 1e-9,
+                "The initial bunnies should have lost the decline of every year.");
+        assertEquals(3, calendar.getAge(0), "The initial bunnies should be as old as the simulation.");
+        assertEquals(0, calendar.getAge(youngest), "The youngest bunnies should be born in the last year.");
+        assertTrue(calendar.getHealth(youngest) > oldestHealth, "Younger bunnies should be healthier.");
+        assertEquals(1, calendar.getGeneration(youngest), "Offspring should be one generation after their parents.");
+    }
+
+    @Test
+    void testBunniesDieAtMaximumAge() {
+        CalendarSimulation calendar = new CalendarSimulation(10, 1_000_000, 6L);
+        calendar.runSimulation(Bunny.MAX_AGE + 3);
+        for (long bunny = 0; bunny < calendar.getPopulationSize(); bunny++) {
+            assertTrue(calendar.getAge(bunny) < Bunny.MAX_AGE, "No living bunny should reach the maximum age.");
+        }
+        assertTrue(calendar.getDeadCount() >= 10, "The initial bunnies should have died of age.");
+        assertTrue(calendar.getEntryCount() <= Bunny.MAX_AGE, "Only the years of living bunnies should be kept.");
+    }
+}
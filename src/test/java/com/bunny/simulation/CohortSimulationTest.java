@@ -0,0 +1,47 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CohortSimulationTest {
+
+    @Test
+    void testMatchesPerBunnySimulationForSameSeed() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Simulation simulation = new Simulation(20, 100, seed);
+            CohortSimulation cohorts = new CohortSimulation(20, 100, seed);
+            for (int year = 0; year < 15; year++) {
+                simulation.runSimulation(1);
+                cohorts.runSimulation(1);
+                assertEquals(simulation.getPopulationSize(), cohorts.getPopulationSize(),
+                        "Population sizes should match in year " + year + " for seed " + seed);
+                assertEquals(simulation.getEnvironment().getResourceAvailability(),
+                        cohorts.getEnvironment().getResourceAvailability(), 1e-9,
+                        "Resource levels should match in year " + year + " for seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testCostDependsOnCohortsNotBunnies() {
+        CohortSimulation cohorts = new CohortSimulation(2_000_000_000L, 2_000_000_000, 3L);
+        long peak = 0;
+        for (int year = 0; year < 10; year++) {
+            cohorts.runSimulation(1);
+            peak = Math.max(peak, cohorts.getPopulationSize());
+        }
+        // Dead bunnies are removed every year, so the population shrinks again when a generation dies of age.
+        assertTrue(peak > 2_000_000_000L, "A population of billions should be simulated.");
+        assertTrue(cohorts.getCohortCount() < 1000, "The number of cohorts should stay small.");
+    }
+
+    @Test
+    void testMutatedShareMatchesMutationRate() {
+        CohortSimulation cohorts = new CohortSimulation(1_000_000, 10_000_000, 5L);
+        cohorts.runSimulation(3);
+        // Mutated offspring have a mean mutation rate of 0.05625 instead of 0.05.
+        assertTrue(cohorts.getMeanMutationRate() > 0.05, "Some offspring should have mutated.");
+        assertTrue(cohorts.getMeanMutationRate() < 0.051, "Only about 5% of the offspring should have mutated.");
+    }
+}
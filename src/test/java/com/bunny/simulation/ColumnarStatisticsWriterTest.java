@@ -0,0 +1,68 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarStatisticsWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsAreReadBackAcrossBlocks() throws IOException {
+        Path file = directory.resolve("stats.bin");
+        int records = 1000;
+        try (ColumnarStatisticsWriter writer = new ColumnarStatisticsWriter(file, 4096, 64)) {
+            for (int year = 0; year < records; year++) {
+                writer.record(year, 10L * year, year / 2.0, 500, year % 4 == 3 ? StatisticsSink.NO_EVENT : year % 3);
+            }
+        }
+
+        ColumnarStatisticsReader reader = ColumnarStatisticsReader.read(file);
+        assertEquals(records, reader.size(), "All records should be read back.");
+        for (int i = 0; i < records; i++) {
+            assertEquals(i, reader.getYear(i), "Years should be read back in order.");
+            assertEquals(10L * i, reader.getPopulation(i), "Populations should be read back.");
+            assertEquals(i / 2.0, reader.getResourceLevel(i), "Resource levels should be read back.");
+            assertEquals(500, reader.getCarryingCapacity(i), "Carrying capacities should be read back.");
+            assertEquals(i % 4 == 3 ? StatisticsSink.NO_EVENT : i % 3, reader.getEventType(i),
+                    "Event types should be read back.");
+        }
+    }
+
+    @Test
+    void testExportMatchesCsvSink() throws IOException {
+        Path file = directory.resolve("stats.bin");
+        StringBuilder expected = new StringBuilder();
+        Simulation simulation = new Simulation(50, 200, 5L);
+        CsvStatisticsSink csv = new CsvStatisticsSink(expected);
+        ColumnarStatisticsWriter writer = new ColumnarStatisticsWriter(file);
+        simulation.addYearListener(csv);
+        simulation.addYearListener(writer);
+        simulation.runSimulation(8);
+        writer.close();
+        assertEquals(0, writer.getDroppedRecords(), "No records should be dropped for a short run.");
+
+        Path csvFile = directory.resolve("stats.csv");
+        ColumnarStatisticsReader.exportCsv(file, csvFile);
+        List<String> lines = Files.readAllLines(csvFile);
+        assertEquals(9, lines.size(), "The export should have a header and one line per year.");
+        assertEquals(List.of(expected.toString().split(System.lineSeparator())), lines,
+                "The export should match the lines of the CSV sink.");
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> ColumnarStatisticsReader.read(file),
+                "Reading a file without the statistics header should fail.");
+    }
+}
@@ -0,0 +1,113 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConvergenceMonitorTest {
+
+    /**
+     * An engine whose population follows a given function of the year, in a constant environment.
+     */
+    private static final class ScriptedEngine implements SimulationEngine {
+        private final IntToLongFunction population;
+        private final Environment environment = new Environment(1000, new RandomSource(1L));
+        private int year;
+
+        ScriptedEngine(IntToLongFunction population) {
+            this.population = population;
+        }
+
+        @Override
+        public void runSimulation(int years) {
+            year += years;
+        }
+
+        @Override
+        public long getPopulationSize() {
+            return population.applyAsLong(year - 1);
+        }
+
+        @Override
+        public Environment getEnvironment() {
+            return environment;
+        }
+
+        @Override
+        public double getMeanGeneration() {
+            return 0;
+        }
+
+        @Override
+        public int getYear() {
+            return year;
+        }
+
+        @Override
+        public void addYearListener(YearListener listener) {
+        }
+    }
+
+    @Test
+    void testStopsAtExtinction() {
+        Simulation simulation = new Simulation(100, 1000, 1L);
+        ConvergenceMonitor.Result result = new ConvergenceMonitor(20, 0.01).run(simulation, 10_000);
+
+        assertEquals(ConvergenceMonitor.Regime.EXTINCTION, result.getRegime(), "The population should die out.");
+        assertEquals(0, simulation.getPopulationSize(), "The run should stop once no bunny is left.");
+        assertEquals(simulation.getYear(), result.getYearsRun(), "The simulation should stop where it went extinct.");
+        assertEquals(10_000, result.getYearsRun() + result.getYearsSkipped(),
+                "The skipped years should complete the horizon.");
+        assertEquals(0, result.getProjectedPopulation(), "An extinct population should stay extinct.");
+    }
+
+    @Test
+    void testRecognizesAFixedPoint() {
+        ScriptedEngine engine = new ScriptedEngine(year -> year < 30 ? 100 + 10L * year : 400);
+        ConvergenceMonitor.Result result = new ConvergenceMonitor(10, 0.01).run(engine, 1000);
+
+        assertEquals(ConvergenceMonitor.Regime.FIXED_POINT, result.getRegime(), "A constant population should settle.");
+        assertEquals(40, result.getYearsRun(), "The fixed point should be recognized after one window.");
+        assertEquals(960, result.getYearsSkipped(), "The rest of the horizon should be skipped.");
+        assertEquals(400, result.getProjectedPopulation(), "The projection should stay at the fixed point.");
+    }
+
+    @Test
+    void testRecognizesACycleAndProjectsItsPhase() {
+        long[] cycle = {100, 250, 400};
+        ScriptedEngine engine = new ScriptedEngine(year -> year < 7 ? 50 : cycle[year % 3]);
+        ConvergenceMonitor.Result result = new ConvergenceMonitor(12, 0.001).run(engine, 500);
+
+        assertEquals(ConvergenceMonitor.Regime.CYCLE, result.getRegime(), "A repeating population should be a cycle.");
+        assertEquals(3, result.getPeriod(), "The shortest repeating period should be found.");
+        assertEquals(500, result.getYearsRun() + result.getYearsSkipped(), "The horizon should be accounted for.");
+        assertEquals(cycle[499 % 3], result.getProjectedPopulation(),
+                "The projection should land on the phase of the cycle in the final year.");
+    }
+
+    @Test
+    void testRecognizesAStationaryDistribution() {
+        ScriptedEngine engine = new ScriptedEngine(year -> 1000 + new SplittableRandom(year).nextInt(-50, 51));
+        ConvergenceMonitor monitor = new ConvergenceMonitor(200, 0.02);
+        monitor.setMaxPeriod(0);
+        ConvergenceMonitor.Result result = monitor.run(engine, 5000);
+
+        assertEquals(ConvergenceMonitor.Regime.STATIONARY, result.getRegime(),
+                "Noise around a constant mean should be stationary.");
+        assertEquals(1000, result.getProjectedPopulation(), 20, "The projection should be the mean of the window.");
+    }
+
+    @Test
+    void testRunsTheWholeHorizonWithoutARegime() {
+        ScriptedEngine engine = new ScriptedEngine(year -> 100L + year * year);
+        ConvergenceMonitor.Result result = new ConvergenceMonitor(10, 0.01).run(engine, 300);
+
+        assertEquals(ConvergenceMonitor.Regime.NONE, result.getRegime(), "A growing population should not settle.");
+        assertEquals(300, result.getYearsRun(), "Every year of the horizon should be run.");
+        assertEquals(0, result.getYearsSkipped(), "No year should be skipped.");
+        assertEquals(300, engine.getYear(), "The engine should reach the horizon.");
+    }
+}
@@ -0,0 +1,85 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FitnessIndexTest {
+
+    @Test
+    void testDrawsAreProportionalToFitness() {
+        BunnyPopulation population = new BunnyPopulation(8, new RandomSource(1L));
+        SplittableRandom random = new SplittableRandom(1L);
+        double[] health = {10.0, 20.0, 30.0, 40.0};
+        for (double value : health) {
+            int slot = population.add(0, random);
+            population.setAge(slot, Bunny.REPRODUCTION_AGE);
+            population.setHealth(slot, value);
+        }
+        population.add(0, random); // too young to reproduce
+        FitnessIndex index = new FitnessIndex(population);
+
+        double[] weights = new double[health.length];
+        double total = 0;
+        for (int slot = 0; slot < health.length; slot++) {
+            weights[slot] = index.getFitness(slot, 1.0);
+            total += weights[slot];
+        }
+        assertEquals(total, index.getTotalWeight(), 1e-9, "The total weight should sum all reproducing bunnies.");
+        assertEquals(0, index.getFitness(4, 1.0), "A bunny that cannot reproduce should have no weight.");
+
+        int draws = 200_000;
+        int[] counts = new int[5];
+        for (int i = 0; i < draws; i++) {
+            counts[index.sample(random)]++;
+        }
+        assertEquals(0, counts[4], "A bunny that cannot reproduce should never be drawn.");
+        for (int slot = 0; slot < health.length; slot++) {
+            assertEquals(weights[slot] / total, (double) counts[slot] / draws, 0.01,
+                    "Slot " + slot + " should be drawn in proportion to its fitness.");
+        }
+    }
+
+    @Test
+    void testPointUpdatesMatchRebuild() {
+        Simulation simulation = new Simulation(200, 1000, 6L);
+        simulation.runSimulation(4);
+        BunnyPopulation population = simulation.getPopulation();
+        FitnessIndex index = new FitnessIndex(population);
+        index.rebuild();
+
+        int changed = 0;
+        for (int slot = 0; slot < population.slotLimit() && changed < 20; slot++) {
+            if (population.isOccupied(slot) && population.canReproduce(slot)) {
+                population.setHealth(slot, population.getHealth(slot) / 2);
+                changed++;
+            }
+        }
+        population.remove(population.slotLimit() - 1);
+        assertTrue(index.isValid(), "Single-bunny changes should update the index rather than invalidate it.");
+        double updated = index.getTotalWeight();
+        index.rebuild();
+        assertEquals(index.getTotalWeight(), updated, 1e-6 * updated, "Updates should match a rebuilt index.");
+
+        simulation.runSimulation(1);
+        assertFalse(index.isValid(), "A simulated year should invalidate the index.");
+    }
+
+    @Test
+    void testNaturalSelectionDrawsTheRequestedParents() {
+        Simulation first = new Simulation(100, 1000, 4L);
+        Simulation second = new Simulation(100, 1000, 4L);
+        first.runSimulation(3);
+        second.runSimulation(3);
+        long before = first.getPopulationSize();
+        int born = first.naturalSelection(25);
+        second.naturalSelection(25);
+        assertEquals(25, born, "Every drawn parent should have one offspring.");
+        assertEquals(before + 25, first.getPopulationSize(), "The offspring should join the population.");
+        assertEquals(first.getMeanGeneration(), second.getMeanGeneration(),
+                "Selection should be reproducible for the same seed.");
+        assertEquals(25, first.naturalSelection(25), "Repeated selections should reuse the index.");
+    }
+}
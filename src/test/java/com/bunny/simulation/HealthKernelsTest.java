@@ -0,0 +1,51 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthKernelsTest {
+
+    @Test
+    void testBatchFitnessMatchesTheBunnies() {
+        Simulation simulation = new Simulation(200, 1000, 8L);
+        simulation.runSimulation(3);
+        Environment environment = simulation.getEnvironment();
+        BunnyPopulation population = simulation.getPopulation();
+        double[] health = new double[population.slotLimit()];
+        double[] reproductionRate = new double[health.length];
+        double[] mutationRate = new double[health.length];
+        for (int slot = 0; slot < health.length; slot++) {
+            health[slot] = population.getHealth(slot);
+            reproductionRate[slot] = population.getReproductionRate(slot);
+            mutationRate[slot] = population.getMutationRate(slot);
+        }
+        double[] fitness = HealthKernels.calculateFitness(environment, health, reproductionRate, mutationRate);
+        for (int slot = 0; slot < health.length; slot++) {
+            if (population.isOccupied(slot)) {
+                assertEquals(population.view(slot).calculateFitness(environment), fitness[slot],
+                        "The batch fitness should equal the fitness of each bunny.");
+            }
+        }
+    }
+
+    @Test
+    void testHeapAndOffHeapPopulationsStayIdentical() throws Exception {
+        Simulation heap = new Simulation(100, 800, 12L);
+        try (PopulationStorage storage = PopulationStorage.offHeap()) {
+            Simulation offHeap = new Simulation(100, 800, 12L, storage);
+            heap.runSimulation(10);
+            offHeap.runSimulation(10);
+            assertEquals(heap.getPopulationSize(), offHeap.getPopulationSize(),
+                    "The kernels should not change the course of a simulation.");
+            BunnyPopulation expected = offHeap.getPopulation();
+            BunnyPopulation actual = heap.getPopulation();
+            for (int slot = 0; slot < expected.slotLimit(); slot++) {
+                assertEquals(expected.getHealth(slot), actual.getHealth(slot),
+                        "The kernels should compute the same health as the per-slot path.");
+            }
+            assertEquals(expected.getStatistics().getHealthVariance(), actual.getStatistics().getHealthVariance(),
+                    "The kernels should sum the health in the same order as the per-slot path.");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineageLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsEveryBirthOfASimulation() {
+        Simulation simulation = new Simulation(20, 200, 9L);
+        LineageLog lineage = new LineageLog();
+        simulation.setLineageLog(lineage);
+        assertEquals(20, lineage.size(), "The initial bunnies should be recorded as founders.");
+        simulation.runSimulation(12);
+
+        BunnyPopulation population = simulation.getPopulation();
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (!population.isOccupied(slot)) {
+                continue;
+            }
+            long id = population.getId(slot);
+            long[] ancestors = lineage.ancestors(id);
+            assertEquals(population.getGeneration(slot), ancestors.length,
+                    "A bunny should have one ancestor per generation.");
+            if (ancestors.length > 0) {
+                assertEquals(LineageLog.NO_PARENT, lineage.getParent(ancestors[ancestors.length - 1]),
+                        "Every lineage should end at a founder.");
+            }
+            assertEquals(population.getMutationRate(slot), lineage.getMutationRate(id),
+                    "The recorded mutation rate should be the one the bunny was born with.");
+        }
+    }
+
+    @Test
+    void testExtinctionMatchesLivingDescendants() {
+        Simulation simulation = new Simulation(20, 60, 4L);
+        LineageLog lineage = new LineageLog();
+        simulation.setLineageLog(lineage);
+        simulation.runSimulation(15);
+
+        BunnyPopulation population = simulation.getPopulation();
+        Set<Long> foundersWithLivingDescendants = new HashSet<>();
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (population.isOccupied(slot) && population.isAlive(slot)) {
+                long[] ancestors = lineage.ancestors(population.getId(slot));
+                foundersWithLivingDescendants.add(ancestors.length == 0
+                        ? population.getId(slot) : ancestors[ancestors.length - 1]);
+            }
+        }
+        for (long founder = 0; founder < 20; founder++) {
+            assertEquals(!foundersWithLivingDescendants.contains(founder), lineage.isExtinct(founder, population),
+                    "Founder " + founder + " should be extinct exactly when no living bunny descends from it.");
+        }
+    }
+
+    @Test
+    void testQueriesSpanSpilledChunks() throws IOException {
+        int records = LineageLog.CHUNK_RECORDS * 3 + 5;
+        try (LineageLog lineage = new LineageLog(directory, 1)) {
+            // A binary tree: the parent of bunny i is bunny (i - 1) / 2.
+            for (long id = 0; id < records; id++) {
+                long parent = id == 0 ? LineageLog.NO_PARENT : (id - 1) / 2;
+                lineage.append(id, parent, 63 - Long.numberOfLeadingZeros(id + 1), id * 0.001);
+            }
+            assertEquals(LineageLog.CHUNK_RECORDS * 3L, lineage.spilledRecords(), "Full chunks should be spilled.");
+            try (var files = Files.list(directory)) {
+                assertEquals(1, files.count(), "Spilled chunks should be kept in a file.");
+            }
+
+            long leaf = records - 1;
+            long[] ancestors = lineage.ancestors(leaf);
+            assertEquals(63 - Long.numberOfLeadingZeros(leaf + 1), ancestors.length,
+                    "A leaf should have one ancestor per tree level.");
+            assertEquals(0, ancestors[ancestors.length - 1], "The root should be the last ancestor.");
+            assertEquals(leaf * 0.001, lineage.getMutationRate(leaf), 1e-12, "Records should keep their values.");
+            assertEquals(3 * 0.001, lineage.getMutationRate(3), 1e-12, "Spilled records should keep their values.");
+
+            assertEquals(1, lineage.mostRecentCommonAncestor(3, 4), "Siblings should share their parent.");
+            long otherSubtree = 3 - ancestors[ancestors.length - 2];
+            assertEquals(0, lineage.mostRecentCommonAncestor(leaf, otherSubtree),
+                    "Opposite subtrees should meet at the root.");
+            assertEquals(2, lineage.mostRecentCommonAncestor(2, 6), "An ancestor should be its own common ancestor.");
+
+            assertEquals(records - 1, lineage.forEachDescendant(0, id -> { }), "Every bunny should descend from the root.");
+            long node = 5;
+            long expected = 0;
+            for (long id = node + 1; id < records; id++) {
+                long ancestor = id;
+                while (ancestor > node) {
+                    ancestor = (ancestor - 1) / 2;
+                }
+                if (ancestor == node) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, lineage.forEachDescendant(node, id -> { }),
+                    "The subtree of a node should be its descendants.");
+            assertFalse(lineage.contains(records), "Unrecorded ids should not be found.");
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count(), "Closing the log should delete the spill file.");
+        }
+    }
+
+    @Test
+    void testLogsSharingADirectoryKeepTheirOwnFiles() throws IOException {
+        Path unrelated = Files.writeString(directory.resolve("lineage.log"), "not a spill file");
+        int records = LineageLog.CHUNK_RECORDS * 2 + 1;
+        try (LineageLog first = new LineageLog(directory, 1)) {
+            try (LineageLog second = new LineageLog(directory, 1)) {
+                for (long id = 0; id < records; id++) {
+                    first.append(id, LineageLog.NO_PARENT, 0, 0.1);
+                    second.append(id, LineageLog.NO_PARENT, 0, 0.2);
+                }
+            }
+            assertEquals(0.1, first.getMutationRate(0), "Closing one log should not touch the spill file of another.");
+            assertEquals(0.1, first.getMutationRate(LineageLog.CHUNK_RECORDS),
+                    "Logs in the same directory should not overwrite each other's chunks.");
+        }
+        assertEquals("not a spill file", Files.readString(unrelated), "Other files should be left alone.");
+    }
+
+    @Test
+    void testCheckpointKeepsIds() throws IOException {
+        Simulation original = new Simulation(30, 100, 2L);
+        original.runSimulation(4);
+        Path file = directory.resolve("ids.bin");
+        SimulationCheckpoint.write(original, file);
+        Simulation restored = SimulationCheckpoint.read(file);
+
+        BunnyPopulation expected = original.getPopulation();
+        BunnyPopulation actual = restored.getPopulation();
+        for (int slot = 0; slot < expected.slotLimit(); slot++) {
+            assertEquals(expected.getId(slot), actual.getId(slot), "Ids should be restored in slot " + slot);
+        }
+        original.runSimulation(2);
+        restored.runSimulation(2);
+        for (int slot = 0; slot < expected.slotLimit(); slot++) {
+            assertEquals(expected.getId(slot), actual.getId(slot), "New ids should continue the same way.");
+        }
+    }
+}
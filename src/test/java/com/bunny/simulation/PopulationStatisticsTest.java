@@ -0,0 +1,87 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopulationStatisticsTest {
+
+    @Test
+    void testStatisticsMatchAFullScanAfterEveryYear() {
+        Simulation simulation = new Simulation(300, 1500, 12L);
+        simulation.setChunkSize(100);
+        simulation.setParallelism(3);
+        for (int year = 0; year < 10; year++) {
+            simulation.runSimulation(1);
+            assertMatchesScan(simulation.getPopulation());
+            assertEquals(simulation.getPopulation().getStatistics().getAliveCount(),
+                    simulation.getEnvironment().getCurrentPopulation(),
+                    "The environment should count the living bunnies, without drifting.");
+        }
+        simulation.naturalSelection();
+        assertMatchesScan(simulation.getPopulation());
+    }
+
+    @Test
+    void testStatisticsFollowSettersAndRemovals() {
+        BunnyPopulation population = new BunnyPopulation(8, new RandomSource(2L));
+        SplittableRandom random = new SplittableRandom(2L);
+        int first = population.add(0, random);
+        int second = population.add(1, random);
+        population.add(1, random);
+        population.setHealth(first, 40.0);
+        population.setAge(second, 3);
+        population.adjustHealth(0, population.slotLimit(), -7.5);
+        assertMatchesScan(population);
+
+        population.remove(second);
+        assertMatchesScan(population);
+        assertEquals(2, population.getStatistics().getAliveCount(), "Removing a bunny should reduce the count.");
+        assertEquals(1, population.getStatistics().getGenerationCount(1), "One bunny of generation 1 should remain.");
+
+        population.setAge(first, Bunny.MAX_AGE - 1);
+        population.ageOneYear(first);
+        assertMatchesScan(population);
+        assertEquals(0, population.getStatistics().getAgeCount(Bunny.MAX_AGE), "Dead bunnies should not be counted.");
+    }
+
+    private static void assertMatchesScan(BunnyPopulation population) {
+        long alive = 0;
+        double ageSum = 0;
+        double generationSum = 0;
+        double healthSum = 0;
+        double healthSquareSum = 0;
+        double mutationSum = 0;
+        long[] ages = new long[64];
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (population.isOccupied(slot) && population.isAlive(slot)) {
+                alive++;
+                ages[population.getAge(slot)]++;
+                ageSum += population.getAge(slot);
+                generationSum += population.getGeneration(slot);
+                healthSum += population.getHealth(slot);
+                healthSquareSum += population.getHealth(slot) * population.getHealth(slot);
+                mutationSum += population.getMutationRate(slot);
+            }
+        }
+        PopulationStatistics statistics = population.getStatistics();
+        assertEquals(alive, statistics.getAliveCount(), "The alive count should match a scan.");
+        for (int age = 0; age < ages.length; age++) {
+            assertEquals(ages[age], statistics.getAgeCount(age), "The age histogram should match at age " + age);
+        }
+        if (alive == 0) {
+            return;
+        }
+        double meanHealth = healthSum / alive;
+        assertEquals(ageSum / alive, statistics.getMeanAge(), 1e-9, "The mean age should match a scan.");
+        assertEquals(generationSum / alive, statistics.getMeanGeneration(), 1e-9,
+                "The mean generation should match a scan.");
+        assertEquals(meanHealth, statistics.getMeanHealth(), 1e-6, "The mean health should match a scan.");
+        assertEquals(healthSquareSum / alive - meanHealth * meanHealth, statistics.getHealthVariance(), 1e-4,
+                "The health variance should match a scan.");
+        assertEquals(mutationSum / alive, statistics.getMeanMutationRate(), 1e-9,
+                "The mean mutation rate should match a scan.");
+    }
+}
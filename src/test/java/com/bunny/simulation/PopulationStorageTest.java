@@ -0,0 +1,102 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PopulationStorageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOffHeapSimulationMatchesHeapSimulation() throws IOException {
+        Simulation heap = new Simulation(200, 800, 13L);
+        try (PopulationStorage storage = PopulationStorage.offHeap()) {
+            Simulation offHeap = new Simulation(200, 800, 13L, storage);
+            heap.runSimulation(12);
+            offHeap.runSimulation(12);
+            assertSamePopulation(heap.getPopulation(), offHeap.getPopulation());
+        }
+    }
+
+    @Test
+    void testMappedSimulationMatchesHeapSimulationAndDeletesFiles() throws IOException {
+        Simulation heap = new Simulation(200, 800, 13L);
+        try (PopulationStorage storage = PopulationStorage.mapped(directory)) {
+            Simulation mapped = new Simulation(200, 800, 13L, storage);
+            heap.runSimulation(12);
+            mapped.runSimulation(12);
+            assertSamePopulation(heap.getPopulation(), mapped.getPopulation());
+            assertTrue(Files.exists(directory.resolve("health.column")), "Columns should be kept in files.");
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count(), "Closing the storage should delete its files.");
+        }
+    }
+
+    @Test
+    void testCheckpointMovesBetweenStorages() throws IOException {
+        Path heapCheckpoint = directory.resolve("heap.bin");
+        Path offHeapCheckpoint = directory.resolve("off-heap.bin");
+        Simulation original = new Simulation(150, 600, 7L);
+        original.runSimulation(5);
+        SimulationCheckpoint.write(original, heapCheckpoint);
+
+        try (PopulationStorage storage = PopulationStorage.offHeap()) {
+            Simulation offHeap = SimulationCheckpoint.read(heapCheckpoint, storage);
+            assertSamePopulation(original.getPopulation(), offHeap.getPopulation());
+            SimulationCheckpoint.write(offHeap, offHeapCheckpoint);
+        }
+        assertArrayEquals(Files.readAllBytes(heapCheckpoint), Files.readAllBytes(offHeapCheckpoint),
+                "An off-heap population should write the same checkpoint as a heap population.");
+
+        Simulation restored = SimulationCheckpoint.read(offHeapCheckpoint);
+        original.runSimulation(5);
+        restored.runSimulation(5);
+        assertSamePopulation(original.getPopulation(), restored.getPopulation());
+    }
+
+    @Test
+    void testOffHeapColumnsSpanChunks() {
+        try (PopulationStorage storage = PopulationStorage.offHeap()) {
+            storage.grow(16);
+            storage.setHealth(3, 42.0);
+            storage.grow(OffHeapStorage.CHUNK_SLOTS + 16);
+            assertEquals(42.0, storage.getHealth(3), "Growing should keep the contents of the columns.");
+
+            int last = OffHeapStorage.CHUNK_SLOTS + 15;
+            storage.setAge(last, 5);
+            storage.setMutationRate(last, 0.25);
+            storage.setAlive(last, true);
+            storage.setFreeSlot(last, 77);
+            assertEquals(5, storage.getAge(last), "Values in the second chunk should be kept.");
+            assertEquals(0.25, storage.getMutationRate(last), "Values in the second chunk should be kept.");
+            assertTrue(storage.isAlive(last), "Values in the second chunk should be kept.");
+            assertEquals(77, storage.getFreeSlot(last), "Values in the second chunk should be kept.");
+            assertFalse(storage.isOccupied(last), "New slots should be empty.");
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private static void assertSamePopulation(BunnyPopulation expected, BunnyPopulation actual) {
+        assertEquals(expected.size(), actual.size(), "Population sizes should match.");
+        assertEquals(expected.slotLimit(), actual.slotLimit(), "Slot limits should match.");
+        for (int slot = 0; slot < expected.slotLimit(); slot++) {
+            assertEquals(expected.isOccupied(slot), actual.isOccupied(slot), "Occupancy should match in slot " + slot);
+            assertEquals(expected.isAlive(slot), actual.isAlive(slot), "Liveness should match in slot " + slot);
+            assertEquals(expected.getAge(slot), actual.getAge(slot), "Age should match in slot " + slot);
+            assertEquals(expected.getHealth(slot), actual.getHealth(slot), "Health should match in slot " + slot);
+            assertEquals(expected.getMutationRate(slot), actual.getMutationRate(slot),
+                    "Mutation rate should match in slot " + slot);
+        }
+        assertEquals(expected.getStatistics().getMeanHealth(), actual.getStatistics().getMeanHealth(),
+                "Statistics should match.");
+    }
+}
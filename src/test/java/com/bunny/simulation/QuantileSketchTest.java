@@ -0,0 +1,43 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void testQuantilesOfUniformValues() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add(i);
+        }
+        assertEquals(100_000, sketch.getCount(), "Every value should be counted.");
+        assertEquals(50_000, sketch.quantile(0.5), 2_000, "Median should be close to the middle value.");
+        assertEquals(90_000, sketch.quantile(0.9), 2_000, "90th percentile should be close to 90000.");
+        assertEquals(0, sketch.quantile(0), "Quantile 0 should be the minimum.");
+        assertEquals(99_999, sketch.quantile(1), "Quantile 1 should be the maximum.");
+    }
+
+    @Test
+    void testMergedSketchesMatchOneSketch() {
+        SplittableRandom random = new SplittableRandom(1);
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        for (int i = 0; i < 50_000; i++) {
+            left.add(random.nextGaussian());
+            right.add(random.nextGaussian() + 10);
+        }
+        left.merge(right);
+        assertEquals(100_000, left.getCount(), "Merged sketch should count the values of both.");
+        assertEquals(0, left.quantile(0.25), 0.1, "Lower quartile should come from the first sketch.");
+        assertEquals(10, left.quantile(0.75), 0.1, "Upper quartile should come from the second sketch.");
+    }
+
+    @Test
+    void testEmptySketch() {
+        assertTrue(Double.isNaN(new QuantileSketch().quantile(0.5)), "An empty sketch has no quantiles.");
+    }
+}
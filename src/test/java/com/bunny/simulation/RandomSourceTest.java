@@ -0,0 +1,41 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomSourceTest {
+
+    @Test
+    void testSameEpochAndStreamRepeat() {
+        RandomSource source = new RandomSource(7);
+        long epoch = source.nextEpoch();
+        SplittableRandom first = source.stream(epoch, 3);
+        SplittableRandom second = source.stream(epoch, 3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first.nextLong(), second.nextLong(), "The same stream should repeat its values.");
+        }
+    }
+
+    @Test
+    void testStreamsDifferByIdAndEpoch() {
+        RandomSource source = new RandomSource(7);
+        long epoch = source.nextEpoch();
+        long value = source.stream(epoch, 0).nextLong();
+        assertNotEquals(value, source.stream(epoch, 1).nextLong(), "Streams of one epoch should differ.");
+        assertNotEquals(value, source.stream(source.nextEpoch(), 0).nextLong(), "Streams of two epochs should differ.");
+    }
+
+    @Test
+    void testSameSeedGivesSameSequenceOfStreams() {
+        RandomSource first = new RandomSource(11);
+        RandomSource second = new RandomSource(11);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(first.nextStream().nextLong(), second.nextStream().nextLong(),
+                    "Sources with the same seed should hand out the same streams.");
+        }
+        assertEquals(5, first.getEpoch(), "Each stream should advance the epoch.");
+    }
+}
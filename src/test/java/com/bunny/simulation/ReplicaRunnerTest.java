@@ -0,0 +1,80 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRunnerTest {
+
+    @Test
+    void testEveryReplicaReportsEveryYear() {
+        ReplicaRunner runner = new ReplicaRunner(seed -> new Simulation(10, 50, seed), 40, 12, 7L);
+        runner.setParallelism(4);
+        ReplicaStatistics statistics = runner.run();
+
+        assertEquals(12, statistics.getYears(), "There should be statistics for every year.");
+        for (int year = 0; year < 12; year++) {
+            assertEquals(40, statistics.getStatistics(ReplicaStatistics.Metric.POPULATION, year).getCount(),
+                    "Every replica should report year " + year);
+        }
+    }
+
+    @Test
+    void testBatchIsRepeatable() {
+        ReplicaStatistics first = new ReplicaRunner(seed -> new CohortSimulation(100, 2000, seed), 20, 10, 3L).run();
+        ReplicaStatistics second = new ReplicaRunner(seed -> new CohortSimulation(100, 2000, seed), 20, 10, 3L).run();
+        for (ReplicaStatistics.Metric metric : ReplicaStatistics.Metric.values()) {
+            assertEquals(first.getStatistics(metric, 9).getMean(), second.getStatistics(metric, 9).getMean(), 1e-9,
+                    "The same base seed should give the same " + metric);
+        }
+        assertTrue(first.getStatistics(ReplicaStatistics.Metric.RESOURCES, 5).getVariance() > 0,
+                "Replicas should differ from each other.");
+    }
+
+    @Test
+    void testStatisticsDoNotDependOnTheParallelism() {
+        ReplicaRunner sequential = new ReplicaRunner(seed -> new Simulation(20, 100, seed), 24, 8, 5L);
+        sequential.setParallelism(1);
+        ReplicaRunner parallel = new ReplicaRunner(seed -> new Simulation(20, 100, seed), 24, 8, 5L);
+        parallel.setParallelism(6);
+        ReplicaStatistics expected = sequential.run();
+        ReplicaStatistics actual = parallel.run();
+        for (ReplicaStatistics.Metric metric : ReplicaStatistics.Metric.values()) {
+            for (int year = 0; year < 8; year++) {
+                RunningStatistics expectedStatistics = expected.getStatistics(metric, year);
+                RunningStatistics actualStatistics = actual.getStatistics(metric, year);
+                assertEquals(expectedStatistics.getMean(), actualStatistics.getMean(),
+                        "Replicas should be recorded in the same order on any number of threads.");
+                assertEquals(expectedStatistics.getVariance(), actualStatistics.getVariance(),
+                        "Replicas should be recorded in the same order on any number of threads.");
+                assertEquals(expected.getQuantiles(metric, year).quantile(0.5),
+                        actual.getQuantiles(metric, year).quantile(0.5),
+                        "The sketches should see the replicas in the same order on any number of threads.");
+            }
+        }
+    }
+
+    @Test
+    void testFinishedReplicasWaitingForTheirTurnStayWithinTheWindow() {
+        AtomicBoolean first = new AtomicBoolean(true);
+        ReplicaRunner runner = new ReplicaRunner(seed -> {
+            if (first.getAndSet(false)) {
+                // Holds up the oldest replica, so the others run ahead until the window is full
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(300));
+            }
+            return new Simulation(10, 50, seed);
+        }, 200, 5, 9L);
+        runner.setParallelism(3);
+        ReplicaStatistics statistics = runner.run();
+
+        assertEquals(200, statistics.getStatistics(ReplicaStatistics.Metric.POPULATION, 4).getCount(),
+                "Every replica should be recorded.");
+        assertTrue(runner.getPeakWaitingReplicas() <= 3 * ReplicaRunner.WINDOW_PER_THREAD,
+                "No more replicas than the window should wait for their turn: " + runner.getPeakWaitingReplicas());
+        assertTrue(runner.getPeakWaitingReplicas() > 0, "Replicas should have run ahead of the held-up one.");
+    }
+}
@@ -0,0 +1,36 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningStatisticsTest {
+
+    @Test
+    void testMeanAndVariance() {
+        RunningStatistics statistics = new RunningStatistics();
+        for (double value : new double[] {2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistics.add(value);
+        }
+        assertEquals(8, statistics.getCount());
+        assertEquals(5.0, statistics.getMean(), 1e-12);
+        assertEquals(32.0 / 7, statistics.getVariance(), 1e-12, "Variance should be the sample variance.");
+        assertEquals(2, statistics.getMin());
+        assertEquals(9, statistics.getMax());
+    }
+
+    @Test
+    void testMergeMatchesSingleStream() {
+        RunningStatistics all = new RunningStatistics();
+        RunningStatistics left = new RunningStatistics();
+        RunningStatistics right = new RunningStatistics();
+        for (int i = 0; i < 100; i++) {
+            all.add(i * 0.5);
+            (i < 30 ? left : right).add(i * 0.5);
+        }
+        left.merge(right);
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        assertEquals(all.getVariance(), left.getVariance(), 1e-9);
+    }
+}
@@ -0,0 +1,148 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardCoordinatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testShardsWithoutMigrationMatchIndependentSimulations() throws Exception {
+        long expected = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            Simulation simulation = new Simulation(40, 200, ShardCoordinator.shardSeed(11L, shard));
+            simulation.runSimulation(6);
+            expected += simulation.getPopulationSize();
+        }
+        try (ShardCoordinator coordinator = new ShardCoordinator(3, 40, 200, 11L)) {
+            coordinator.setMigrationRate(0);
+            List<ShardWorker> workers = new ArrayList<>();
+            List<Thread> threads = startWorkerThreads(coordinator.getAddress(), 3, workers);
+            coordinator.start();
+            coordinator.runSimulation(6);
+            assertEquals(expected, coordinator.getPopulationSize(),
+                    "Without migration the shards should evolve like independent simulations.");
+            assertEquals(6, coordinator.getYear(), "Years should be counted.");
+            coordinator.close();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long workerTotal = 0;
+            for (ShardWorker worker : workers) {
+                workerTotal += worker.getSimulation().getPopulationSize();
+            }
+            assertEquals(expected, workerTotal, "The workers should hold the whole population.");
+        }
+    }
+
+    @Test
+    void testMigrationIsReproducible() throws Exception {
+        long[] sizes = new long[2];
+        double[] generations = new double[2];
+        for (int run = 0; run < 2; run++) {
+            try (ShardCoordinator coordinator = new ShardCoordinator(3, 60, 300, 5L)) {
+                coordinator.setMigrationRate(0.3);
+                startWorkerThreads(coordinator.getAddress(), 3);
+                coordinator.start();
+                coordinator.runSimulation(6);
+                sizes[run] = coordinator.getPopulationSize();
+                generations[run] = coordinator.getMeanGeneration();
+            }
+        }
+        assertEquals(sizes[0], sizes[1], "Two runs with the same seed should reach the same population.");
+        assertEquals(generations[0], generations[1], "Two runs with the same seed should reach the same generations.");
+    }
+
+    @Test
+    void testWorkersExchangeOverUnixDomainSockets() throws Exception {
+        SocketAddress socket = UnixDomainSocketAddress.of(directory.resolve("coordinator.sock"));
+        long tcpSize;
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, 50, 250, 7L)) {
+            coordinator.setMigrationRate(0.2);
+            startWorkerThreads(coordinator.getAddress(), 2);
+            coordinator.start();
+            coordinator.runSimulation(4);
+            tcpSize = coordinator.getPopulationSize();
+        }
+        try (ShardCoordinator coordinator = new ShardCoordinator(socket, 2, 50, 250, 7L)) {
+            coordinator.setMigrationRate(0.2);
+            startWorkerThreads(coordinator.getAddress(), 2);
+            coordinator.start();
+            coordinator.runSimulation(4);
+            assertEquals(tcpSize, coordinator.getPopulationSize(), "The transport should not change the outcome.");
+        }
+    }
+
+    @Test
+    void testWorkerProcessesMatchWorkerThreads() throws Exception {
+        long threadSize;
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, 50, 250, 13L)) {
+            startWorkerThreads(coordinator.getAddress(), 2);
+            coordinator.start();
+            coordinator.runSimulation(5);
+            threadSize = coordinator.getPopulationSize();
+        }
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, 50, 250, 13L)) {
+            coordinator.launchLocalWorkers();
+            coordinator.start();
+            coordinator.runSimulation(5);
+            assertEquals(threadSize, coordinator.getPopulationSize(),
+                    "Workers in separate processes should produce the same population as worker threads.");
+        }
+    }
+
+    @Test
+    void testClosingKillsWorkerProcessesThatDoNotExitInTime() throws Exception {
+        List<Process> processes;
+        try (ShardCoordinator coordinator = new ShardCoordinator(2, 50, 250, 13L)) {
+            coordinator.setWorkerExitTimeoutMillis(0);
+            processes = coordinator.launchLocalWorkers();
+            coordinator.start();
+            coordinator.runSimulation(1);
+        }
+        for (Process process : processes) {
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS),
+                    "A worker process should not outlive the closed coordinator.");
+        }
+        try (ShardCoordinator coordinator = new ShardCoordinator(1, 10, 50, 1L)) {
+            assertThrows(IllegalArgumentException.class, () -> coordinator.setWorkerExitTimeoutMillis(-1),
+                    "A negative worker exit timeout should be rejected.");
+        }
+    }
+
+    private static List<Thread> startWorkerThreads(SocketAddress address, int count) {
+        return startWorkerThreads(address, count, new ArrayList<>());
+    }
+
+    private static List<Thread> startWorkerThreads(SocketAddress address, int count, List<ShardWorker> workers) {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ShardWorker worker = new ShardWorker(address);
+            workers.add(worker);
+            Thread thread = new Thread(() -> {
+                try {
+                    worker.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,98 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationCheckpointTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRestoredSimulationContinuesLikeOriginal() throws IOException {
+        Simulation original = new Simulation(100, 400, 21L);
+        original.setChunkSize(64);
+        original.runSimulation(6);
+        Path file = directory.resolve("year-6.bin");
+        SimulationCheckpoint.write(original, file);
+
+        Simulation restored = SimulationCheckpoint.read(file);
+        assertEquals(6, restored.getYear(), "The restored simulation should continue after the saved year.");
+        assertEquals(64, restored.getChunkSize(), "The chunk size should be restored.");
+
+        original.runSimulation(6);
+        restored.runSimulation(6);
+        assertEquals(original.getPopulationSize(), restored.getPopulationSize(), "Population sizes should match.");
+        assertEquals(original.getEnvironment().getResourceAvailability(),
+                restored.getEnvironment().getResourceAvailability(), "Resource levels should match.");
+        assertEquals(original.getEnvironment().getCarryingCapacity(),
+                restored.getEnvironment().getCarryingCapacity(), "Carrying capacities should match.");
+        BunnyPopulation expected = original.getPopulation();
+        BunnyPopulation actual = restored.getPopulation();
+        for (int slot = 0; slot < expected.slotLimit(); slot++) {
+            assertEquals(expected.isOccupied(slot), actual.isOccupied(slot), "Occupancy should match in slot " + slot);
+            assertEquals(expected.getHealth(slot), actual.getHealth(slot), "Health should match in slot " + slot);
+            assertEquals(expected.getMutationRate(slot), actual.getMutationRate(slot),
+                    "Mutation rate should match in slot " + slot);
+        }
+    }
+
+    @Test
+    void testForkKeepsStateButChangesSeed() throws IOException {
+        Simulation original = new Simulation(100, 400, 21L);
+        original.runSimulation(4);
+        Path file = directory.resolve("fork.bin");
+        SimulationCheckpoint.write(original, file);
+
+        Simulation fork = SimulationCheckpoint.fork(file, 99L);
+        assertEquals(original.getPopulationSize(), fork.getPopulationSize(), "A fork should start from the saved state.");
+        assertEquals(99L, fork.getRandomSource().getSeed(), "A fork should use the new seed.");
+    }
+
+    @Test
+    void testResumesAfterACheckpointWrittenByAListener() throws IOException {
+        Simulation original = new Simulation(60, 300, 13L);
+        PeriodicCheckpoint checkpoints = new PeriodicCheckpoint(original, directory, 5, 0);
+        original.addYearListener(checkpoints);
+        original.runSimulation(10);
+
+        Simulation restored = SimulationCheckpoint.read(checkpoints.checkpointFile(4));
+        assertEquals(5, restored.getYear(), "A checkpoint taken after year 4 should resume with year 5.");
+        List<Integer> years = new ArrayList<>();
+        restored.addYearListener((year, engine) -> years.add(year));
+        restored.runSimulation(5);
+        assertEquals(List.of(5, 6, 7, 8, 9), years, "The resumed run should not repeat the checkpointed year.");
+        assertEquals(original.getYear(), restored.getYear(), "Both runs should end at the same year.");
+        assertEquals(original.getPopulationSize(), restored.getPopulationSize(), "Population sizes should match.");
+        assertEquals(original.getEnvironment().getResourceAvailability(),
+                restored.getEnvironment().getResourceAvailability(), "Resource levels should match.");
+    }
+
+    @Test
+    void testPeriodicCheckpointKeepsMostRecent() {
+        Simulation simulation = new Simulation(20, 100, 5L);
+        PeriodicCheckpoint checkpoints = new PeriodicCheckpoint(simulation, directory.resolve("run"), 3, 2);
+        simulation.addYearListener(checkpoints);
+        simulation.runSimulation(12);
+
+        assertFalse(Files.exists(checkpoints.checkpointFile(2)), "Old checkpoints should be deleted.");
+        assertFalse(Files.exists(checkpoints.checkpointFile(5)), "Old checkpoints should be deleted.");
+        assertTrue(Files.exists(checkpoints.checkpointFile(8)), "Recent checkpoints should be kept.");
+        assertTrue(Files.exists(checkpoints.checkpointFile(11)), "The latest checkpoint should exist.");
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> SimulationCheckpoint.read(file));
+    }
+}
@@ -0,0 +1,68 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationMetricsTest {
+
+    @Test
+    void testCountersBalanceThePopulation() {
+        Simulation simulation = new Simulation(200, 1000, 3L);
+        SimulationMetrics metrics = new SimulationMetrics();
+        simulation.setMetricsRegistry(metrics);
+        long before = simulation.getPopulationSize();
+        simulation.runSimulation(12);
+
+        assertEquals(12, metrics.getYears(), "Every year should be counted.");
+        assertTrue(metrics.getBirths() > 0, "Bunnies should be born.");
+        assertTrue(metrics.getDeathsByAge() > 0, "Bunnies should die of old age.");
+        assertTrue(metrics.getMutations() <= metrics.getBirths(), "Only offspring can mutate.");
+        assertEquals(before + metrics.getBirths() - metrics.getRemovals(), simulation.getPopulationSize(),
+                "Births and removals should account for the change in population.");
+        assertEquals(simulation.getPopulationSize(), metrics.getPopulation(),
+                "The population gauge should hold the size at the end of the last year.");
+        assertEquals(simulation.getEnvironment().getResourceAvailability(), metrics.getResources(),
+                "The resource gauge should hold the level at the end of the last year.");
+        for (MetricsRegistry.Phase phase : MetricsRegistry.Phase.values()) {
+            assertTrue(metrics.getPhaseNanos(phase) >= 0, "Phase " + phase + " should have a duration.");
+        }
+        assertTrue(metrics.getAgeAndReproduceNanos() > 0, "Ageing and reproduction should take time.");
+    }
+
+    @Test
+    void testMetricsDoNotChangeTheOutcome() {
+        Simulation measured = new Simulation(200, 1000, 8L);
+        measured.setMetricsRegistry(new SimulationMetrics());
+        Simulation plain = new Simulation(200, 1000, 8L);
+        measured.runSimulation(10);
+        measured.naturalSelection();
+        plain.runSimulation(10);
+        plain.naturalSelection();
+        assertEquals(plain.getPopulationSize(), measured.getPopulationSize(),
+                "Measuring should not change the population.");
+    }
+
+    @Test
+    void testRegisteredMetricsAreReadableThroughJmx() throws JMException {
+        SimulationMetrics metrics = new SimulationMetrics();
+        ObjectName name = metrics.register("test");
+        try {
+            Simulation simulation = new Simulation(50, 500, 1L);
+            simulation.setMetricsRegistry(metrics);
+            simulation.runSimulation(3);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(3L, server.getAttribute(name, "Years"), "JMX should report the number of years.");
+            assertEquals(metrics.getBirths(), server.getAttribute(name, "Births"), "JMX should report the births.");
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name),
+                "Unregistered metrics should leave the MBean server.");
+    }
+}
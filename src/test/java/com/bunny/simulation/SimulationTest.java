@@ -0,0 +1,139 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTest {
+
+    private Simulation simulation;
+
+    @BeforeEach
+    public void setup() {
+        simulation = new Simulation(2, 20);
+    }
+
+    @Test
+    public void testInitialBunnyCount() {
+        List<Bunny> bunnies = simulation.getBunnies();
+        assertEquals(2, bunnies.size(), "There should be 2 initial bunnies");
+    }
+
+    @Test
+    public void testRunSimulationAddsBunnies() {
+        simulation.runSimulation(5);
+        List<Bunny> bunnies = simulation.getBunnies();
+        assertTrue(bunnies.size() > 2, "There should be more than 2 bunnies after running the simulation"); // New bunnies should be born
+    }
+
+    @Test
+    public void testRemoveDeadBunnies() {
+        List<Bunny> bunnies = simulation.getBunnies();
+
+        // Age all bunnies to make them die
+        for (Bunny bunny : bunnies) {
+            bunny.setAge(15);
+        }
+
+        simulation.removeDeadBunnies();
+
+        bunnies = simulation.getBunnies();
+        assertEquals(0, bunnies.size(), "All bunnies should be dead, and the list should be empty");
+    }
+
+    @Test
+    public void testResourceUpdateAfterBunnyRemoval() {
+        simulation.runSimulation(1);
+        int initialResources = simulation.getBunnies().size();
+        simulation.removeDeadBunnies();
+        assertTrue(simulation.getBunnies().size() <= initialResources, "Population should decrease after removing dead bunnies");
+    }
+
+    @Test
+    public void testParallelRunKeepsPopulationConsistent() {
+        Simulation parallel = new Simulation(200, 1000);
+        parallel.setChunkSize(16);
+        parallel.setParallelism(4);
+        parallel.runSimulation(6);
+
+        BunnyPopulation population = parallel.getPopulation();
+        int occupied = 0;
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (population.isOccupied(slot)) {
+                occupied++;
+            }
+        }
+        assertEquals(4, parallel.getParallelism(), "Parallelism should be the configured value");
+        assertEquals(population.size(), occupied, "Population size should match the occupied slots");
+        assertTrue(population.size() > 200, "Population should grow with plenty of resources");
+    }
+
+    @Test
+    public void testSameSeedGivesSameRun() {
+        Simulation first = new Simulation(50, 200, 1234L);
+        Simulation second = new Simulation(50, 200, 1234L);
+        first.runSimulation(8);
+        second.runSimulation(8);
+        assertSamePopulation(first.getPopulation(), second.getPopulation());
+    }
+
+    @Test
+    public void testParallelRunMatchesSequentialRun() {
+        Simulation sequential = new Simulation(300, 2000, 99L);
+        sequential.setChunkSize(32);
+        Simulation parallel = new Simulation(300, 2000, 99L);
+        parallel.setChunkSize(32);
+        parallel.setParallelism(4);
+
+        sequential.runSimulation(8);
+        parallel.runSimulation(8);
+        assertSamePopulation(sequential.getPopulation(), parallel.getPopulation());
+    }
+
+    @Test
+    public void testClosedSimulationRunsOnTheCallingThread() {
+        Simulation sequential = new Simulation(300, 2000, 21L);
+        sequential.setChunkSize(32);
+        sequential.runSimulation(6);
+        try (Simulation parallel = new Simulation(300, 2000, 21L)) {
+            parallel.setChunkSize(32);
+            parallel.setParallelism(4);
+            parallel.runSimulation(3);
+            parallel.close();
+            parallel.runSimulation(3);
+            assertSamePopulation(sequential.getPopulation(), parallel.getPopulation());
+        }
+    }
+
+    @Test
+    public void testHugeChunkSizeProcessesTheWholePopulation() {
+        Simulation expected = new Simulation(300, 2000, 23L);
+        expected.setChunkSize(1 << 20);
+        Simulation actual = new Simulation(300, 2000, 23L);
+        actual.setChunkSize(Integer.MAX_VALUE);
+
+        expected.runSimulation(5);
+        actual.runSimulation(5);
+        assertEquals(5, actual.getYear(), "Years should be counted.");
+        assertSamePopulation(expected.getPopulation(), actual.getPopulation());
+    }
+
+    private static void assertSamePopulation(BunnyPopulation expected, BunnyPopulation actual) {
+        assertEquals(expected.size(), actual.size(), "Population sizes should match");
+        assertEquals(expected.slotLimit(), actual.slotLimit(), "Slot ranges should match");
+        for (int slot = 0; slot < expected.slotLimit(); slot++) {
+            assertEquals(expected.isOccupied(slot), actual.isOccupied(slot), "Occupancy should match in slot " + slot);
+            if (expected.isOccupied(slot)) {
+                assertEquals(expected.getAge(slot), actual.getAge(slot), "Age should match in slot " + slot);
+                assertEquals(expected.getHealth(slot), actual.getHealth(slot), "Health should match in slot " + slot);
+                assertEquals(expected.getReproductionRate(slot), actual.getReproductionRate(slot),
+                        "Reproduction rate should match in slot " + slot);
+                assertEquals(expected.getMutationRate(slot), actual.getMutationRate(slot),
+                        "Mutation rate should match in slot " + slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialSimulationTest {
+
+    @Test
+    void testMigrationKeepsEveryBunny() {
+        SpatialSimulation simulation = new SpatialSimulation(3, 2, 40, 200, 4L);
+        simulation.setMigrationRate(1.0);
+        long before = simulation.getPopulationSize();
+        simulation.migrate();
+        assertEquals(before, simulation.getPopulationSize(), "Migration should neither add nor lose bunnies.");
+        assertNotEquals(40, simulation.getPatch(0, 0).getPopulationSize(),
+                "With a migration rate of 1 every bunny should leave its patch.");
+    }
+
+    @Test
+    void testSinglePatchHasNoMigration() {
+        SpatialSimulation spatial = new SpatialSimulation(1, 1, 50, 300, 9L);
+        spatial.setMigrationRate(1.0);
+        spatial.runSimulation(5);
+        Simulation patch = spatial.getPatch(0, 0);
+        assertEquals(patch.getPopulationSize(), spatial.getPopulationSize(),
+                "A single patch should hold the whole population.");
+        assertEquals(patch.getEnvironment().getResourceAvailability(),
+                spatial.getEnvironment().getResourceAvailability(),
+                "The summary of a single patch should match its environment.");
+    }
+
+    @Test
+    void testParallelPatchesMatchSequentialPatches() {
+        SpatialSimulation sequential = new SpatialSimulation(4, 3, 30, 150, 17L);
+        try (SpatialSimulation parallel = new SpatialSimulation(4, 3, 30, 150, 17L)) {
+            parallel.setParallelism(4);
+            sequential.runSimulation(8);
+            parallel.runSimulation(8);
+            for (int y = 0; y < 3; y++) {
+                for (int x = 0; x < 4; x++) {
+                    assertEquals(sequential.getPatch(x, y).getPopulationSize(),
+                            parallel.getPatch(x, y).getPopulationSize(),
+                            "Patch " + x + "," + y + " should not depend on the parallelism.");
+                }
+            }
+            assertEquals(sequential.getMeanGeneration(), parallel.getMeanGeneration(),
+                    "The mean generation should not depend on the parallelism.");
+            assertEquals(8, parallel.getYear(), "Years should be counted.");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuperIndividualSimulationTest {
+
+    @Test
+    void testMatchesPerBunnySimulationWithinBudget() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Simulation simulation = new Simulation(20, 100, seed);
+            SuperIndividualSimulation agents = new SuperIndividualSimulation(20, 100, seed, 20);
+            for (int year = 0; year < 15; year++) {
+                simulation.runSimulation(1);
+                agents.runSimulation(1);
+                assertEquals(simulation.getPopulationSize(), agents.getPopulationSize(),
+                        "Population sizes should match in year " + year + " for seed " + seed);
+                assertEquals(simulation.getEnvironment().getResourceAvailability(),
+                        agents.getEnvironment().getResourceAvailability(), 1e-9,
+                        "Resource levels should match in year " + year + " for seed " + seed);
+                assertEquals(simulation.getPopulation().getStatistics().getMeanHealth(), agents.getMeanHealth(), 1e-9,
+                        "Mean health should match in year " + year + " for seed " + seed);
+                assertTrue(agents.getAgentCount() <= 20, "The agent count should stay within the budget.");
+            }
+        }
+    }
+
+    @Test
+    void testRunawayGrowthStaysWithinBudget() {
+        SuperIndividualSimulation agents = new SuperIndividualSimulation(1_000_000, 2_000_000_000, 3L, 50);
+        CohortSimulation cohorts = new CohortSimulation(1_000_000, 2_000_000_000, 3L);
+        for (int year = 0; year < 12; year++) {
+            agents.runSimulation(1);
+            cohorts.runSimulation(1);
+            assertTrue(agents.getAgentCount() <= 50, "The agent count should stay within the budget.");
+            assertEquals(cohorts.getPopulationSize(), agents.getPopulationSize(),
+                    "Totals should match the cohort engine in year " + year);
+        }
+        long weights = 0;
+        for (int agent = 0; agent < agents.getAgentCount(); agent++) {
+            assertTrue(agents.getWeight(agent) > 0, "Every agent should stand for at least one bunny.");
+            weights += agents.getWeight(agent);
+        }
+        assertEquals(agents.getPopulationSize(), weights, "The weights should add up to the population size.");
+        assertEquals(cohorts.getMeanGeneration(), agents.getMeanGeneration(), 0.05,
+                "Down-sampling should preserve the mean generation.");
+        assertEquals(cohorts.getMeanMutationRate(), agents.getMeanMutationRate(), 0.002,
+                "Down-sampling should preserve the mean mutation rate.");
+    }
+
+    @Test
+    void testBudgetMustCoverEveryAge() {
+        assertThrows(IllegalArgumentException.class, () -> new SuperIndividualSimulation(10, 100, 1L, 5),
+                "A budget below two agents per age should be rejected.");
+    }
+}
@@ -0,0 +1,69 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepRunnerTest {
+
+    @Test
+    void testResultsMatchFreshSimulations() {
+        List<SweepRunner.Point> points = new ArrayList<>();
+        for (int years = 12; years >= 1; years -= 3) {
+            for (long seed = 1; seed <= 3; seed++) {
+                points.add(new SweepRunner.Point(30, 120, seed, years));
+            }
+        }
+        SweepRunner runner = new SweepRunner(64L << 20);
+        runner.setParallelism(3);
+        List<SweepRunner.Result> results = runner.run(points);
+
+        assertEquals(points.size(), results.size(), "There should be one result per point.");
+        for (int i = 0; i < points.size(); i++) {
+            SweepRunner.Point point = points.get(i);
+            Simulation fresh = new Simulation(point.getInitialBunnies(), point.getCarryingCapacity(), point.getSeed());
+            fresh.runSimulation(point.getYears());
+            SweepRunner.Result result = results.get(i);
+            assertSame(point, result.getPoint(), "Results should be in the order of the points.");
+            assertEquals(fresh.getPopulationSize(), result.getPopulationSize(),
+                    "A cached prefix should not change the population of point " + i);
+            assertEquals(fresh.getEnvironment().getResourceAvailability(), result.getResourceAvailability(),
+                    "A cached prefix should not change the resources of point " + i);
+        }
+    }
+
+    @Test
+    void testSharedPrefixesAreSimulatedOnce() {
+        List<SweepRunner.Point> points = new ArrayList<>();
+        for (int years = 1; years <= 20; years++) {
+            points.add(new SweepRunner.Point(20, 100, 7L, years));
+        }
+        SweepRunner runner = new SweepRunner(64L << 20);
+        List<SweepRunner.Result> results = runner.run(points);
+        assertEquals(20, runner.getYearsSimulated(), "Each year of the shared run should be simulated once.");
+        assertEquals(19, runner.getCacheHits(), "Every point but the first should continue from the cache.");
+        assertEquals(9, results.get(9).getResumedFromYear(), "A point should continue from the previous point.");
+
+        runner.run(List.of(new SweepRunner.Point(20, 100, 7L, 25)));
+        assertEquals(25, runner.getYearsSimulated(), "A later sweep should continue from the cached states.");
+    }
+
+    @Test
+    void testCacheStaysWithinItsSize() {
+        SweepRunner probe = new SweepRunner(64L << 20);
+        probe.run(List.of(new SweepRunner.Point(200, 400, 3L, 5)));
+        long entryBytes = probe.getCachedBytes();
+
+        SweepRunner runner = new SweepRunner(entryBytes * 3);
+        runner.setSnapshotInterval(1);
+        runner.run(List.of(new SweepRunner.Point(200, 400, 3L, 10)));
+        assertTrue(runner.getCachedBytes() <= entryBytes * 3, "The cache should stay within its size.");
+        assertTrue(runner.getCacheEvictions() > 0, "The least recently used states should be evicted.");
+
+        List<SweepRunner.Result> results = runner.run(List.of(new SweepRunner.Point(200, 400, 3L, 12)));
+        assertEquals(10, results.get(0).getResumedFromYear(), "The newest states should survive eviction.");
+    }
+}
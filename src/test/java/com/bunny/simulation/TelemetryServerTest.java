@@ -0,0 +1,134 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryServerTest {
+
+    @Test
+    void testStreamsEveryYear() throws IOException {
+        try (TelemetryServer telemetry = new TelemetryServer(0)) {
+            Simulation simulation = new Simulation(20, 200, 5L);
+            simulation.addYearListener(telemetry);
+            simulation.runSimulation(5);
+
+            BufferedReader events = open(telemetry, null);
+            List<String> data = readData(events, 5);
+            for (int year = 0; year < 5; year++) {
+                assertTrue(data.get(year).startsWith("{\"year\":" + year + ","),
+                        "Every year should be streamed in order: " + data.get(year));
+            }
+            assertTrue(data.get(4).contains("\"population\":" + simulation.getPopulationSize()),
+                    "A frame should carry the population of its year.");
+
+            simulation.runSimulation(1);
+            assertTrue(readData(events, 1).get(0).startsWith("{\"year\":5,"),
+                    "Years run after the viewer connected should be streamed live.");
+            events.close();
+        }
+    }
+
+    @Test
+    void testResumesAfterTheLastEventId() throws IOException {
+        try (TelemetryServer telemetry = new TelemetryServer(0)) {
+            Simulation simulation = new Simulation(20, 200, 6L);
+            simulation.addYearListener(telemetry);
+            simulation.runSimulation(6);
+            BufferedReader events = open(telemetry, "3");
+            assertTrue(readData(events, 1).get(0).startsWith("{\"year\":4,"),
+                    "A reconnecting viewer should continue after the last year it saw.");
+            events.close();
+        }
+    }
+
+    @Test
+    void testSamplesBunniesOfASimulation() throws IOException {
+        try (TelemetryServer telemetry = new TelemetryServer(0)) {
+            telemetry.setSampleSize(3);
+            Simulation simulation = new Simulation(30, 300, 7L);
+            simulation.addYearListener(telemetry);
+            simulation.runSimulation(1);
+            BufferedReader events = open(telemetry, null);
+            String frame = readData(events, 1).get(0);
+            assertTrue(frame.contains("\"sample\":[{\"id\":"), "Frames should carry the sampled bunnies: " + frame);
+            events.close();
+        }
+    }
+
+    @Test
+    void testSlowViewersDropOldFramesWithoutStallingTheSimulation() throws IOException {
+        try (TelemetryServer telemetry = new TelemetryServer(0, 4, 8)) {
+            Simulation simulation = new Simulation(20, 200, 8L);
+            simulation.addYearListener(telemetry);
+            try (Socket stalled = new Socket("localhost", telemetry.getPort())) {
+                stalled.getOutputStream().write(("GET " + TelemetryServer.PATH + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                assertTimeoutPreemptively(Duration.ofSeconds(30), () -> simulation.runSimulation(20),
+                        "A viewer that never reads should not stall the simulation.");
+            }
+            BufferedReader events = open(telemetry, "0");
+            assertEquals("15", readEvent(events, "dropped"),
+                    "A viewer behind by more than the ring should be told how many frames it missed.");
+            assertTrue(readData(events, 1).get(0).startsWith("{\"year\":16,"),
+                    "After the gap the viewer should continue with the oldest frame in the ring.");
+            events.close();
+            // The stalled viewer may have dropped frames as well, depending on when its stream started
+            assertTrue(telemetry.getDroppedFrames() >= 15, "Frames skipped by viewers should be counted.");
+        }
+    }
+
+    @Test
+    void testTurnsAwayViewersBeyondTheLimit() throws IOException {
+        try (TelemetryServer telemetry = new TelemetryServer(0, 16, 1)) {
+            BufferedReader first = open(telemetry, null);
+            HttpURLConnection second = (HttpURLConnection) telemetry.getUri().toURL().openConnection();
+            assertEquals(503, second.getResponseCode(), "Viewers beyond the limit should be turned away.");
+            first.close();
+        }
+    }
+
+    private static BufferedReader open(TelemetryServer telemetry, String lastEventId) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) telemetry.getUri().toURL().openConnection();
+        connection.setReadTimeout(10_000);
+        if (lastEventId != null) {
+            connection.setRequestProperty("Last-Event-ID", lastEventId);
+        }
+        assertEquals(200, connection.getResponseCode(), "The telemetry endpoint should accept viewers.");
+        assertTrue(connection.getContentType().startsWith("text/event-stream"), "The stream should be SSE.");
+        InputStream in = connection.getInputStream();
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static List<String> readData(BufferedReader events, int count) throws IOException {
+        List<String> data = new ArrayList<>();
+        while (data.size() < count) {
+            data.add(readEvent(events, "year"));
+        }
+        return data;
+    }
+
+    private static String readEvent(BufferedReader events, String type) throws IOException {
+        String event = null;
+        String line;
+        while ((line = events.readLine()) != null) {
+            if (line.startsWith("event: ")) {
+                event = line.substring(7);
+            } else if (line.startsWith("data: ") && type.equals(event)) {
+                return line.substring(6);
+            }
+        }
+        throw new IOException("The stream ended before a " + type + " event");
+    }
+}
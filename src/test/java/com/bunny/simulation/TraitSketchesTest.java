@@ -0,0 +1,121 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraitSketchesTest {
+
+    @Test
+    void testSketchesDescribeTheSurvivorsOfEachYear() {
+        Simulation simulation = new Simulation(50, 500, 4L);
+        simulation.setTraitSketching(true);
+        List<TraitSketches> years = new ArrayList<>();
+        simulation.addYearListener((year, engine) -> {
+            TraitSketches sketches = simulation.getTraitSketches();
+            assertEquals(year, sketches.getYear(), "The sketches should describe the year that just ended.");
+            assertEquals(simulation.getPopulationSize(), sketches.getCount(),
+                    "Every living bunny should be sketched once.");
+            years.add(sketches);
+        });
+        simulation.runSimulation(8);
+        assertEquals(8, years.size(), "Every year should get its own sketches.");
+
+        BunnyPopulation population = simulation.getPopulation();
+        long[] ageCounts = new long[Bunny.MAX_AGE];
+        double maxHealth = Double.NEGATIVE_INFINITY;
+        for (int slot = 0; slot < population.slotLimit(); slot++) {
+            if (population.isOccupied(slot)) {
+                ageCounts[population.getAge(slot)]++;
+                maxHealth = Math.max(maxHealth, population.getHealth(slot));
+            }
+        }
+        TraitSketches last = years.get(years.size() - 1);
+        FixedHistogram ages = last.getHistogram(TraitSketches.Trait.AGE);
+        for (int age = 0; age < Bunny.MAX_AGE; age++) {
+            assertEquals(ageCounts[age], ages.getCount(age), "The age histogram should count ages exactly.");
+        }
+        assertEquals(maxHealth, last.getQuantiles(TraitSketches.Trait.HEALTH).getMax(),
+                "The health sketch should know the exact maximum.");
+    }
+
+    @Test
+    void testSketchesDoNotDependOnTheParallelism() {
+        TraitSketches serial = sketchesAfter(1, 16);
+        assertArrayEquals(serial.toByteArray(), sketchesAfter(4, 16).toByteArray(),
+                "Sketches should not depend on the number of threads.");
+
+        FixedHistogram otherChunks = sketchesAfter(4, 64).getHistogram(TraitSketches.Trait.HEALTH);
+        FixedHistogram health = serial.getHistogram(TraitSketches.Trait.HEALTH);
+        for (int bin = 0; bin < health.getBinCount(); bin++) {
+            assertEquals(health.getCount(bin), otherChunks.getCount(bin),
+                    "Histograms should not depend on the chunk size.");
+        }
+    }
+
+    private static TraitSketches sketchesAfter(int parallelism, int chunkSize) {
+        Simulation simulation = new Simulation(100, 2000, 21L);
+        simulation.setParallelism(parallelism);
+        simulation.setChunkSize(chunkSize);
+        simulation.setTraitSketching(true);
+        simulation.runSimulation(10);
+        return simulation.getTraitSketches();
+    }
+
+    @Test
+    void testSerializedSketchesAnswerAndMergeLikeTheOriginal() {
+        TraitSketches first = new TraitSketches();
+        TraitSketches second = new TraitSketches();
+        for (int i = 0; i < 5000; i++) {
+            first.add(i % Bunny.MAX_AGE, i % 100, (i % 37) / 37.0, (i % 11) / 11.0);
+            second.add((i * 7) % Bunny.MAX_AGE, (i * 3) % 100, (i % 13) / 13.0, (i % 5) / 5.0);
+        }
+        byte[] bytes = first.toByteArray();
+        assertTrue(bytes.length < 64 * 1024, "Serialized sketches should take a few kilobytes.");
+        TraitSketches restored = TraitSketches.fromByteArray(bytes);
+        assertArrayEquals(bytes, restored.toByteArray(), "A restored sketch should serialize to the same bytes.");
+
+        first.merge(second);
+        restored.merge(second);
+        assertArrayEquals(first.toByteArray(), restored.toByteArray(),
+                "A restored sketch should merge like the original.");
+        assertEquals(10000, restored.getCount(), "Merged sketches should count both sides.");
+        assertEquals(49.5, restored.getQuantiles(TraitSketches.Trait.HEALTH).quantile(0.5), 3.0,
+                "The merged median should be close to the true median.");
+    }
+
+    @Test
+    void testRejectsOtherBytes() {
+        assertThrows(IllegalArgumentException.class, () -> TraitSketches.fromByteArray(new byte[16]),
+                "Bytes without the magic number should be rejected.");
+    }
+
+    @Test
+    void testHistogramBinsAndMerges() {
+        FixedHistogram histogram = new FixedHistogram(0, 10, 5);
+        for (double value : new double[]{-1, 0, 1.9, 2, 9.99, 10, 11}) {
+            histogram.add(value);
+        }
+        assertEquals(1, histogram.getUnderflow(), "Values below the range should be counted as underflow.");
+        assertEquals(1, histogram.getOverflow(), "Values above the range should be counted as overflow.");
+        assertEquals(2, histogram.getCount(0), "The first bin should hold values from its lower bound.");
+        assertEquals(1, histogram.getCount(1), "A bin's lower bound should fall into that bin.");
+        assertEquals(2, histogram.getCount(4), "The upper bound should fall into the last bin.");
+        assertEquals(2.0, histogram.getLowerBound(1), "Bins should be equally wide.");
+
+        FixedHistogram other = new FixedHistogram(0, 10, 5);
+        other.add(3);
+        histogram.merge(other);
+        assertEquals(8, histogram.getTotal(), "Merging should add the counts.");
+        assertEquals(2, histogram.getCount(1), "Merging should add the counts per bin.");
+        assertThrows(IllegalArgumentException.class, () -> histogram.merge(new FixedHistogram(0, 10, 4)),
+                "Histograms with different bins should not merge.");
+        long[] counts = new long[histogram.getBinCount()];
+        Arrays.setAll(counts, histogram::getCount);
+        assertEquals(6, Arrays.stream(counts).sum(), "The bins should hold every value in range.");
+    }
+}
@@ -0,0 +1,88 @@
+package com.bunny.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorHealthKernelsTest {
+    private static final int SIZE = 1003;
+
+    private final VectorHealthKernels kernels = new VectorHealthKernels();
+
+    @Test
+    void testTestsRunWithTheVectorApi() {
+        assertTrue(HealthKernels.isVectorized(), "The vector profile should add the Vector API module to the tests.");
+    }
+
+    @Test
+    void testVectorAndScalarHealthAgree() {
+        SplittableRandom random = new SplittableRandom(3L);
+        double[] health = new double[SIZE];
+        boolean[] alive = new boolean[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            health[i] = random.nextDouble(0, 100);
+            alive[i] = random.nextInt(4) != 0;
+        }
+        double[] scalar = health.clone();
+        PopulationStatistics vectorChanges = new PopulationStatistics();
+        PopulationStatistics scalarChanges = new PopulationStatistics();
+        long vectorCount = kernels.adjustHealth(health, alive, 5, SIZE - 2, -7.5, vectorChanges);
+        long scalarCount = HealthKernels.scalarAdjustHealth(scalar, alive, 5, SIZE - 2, -7.5, scalarChanges);
+
+        assertEquals(scalarCount, vectorCount, "Both kernels should adjust the same bunnies.");
+        assertArrayEquals(scalar, health, "Both kernels should compute identical health values.");
+        assertEquals(scalarChanges.getHealthVariance(), vectorChanges.getHealthVariance(),
+                "Both kernels should record a bit-identical change of statistics.");
+        for (int i = 0; i < SIZE; i++) {
+            if (!alive[i] || i < 5 || i >= SIZE - 2) {
+                assertEquals(scalar[i], health[i], "Dead bunnies and slots outside the range should not change.");
+            }
+        }
+    }
+
+    @Test
+    void testHealthStatisticsDoNotDependOnTheVectorWidth() {
+        SplittableRandom random = new SplittableRandom(5L);
+        double[] health = new double[SIZE];
+        boolean[] alive = new boolean[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            health[i] = random.nextDouble(0, 100);
+            alive[i] = random.nextInt(3) != 0;
+        }
+        double[] narrow = health.clone();
+        double[] scalar = health.clone();
+        PopulationStatistics wideChanges = new PopulationStatistics();
+        PopulationStatistics narrowChanges = new PopulationStatistics();
+        PopulationStatistics scalarChanges = new PopulationStatistics();
+        VectorHealthKernels.adjustHealthWide(health, alive, 3, SIZE, -2.5, wideChanges);
+        VectorHealthKernels.adjustHealthNarrow(narrow, alive, 3, SIZE, -2.5, narrowChanges);
+        HealthKernels.scalarAdjustHealth(scalar, alive, 3, SIZE, -2.5, scalarChanges);
+
+        assertArrayEquals(scalar, health, "The wide kernel should compute identical health values.");
+        assertArrayEquals(scalar, narrow, "The narrow kernel should compute identical health values.");
+        assertEquals(scalarChanges.getHealthVariance(), wideChanges.getHealthVariance(),
+                "The wide kernel should sum the health in the scalar order.");
+        assertEquals(scalarChanges.getHealthVariance(), narrowChanges.getHealthVariance(),
+                "The narrow kernel should sum the health in the scalar order.");
+    }
+
+    @Test
+    void testVectorAndScalarFitnessAgree() {
+        SplittableRandom random = new SplittableRandom(4L);
+        double[] health = new double[SIZE];
+        double[] reproductionRate = new double[SIZE];
+        double[] mutationRate = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            health[i] = random.nextDouble(0, 100);
+            reproductionRate[i] = random.nextDouble();
+            mutationRate[i] = random.nextDouble();
+        }
+        double[] vector = new double[SIZE];
+        double[] scalar = new double[SIZE];
+        kernels.calculateFitness(0.3, health, reproductionRate, mutationRate, 1, SIZE, vector);
+        HealthKernels.scalarCalculateFitness(0.3, health, reproductionRate, mutationRate, 1, SIZE, scalar);
+        assertArrayEquals(scalar, vector, "Both kernels should compute identical fitness values.");
+    }
+}
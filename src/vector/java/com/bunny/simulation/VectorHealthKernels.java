@@ -0,0 +1,102 @@
+package com.bunny.simulation;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API implementation of {@link HealthKernels}. This class is only compiled by the {@code vector} profile
+ * and only loaded when the {@code jdk.incubator.vector} module is present.
+ *
+ * <p>The fitness loop handles as many bunnies per iteration as the preferred vector shape of the CPU holds doubles,
+ * and the remainder of a range with the scalar kernel. Lanes compute the same operations in the same order as the
+ * scalar kernels, so the resulting values are identical.</p>
+ *
+ * <p>The health loop keeps the {@value HealthKernels#SUM_LANES} partial sums of {@link HealthKernels} in the lanes
+ * of one 512-bit vector, or of two 256-bit vectors on CPUs with narrower vectors, and reads the lanes out in order
+ * instead of reducing them in an unspecified order. On CPUs without 256-bit vectors it uses the scalar kernel.</p>
+ */
+final class VectorHealthKernels implements HealthKernels.Implementation {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> WIDE = DoubleVector.SPECIES_512;
+    private static final VectorSpecies<Double> NARROW = DoubleVector.SPECIES_256;
+
+    VectorHealthKernels() {
+    }
+
+    @Override
+    public long adjustHealth(double[] health, boolean[] alive, int from, int to, double delta,
+                             PopulationStatistics changes) {
+        if (SPECIES.vectorBitSize() >= WIDE.vectorBitSize()) {
+            return adjustHealthWide(health, alive, from, to, delta, changes);
+        }
+        if (SPECIES.vectorBitSize() >= NARROW.vectorBitSize()) {
+            return adjustHealthNarrow(health, alive, from, to, delta, changes);
+        }
+        return HealthKernels.scalarAdjustHealth(health, alive, from, to, delta, changes);
+    }
+
+    /**
+     * Adjusts the health with the partial sums in the lanes of one 512-bit vector.
+     */
+    static long adjustHealthWide(double[] health, boolean[] alive, int from, int to, double delta,
+                                 PopulationStatistics changes) {
+        DoubleVector deltas = DoubleVector.broadcast(WIDE, delta);
+        DoubleVector zero = DoubleVector.zero(WIDE);
+        DoubleVector sums = zero;
+        long count = 0;
+        int i = from;
+        for (int bound = from + WIDE.loopBound(to - from); i < bound; i += WIDE.length()) {
+            VectorMask<Double> living = VectorMask.fromArray(WIDE, alive, i);
+            DoubleVector values = DoubleVector.fromArray(WIDE, health, i);
+            sums = sums.add(zero.blend(values, living));
+            // Dead lanes are written back unchanged, an unmasked store is cheaper than a masked one
+            values.blend(values.add(deltas), living).intoArray(health, i);
+            count += living.trueCount();
+        }
+        return HealthKernels.adjustRemainder(health, alive, i, to, delta, changes, count, sums.lane(0), sums.lane(1),
+                sums.lane(2), sums.lane(3), sums.lane(4), sums.lane(5), sums.lane(6), sums.lane(7));
+    }
+
+    /**
+     * Adjusts the health with the partial sums in the lanes of two 256-bit vectors, the first holding the even
+     * and the second the odd groups of four bunnies.
+     */
+    static long adjustHealthNarrow(double[] health, boolean[] alive, int from, int to, double delta,
+                                   PopulationStatistics changes) {
+        int lanes = NARROW.length();
+        DoubleVector deltas = DoubleVector.broadcast(NARROW, delta);
+        DoubleVector zero = DoubleVector.zero(NARROW);
+        DoubleVector low = zero;
+        DoubleVector high = zero;
+        long count = 0;
+        int i = from;
+        for (int bound = to - 2 * lanes; i <= bound; i += 2 * lanes) {
+            VectorMask<Double> livingLow = VectorMask.fromArray(NARROW, alive, i);
+            VectorMask<Double> livingHigh = VectorMask.fromArray(NARROW, alive, i + lanes);
+            DoubleVector valuesLow = DoubleVector.fromArray(NARROW, health, i);
+            DoubleVector valuesHigh = DoubleVector.fromArray(NARROW, health, i + lanes);
+            low = low.add(zero.blend(valuesLow, livingLow));
+            high = high.add(zero.blend(valuesHigh, livingHigh));
+            valuesLow.blend(valuesLow.add(deltas), livingLow).intoArray(health, i);
+            valuesHigh.blend(valuesHigh.add(deltas), livingHigh).intoArray(health, i + lanes);
+            count += livingLow.trueCount() + livingHigh.trueCount();
+        }
+        return HealthKernels.adjustRemainder(health, alive, i, to, delta, changes, count, low.lane(0), low.lane(1),
+                low.lane(2), low.lane(3), high.lane(0), high.lane(1), high.lane(2), high.lane(3));
+    }
+
+    @Override
+    public void calculateFitness(double resourceFitness, double[] health, double[] reproductionRate,
+                                 double[] mutationRate, int from, int to, double[] fitness) {
+        DoubleVector resources = DoubleVector.broadcast(SPECIES, resourceFitness);
+        DoubleVector ones = DoubleVector.broadcast(SPECIES, 1.0);
+        int i = from;
+        for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+            DoubleVector traitFitness = ones.div(DoubleVector.fromArray(SPECIES, reproductionRate, i)
+                    .sub(DoubleVector.fromArray(SPECIES, mutationRate, i)).abs());
+            DoubleVector.fromArray(SPECIES, health, i).mul(resources).mul(traitFitness).intoArray(fitness, i);
+        }
+        HealthKernels.scalarCalculateFitness(resourceFitness, health, reproductionRate, mutationRate, i, to, fitness);
+    }
+}